@@ -1,4 +1,14 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 //Code réalisé en binôme : Deveaux Julien et Lemesle Justine.
 /**
  * <p>
@@ -8,6 +18,12 @@ import java.util.*;
  * </p>
  *
  * <p>
+ * L'arbre implante NavigableSet : les recherches de voisins (floor, ceiling,
+ * higher, lower) se font en une descente et les vues subSet, headSet,
+ * tailSet et descendingSet sont adossées à l'arbre, sans copie.
+ * </p>
+ *
+ * <p>
  * Certaines méthodes de AbstractCollection doivent être surchargées pour plus
  * d'efficacité.
  * </p>
@@ -15,17 +31,48 @@ import java.util.*;
  * @param <E>
  *			le type des clés stockées dans l'arbre
  */
-public class ARN<E> extends AbstractCollection<E> {
-	private Noeud racine;
-	private Noeud sentinelle;
-	private Comparator<? super E> cmp;
+public class ARN<E> extends AbstractSet<E> implements NavigableSet<E>, ArbreOrdonne<E> {
+	/** Taille à partir de laquelle les opérations ensemblistes se font en parallèle */
+	private static final int SEUIL_ALGEBRE_PARALLELE = 1 << 12;
+	/** Taille à partir de laquelle {@link #stats()} parcourt l'arbre en parallèle */
+	static final int SEUIL_STATS = 1 << 15;
+	/**
+	 * Nombre de comparaisons qu'un ajout s'autorise en remontant depuis le
+	 * doigt avant de repartir de la racine : les clés proches du doigt sont
+	 * trouvées sans passer par la racine, les autres ne coûtent que quelques
+	 * comparaisons de plus
+	 */
+	private static final int BUDGET_DOIGT = 2;
+	/** Renvoyé par {@link #lireBorne} quand la descente a été interrompue */
+	static final Object INTERROMPU = new Object();
+
+	Noeud racine;
+	Noeud sentinelle;
+	Comparator<? super E> cmp;
+	private Noeud doigt;			// dernier noeud ajouté ou trouvé par un ajout, point de départ du suivant
+	private int modifications;		// changements de structure, pour les parcours fail-fast
 
-	private class Noeud {
+	// Mesures, voir setMetriques
+	private ARNMetrics metriques = ARNMetrics.AUCUNE;
+	private boolean mesure;			// faux tant que metriques vaut AUCUNE
+	private int comparaisons;		// de l'opération mesurée en cours
+	private int profondeur;
+
+	/**
+	 * Noeud de l'arbre. Les sous-classes qui maintiennent une information
+	 * sur chaque sous-arbre (voir {@link ARNAgrege}) l'étendent, créent leurs
+	 * noeuds par {@link ARN#creerNoeud(Object)} et la recalculent dans
+	 * {@link ARN#majNoeud(Noeud)}. {@link ARNMap} et {@link ARNMultiset}
+	 * l'étendent aussi, pour y ranger la valeur ou le nombre d'occurrences de
+	 * chaque clé.
+	 */
+	class Noeud {
 		E cle;
 		Noeud gauche;
 		Noeud droit;
 		Noeud pere;
 		char couleur;
+		int taille;			// nombre de noeuds du sous-arbre enraciné ici
 
 		Noeud(E cle) {
 			this.cle = cle;
@@ -33,6 +80,7 @@ public class ARN<E> extends AbstractCollection<E> {
 			this.gauche = null;
 			this.pere = null;
 			couleur = 'R';
+			taille = 1;
 		}
 
 		/**
@@ -58,6 +106,18 @@ public class ARN<E> extends AbstractCollection<E> {
 			return x;
 		}
 
+		/**
+		 * Renvoie le noeud contenant la clé maximale du sous-arbre enraciné
+		 * dans ce noeud
+		 */
+		Noeud maximum() {
+			Noeud x = this;
+			while (x.droit != sentinelle) {
+				x = x.droit;
+			}
+			return x;
+		}
+
 		/**
 		 * Renvoie le successeur de ce noeud
 		 *
@@ -67,24 +127,39 @@ public class ARN<E> extends AbstractCollection<E> {
 		 */
 		Noeud suivant() {
 			Noeud x = this;
-			if(x.droit != null) {
+			if(x.droit != sentinelle) {
 				return x.droit.minimum();
 			}
 			Noeud y = x.pere;
-			while(y != null && x == y.droit) {
+			while(y != sentinelle && x == y.droit) {
 				x = y;
 				y = y.pere;
 			}
 			return y;
 		}
 
-
+		/**
+		 * Renvoie le prédécesseur de ce noeud, la sentinelle si c'est le noeud
+		 * contenant la plus petite clé
+		 */
+		Noeud precedent() {
+			Noeud x = this;
+			if(x.gauche != sentinelle) {
+				return x.gauche.maximum();
+			}
+			Noeud y = x.pere;
+			while(y != sentinelle && x == y.gauche) {
+				x = y;
+				y = y.pere;
+			}
+			return y;
+		}
 
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
 			if (o == null || getClass() != o.getClass()) return false;
-			Noeud noeud = (Noeud) o;
+			ARN<?>.Noeud noeud = (ARN<?>.Noeud) o;
 			return cle.equals(noeud.cle);
 		}
 
@@ -100,9 +175,10 @@ public class ARN<E> extends AbstractCollection<E> {
 	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
 	 */
 	public ARN() {
-		cmp = (e1, e2) -> ((Comparable<E>)e1).compareTo(e2);
+		cmp = Chargement.ORDRE_NATUREL;
 		sentinelle =  sentinelle();
 		racine = sentinelle;
+		doigt = sentinelle;
 	}
 
 	/**
@@ -115,6 +191,7 @@ public class ARN<E> extends AbstractCollection<E> {
 	public ARN(Comparator<? super E> cmp) {
 		sentinelle =  sentinelle();
 		racine = sentinelle;
+		doigt = sentinelle;
 		this.cmp = cmp;
 	}
 
@@ -127,11 +204,20 @@ public class ARN<E> extends AbstractCollection<E> {
 	 */
 	public ARN(Collection<? extends E> c) {
 		this();
-		Iterator it = c.iterator();
-		while(it.hasNext()) {
-			E t = (E)it.next();
-			this.add(t);
-		}
+		racine = construire(Chargement.preparer(c, cmp));
+	}
+
+	/**
+	 * Crée un arbre qui contient les mêmes éléments que s, ordonnés selon le
+	 * même ordre que s. Les éléments étant déjà triés, l'arbre est construit
+	 * en temps linéaire.
+	 *
+	 * @param s
+	 *			l'ensemble trié à copier
+	 */
+	public ARN(SortedSet<E> s) {
+		this(s.comparator() == null ? Chargement.ORDRE_NATUREL : s.comparator());
+		racine = construire(Chargement.preparer(s, cmp));
 	}
 
 	@Override
@@ -139,73 +225,262 @@ public class ARN<E> extends AbstractCollection<E> {
 		return new ARNIterator();
 	}
 
+	/**
+	 * Le découpage se fait au rang médian de chaque morceau, trouvé en
+	 * O(log n) grâce aux tailles des sous-arbres : les morceaux sont
+	 * équilibrés et leur taille est exacte.
+	 */
 	@Override
-	public int size() {return size(racine);}
+	public Spliterator<E> spliterator() {
+		return new ARNSpliterator(racine.minimum(), sentinelle, 0, size());
+	}
 
-	private int size(Noeud r) {
-		if(r == sentinelle) {
-			return 0;
-		}
-		return size(r.gauche) + 1 + size(r.droit);
+	/**
+	 * Parcours infixe sans itérateur : chaque successeur est trouvé dans la
+	 * boucle même, sans appel de méthode ni allocation
+	 *
+	 * @throws ConcurrentModificationException
+	 *			si l'action modifie l'arbre
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		parcourir(racine.minimum(), sentinelle, action);
 	}
 
-	public int hauteur() {
-		return hauteur(racine);
+	/**
+	 * Applique action, dans l'ordre, aux éléments e tels que lo <= e < hi,
+	 * comme {@link #countRange(Object, Object)}
+	 *
+	 * @throws IllegalArgumentException
+	 *			si lo est strictement supérieur à hi
+	 * @throws ConcurrentModificationException
+	 *			si l'action modifie l'arbre
+	 */
+	public void forEachInRange(E lo, E hi, Consumer<? super E> action) {
+		forEachInRange(lo, true, hi, false, action);
 	}
 
-	private int hauteur(Noeud r) {
-		if(r == sentinelle || r == null) {
-			return 0;
+	/**
+	 * Applique action, dans l'ordre, aux éléments compris entre lo et hi. Une
+	 * descente trouve le premier, puis le parcours s'arrête sur le noeud qui
+	 * suit le dernier, sans comparer les clés en chemin.
+	 *
+	 * @throws IllegalArgumentException
+	 *			si lo est strictement supérieur à hi
+	 * @throws ConcurrentModificationException
+	 *			si l'action modifie l'arbre
+	 */
+	public void forEachInRange(E lo, boolean loInclusive, E hi, boolean hiInclusive, Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		int c = cmp.compare(lo, hi);
+		if(c > 0) {
+			throw new IllegalArgumentException("lo > hi");
+		}
+		if(c == 0 && !(loInclusive && hiInclusive)) {
+			return;
 		}
-		int hauteurgauche = hauteur(r.gauche);
-		int hauteurdroit = hauteur(r.droit);
+		parcourir(plafond(lo, loInclusive), plafond(hi, !hiInclusive), action);
+	}
 
-		if(hauteurgauche > hauteurdroit) {
-			return (hauteurgauche + 1);
-		} else {
-			return (hauteurdroit + 1);
+	/**
+	 * Applique action aux clés des noeuds de premier (inclus) à fin (exclu),
+	 * dans l'ordre. Le successeur est le minimum du sous-arbre droit, ou le
+	 * premier ancêtre dont on remonte par la gauche.
+	 */
+	private void parcourir(Noeud premier, Noeud fin, Consumer<? super E> action) {
+		int attendu = modifications;
+		Noeud s = sentinelle;
+		Noeud x = premier;
+		while(x != fin && x != s) {
+			action.accept(x.cle);
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+			if(x.droit != s) {
+				x = x.droit;
+				while(x.gauche != s) {
+					x = x.gauche;
+				}
+			} else {
+				Noeud y = x.pere;
+				while(y != s && x == y.droit) {
+					x = y;
+					y = y.pere;
+				}
+				x = y;
+			}
 		}
 	}
 
+	@Override
+	public int size() {return racine.taille;}
+
+	@Override
+	public void clear() {
+		racine = sentinelle;
+		doigt = sentinelle;
+		modifications++;
+	}
+
+	public int hauteur() {
+		return TreeStats.calculer(racine, acces(), false).height();
+	}
+
+	/**
+	 * Installe un observateur qui reçoit, pour chaque add, remove et contains,
+	 * le nombre de comparaisons, la profondeur de la descente et la durée de
+	 * l'opération, ainsi que les rotations et les cas de correction
+	 * rencontrés. Avec {@link ARNMetrics#AUCUNE} (par défaut) les opérations
+	 * ne font qu'un test de plus et n'appellent rien.
+	 *
+	 * @param metriques
+	 *			l'observateur, AUCUNE pour ne plus rien mesurer
+	 */
+	public void setMetriques(ARNMetrics metriques) {
+		this.metriques = Objects.requireNonNull(metriques);
+		this.mesure = metriques != ARNMetrics.AUCUNE;
+	}
+
+	public ARNMetrics getMetriques() {
+		return metriques;
+	}
+
+	private long debutOperation() {
+		comparaisons = 0;
+		profondeur = 0;
+		return System.nanoTime();
+	}
+
+	private void finOperation(ARNMetrics.Operation type, long debut) {
+		metriques.operation(type, comparaisons, profondeur, System.nanoTime() - debut);
+	}
+
+	private int comparer(E a, E b) {
+		if(mesure) comparaisons++;
+		return cmp.compare(a, b);
+	}
+
 	@Override
 	public boolean contains(Object o) {
-		if(this.rechercher(o) == sentinelle) {
-			return false;
-		} else {
-			return true;
+		if(!mesure) {
+			return contient(o);
 		}
+		long debut = debutOperation();
+		boolean r = contient(o);
+		finOperation(ARNMetrics.Operation.RECHERCHE, debut);
+		return r;
 	}
 
 	@Override
-	public boolean remove(Object o)
-	{
-		Noeud t = this.rechercher((E)o);
-		if(t != sentinelle) {
-			return this.supprimer( this.rechercher((E)o)) != sentinelle;
-		} else {
+	public boolean remove(Object o) {
+		if(!mesure) {
+			return retirer(o);
+		}
+		long debut = debutOperation();
+		boolean r = retirer(o);
+		finOperation(ARNMetrics.Operation.SUPPRESSION, debut);
+		return r;
+	}
+
+	private boolean contient(Object o) {
+		return this.rechercher(o) != sentinelle;
+	}
+
+	private boolean retirer(Object o) {
+		Noeud t = this.rechercher(o);
+		if(t == sentinelle) {
 			return false;
 		}
-		
+		this.supprimer(t);
+		return true;
 	}
 
+	/**
+	 * Ajoute e s'il n'y a pas déjà d'élément égal dans l'arbre, en une seule
+	 * descente
+	 *
+	 * @param e
+	 *			l'élément à ajouter
+	 * @return l'élément égal déjà présent, ou null si e a été ajouté
+	 */
+	public E addIfAbsent(E e) {
+		Objects.requireNonNull(e);
+		int avant = size();
+		E r = inserer(e, null);
+		return size() == avant ? r : null;
+	}
 
-	// Quelques méthodes utiles
+	/**
+	 * Renvoie l'élément de l'arbre égal à e, après avoir ajouté e s'il n'y en
+	 * avait pas. Permet de dédoublonner des objets égaux en ne gardant qu'un
+	 * représentant, en une seule descente.
+	 *
+	 * @param e
+	 *			l'élément cherché
+	 * @return l'élément égal déjà présent, ou e s'il a été ajouté
+	 */
+	public E getOrAdd(E e) {
+		return inserer(Objects.requireNonNull(e), null);
+	}
 
 	/**
-	 * Recherche une clé. Cette méthode peut être utilisée par
-	 * {@link #contains(Object)} et {@link #remove(Object)}
+	 * Renvoie l'élément de l'arbre égal à cle. S'il n'y en a pas, l'élément
+	 * créé par fabrique est ajouté à la place trouvée par la descente, puis
+	 * renvoyé.
 	 *
-	 * @param o
-	 *			la clé à chercher
-	 * @return le noeud qui contient la clé ou null si la clé n'est pas trouvée.
+	 * @param cle
+	 *			la clé cherchée
+	 * @param fabrique
+	 *			crée l'élément à ajouter, qui doit être égal à cle
+	 * @return l'élément égal à cle, déjà présent ou créé
+	 * @throws IllegalArgumentException
+	 *			si l'élément créé n'est pas égal à cle
 	 */
-	private Noeud rechercher(Object o) {
-		Noeud x = racine;
+	public E computeIfAbsent(E cle, Supplier<? extends E> fabrique) {
+		return inserer(Objects.requireNonNull(cle), Objects.requireNonNull(fabrique));
+	}
+
+	private E inserer(E e, Supplier<? extends E> fabrique) {
+		if(!mesure) {
+			return trouverOuInserer(e, fabrique).cle;
+		}
+		long debut = debutOperation();
+		E r = trouverOuInserer(e, fabrique).cle;
+		finOperation(ARNMetrics.Operation.AJOUT, debut);
+		return r;
+	}
+
+	/**
+	 * Renvoie l'élément de rang k, c'est-à-dire le (k+1)-ième plus petit
+	 * élément de l'arbre, en O(log n) grâce aux tailles de sous-arbres.
+	 *
+	 * @param k
+	 *			le rang de l'élément, entre 0 et size() - 1
+	 * @return l'élément de rang k
+	 * @throws IndexOutOfBoundsException
+	 *			si k n'est pas un rang valide
+	 */
+	public E select(int k) {
+		if(k < 0 || k >= size()) {
+			throw new IndexOutOfBoundsException("Rang : " + k + ", taille : " + size());
+		}
+		return noeudDeRang(k).cle;
+	}
 
-		while (x != sentinelle && cmp.compare(x.cle, (E)o) != 0 ) {
-			if (cmp.compare(x.cle, (E)o) > 0) {
+	/**
+	 * Renvoie le noeud de rang k, la sentinelle si k vaut size()
+	 */
+	private Noeud noeudDeRang(int k) {
+		Noeud x = racine;
+		while(x != sentinelle) {
+			int g = x.gauche.taille;
+			if(k < g) {
 				x = x.gauche;
+			} else if(k == g) {
+				return x;
 			} else {
+				k -= g + 1;
 				x = x.droit;
 			}
 		}
@@ -213,164 +488,597 @@ public class ARN<E> extends AbstractCollection<E> {
 	}
 
 	/**
-	 * Supprime le noeud z. Cette méthode peut être utilisée dans
-	 * {@link #remove(Object)} et {@link Iterator#remove()}
+	 * Renvoie le rang de e, c'est-à-dire le nombre d'éléments de l'arbre
+	 * strictement inférieurs à e. L'élément n'a pas besoin d'être présent.
 	 *
-	 * @param z
-	 *			le noeud à supprimer
-	 * @return le noeud contenant la clé qui suit celle de z dans l'ordre des
-	 *		 clés. Cette valeur de retour peut être utile dans
-	 *		 {@link Iterator#remove()}
+	 * @param e
+	 *			la clé dont on cherche le rang
+	 * @return le nombre d'éléments strictement inférieurs à e
 	 */
-	private Noeud supprimer(Noeud z) {
-		System.out.println("Clé à supprimer : "+z.cle);
-		if(z == sentinelle) {
-			return sentinelle;
+	public int rank(E e) {
+		int r = 0;
+		Noeud x = racine;
+		while(x != sentinelle) {
+			int c = cmp.compare(e, x.cle);
+			if(c < 0) {
+				x = x.gauche;
+			} else if(c == 0) {
+				return r + x.gauche.taille;
+			} else {
+				r += x.gauche.taille + 1;
+				x = x.droit;
+			}
 		}
-		if(z == racine) {
-			racine = sentinelle;
-			return sentinelle;
+		return r;
+	}
+
+	/**
+	 * Compte les éléments compris entre lo (inclus) et hi (exclu) en O(log n).
+	 *
+	 * @param lo
+	 *			la borne inférieure, incluse
+	 * @param hi
+	 *			la borne supérieure, exclue
+	 * @return le nombre d'éléments e tels que lo <= e < hi
+	 * @throws IllegalArgumentException
+	 *			si lo est strictement supérieur à hi
+	 */
+	public int countRange(E lo, E hi) {
+		if(cmp.compare(lo, hi) > 0) {
+			throw new IllegalArgumentException("lo > hi");
 		}
-		if(z.couleur == 'R' || z.gauche.couleur == 'R' || z.droit.couleur == 'R') {
-			Noeud e = z.gauche != sentinelle ? z.gauche : z.droit;
+		return rank(hi) - rank(lo);
+	}
+
+	// NavigableSet
+
+	@Override
+	public Comparator<? super E> comparator() {
+		return cmp == Chargement.ORDRE_NATUREL ? null : cmp;
+	}
+
+	@Override
+	public E first() {
+		return cleOuException(racine.minimum());
+	}
+
+	@Override
+	public E last() {
+		return cleOuException(racine.maximum());
+	}
+
+	@Override
+	public E lower(E e) {
+		return plancher(e, false).cle;
+	}
+
+	@Override
+	public E floor(E e) {
+		return plancher(e, true).cle;
+	}
+
+	@Override
+	public E ceiling(E e) {
+		return plafond(e, true).cle;
+	}
+
+	@Override
+	public E higher(E e) {
+		return plafond(e, false).cle;
+	}
+
+	@Override
+	public E pollFirst() {
+		return extraire(racine.minimum());
+	}
+
+	@Override
+	public E pollLast() {
+		return extraire(racine.maximum());
+	}
+
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new ARNIterator(racine.maximum(), sentinelle, true);
+	}
+
+	@Override
+	public NavigableSet<E> descendingSet() {
+		return new SousEnsemble(true, null, true, true, null, true, true);
+	}
+
+	@Override
+	public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+		return new SousEnsemble(false, fromElement, fromInclusive, false, toElement, toInclusive, false);
+	}
+
+	@Override
+	public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+		return new SousEnsemble(true, null, true, false, toElement, inclusive, false);
+	}
+
+	@Override
+	public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+		return new SousEnsemble(false, fromElement, inclusive, true, null, true, false);
+	}
+
+	@Override
+	public SortedSet<E> subSet(E fromElement, E toElement) {
+		return subSet(fromElement, true, toElement, false);
+	}
+
+	@Override
+	public SortedSet<E> headSet(E toElement) {
+		return headSet(toElement, false);
+	}
+
+	@Override
+	public SortedSet<E> tailSet(E fromElement) {
+		return tailSet(fromElement, true);
+	}
 
-			if(z == z.pere.gauche) {
-				z.pere.gauche = e;
-				if(e != sentinelle) {
-					e.pere = z.pere;
+	/**
+	 * Descente utilisée par {@link ConcurrentARN} pour les lectures sans
+	 * verrou : l'arbre peut être modifié pendant la descente, qui s'arrête donc
+	 * au bout de maxPas noeuds (ou sur un lien nul) plutôt que de risquer de
+	 * tourner en rond. Le résultat n'a de sens que si l'appelant vérifie
+	 * ensuite qu'aucune écriture n'a eu lieu.
+	 *
+	 * @param e
+	 *			la clé cherchée, null pour le minimum (sens > 0) ou le maximum
+	 *			(sens < 0)
+	 * @param sens
+	 *			0 pour la clé égale à e, 1 pour la plus petite clé supérieure à
+	 *			e, -1 pour la plus grande clé inférieure à e
+	 * @param inclusif
+	 *			si sens est non nul, accepte aussi la clé égale à e
+	 * @param maxPas
+	 *			le nombre maximal de noeuds visités
+	 * @return la clé trouvée, null s'il n'y en a pas, {@link #INTERROMPU} si
+	 *		 la descente a été interrompue
+	 */
+	Object lireBorne(E e, int sens, boolean inclusif, int maxPas) {
+		Noeud x = racine;
+		Noeud r = sentinelle;
+		for(int pas = 0; x != sentinelle; pas++) {
+			if(x == null || pas == maxPas) {
+				return INTERROMPU;
+			}
+			int c = e == null ? -sens : cmp.compare(e, x.cle);
+			if(c == 0 && (sens == 0 || inclusif)) {
+				return x.cle;
+			}
+			if(c < 0 || (c == 0 && sens < 0)) {
+				if(sens > 0) {
+					r = x;
 				}
-				e.couleur = 'N';
-				//delete(z);
+				x = x.gauche;
 			} else {
-				z.pere.droit = e;
-				if(e != sentinelle) {
-					e.pere = z.pere;
+				if(sens < 0) {
+					r = x;
 				}
-				e.couleur = 'N';
-				//delete(z);
+				x = x.droit;
 			}
-		} else {
-			Noeud s = sentinelle;
-			Noeud pere = sentinelle;
-			Noeud ptr = z;
-			ptr.couleur = 'D';		// D pour Double Noir
-			while(ptr != racine && ptr.couleur == 'D') {
-				pere = pere.gauche;
-				if(ptr == pere.gauche) {
-					s = pere.droit;
-					if(s.couleur == 'R') {
-						s.couleur = 'N';
-						pere.couleur = 'R';
-						rotationGauche(pere);
-					} else {
-						if(s.gauche.couleur == 'N' && s.droit.couleur == 'N') {
-							s.couleur = 'R';
-							if(pere.couleur == 'R') {
-								pere.couleur = 'N';
-							} else {
-								pere.couleur = 'D';
-							}
-							ptr = pere;
-						} else {
-							if(s.droit.couleur == 'N') {
-								s.gauche.couleur = 'N';
-								s.couleur = 'R';
-								rotationDroite(s);
-								s = pere.droit;
-							}
-							s.couleur = pere.couleur;
-							pere.couleur = 'N';
-							s.droit.couleur = 'N';
-							rotationGauche(pere);
-							break;
-						}
-					}
-				} else {
-					s = pere.gauche;
-					if(s.couleur == 'R') {
-						s.couleur = 'N';
-						pere.couleur = 'R';
-						rotationDroite(pere);
-					} else {
-						if(s.gauche.couleur == 'N' && s.droit.couleur == 'N') {
-							s.couleur = 'R';
-							if(pere.couleur == 'R') {
-								pere.couleur = 'N';
-							} else {
-								pere.couleur = 'D';
-							}
-							ptr = pere;
-						} else {
-							if(s.gauche.couleur == 'N') {
-								s.droit.couleur = 'N';
-								s.couleur = 'R';
-								s = pere.gauche;
-							}
-							s.couleur = pere.couleur;
-							pere.couleur = 'N';
-							s.gauche.couleur = 'N';
-							rotationDroite(pere);
-							break;
-						}
-					}
-				}
+		}
+		return r.cle;
+	}
+
+	/**
+	 * Renvoie le noeud de la plus petite clé supérieure (ou égale si inclusif)
+	 * à e, en une seule descente
+	 *
+	 * @return le noeud trouvé, la sentinelle s'il n'y en a pas
+	 */
+	Noeud plafond(E e, boolean inclusif) {
+		Noeud x = racine;
+		Noeud r = sentinelle;
+		while(x != sentinelle) {
+			int c = cmp.compare(e, x.cle);
+			if(c == 0 && inclusif) {
+				return x;
 			}
-			if (z == z.pere.gauche) {
-				z.pere.gauche = sentinelle;
+			if(c < 0) {
+				r = x;
+				x = x.gauche;
 			} else {
-				z.pere.droit = sentinelle;
+				x = x.droit;
 			}
-			//delete(z);
-			racine.couleur = 'N';
 		}
-		return z.suivant();
+		return r;
 	}
 
-
-	private Noeud sentinelle(){
-		Noeud s = new Noeud(null);
-		s.pere = s.gauche = s.droit = s;
-		s.couleur = 'N';
-		return s;
+	/**
+	 * Renvoie le noeud de la plus grande clé inférieure (ou égale si inclusif)
+	 * à e, en une seule descente
+	 *
+	 * @return le noeud trouvé, la sentinelle s'il n'y en a pas
+	 */
+	Noeud plancher(E e, boolean inclusif) {
+		Noeud x = racine;
+		Noeud r = sentinelle;
+		while(x != sentinelle) {
+			int c = cmp.compare(e, x.cle);
+			if(c == 0 && inclusif) {
+				return x;
+			}
+			if(c > 0) {
+				r = x;
+				x = x.droit;
+			} else {
+				x = x.gauche;
+			}
+		}
+		return r;
 	}
 
-	@Override
-	public boolean add(E e)
-	{
-		if (e == null) return false;
-		Noeud t = this.rechercher(e);
-		if(t.cle == e) {
-			System.out.println("Noeud a ajouter déja dans l'arbre, annulation de l'ajout");
-			return false;
+	/**
+	 * Renvoie le nombre de noeuds qui précèdent x dans l'ordre des clés, en
+	 * remontant vers la racine. Le rang de la sentinelle est size().
+	 */
+	private int rang(Noeud x) {
+		if(x == sentinelle) {
+			return size();
 		}
-		Noeud z = new Noeud(e);
-		Noeud y = sentinelle;
-		Noeud x = racine;
+		int r = x.gauche.taille;
+		while(x.pere != sentinelle) {
+			if(x == x.pere.droit) {
+				r += x.pere.gauche.taille + 1;
+			}
+			x = x.pere;
+		}
+		return r;
+	}
 
+	private E cleOuException(Noeud x) {
+		if(x == sentinelle) {
+			throw new NoSuchElementException();
+		}
+		return x.cle;
+	}
 
-		while (x != sentinelle)
-		{
-			y = x;
-			x = this.cmp.compare(z.cle, x.cle) < 0 ? x.gauche : x.droit;
+	private E extraire(Noeud x) {
+		if(x == sentinelle) {
+			return null;
 		}
+		E e = x.cle;
+		supprimer(x);
+		return e;
+	}
 
-		z.pere = y;
 
-		if( y == sentinelle )
-		{
-			z.couleur = 'N';
-			racine = z;
+	// Quelques méthodes utiles
+
+	/**
+	 * Recherche une clé. Cette méthode peut être utilisée par
+	 * {@link #contains(Object)} et {@link #remove(Object)}
+	 *
+	 * @param o
+	 *			la clé à chercher
+	 * @return le noeud qui contient la clé ou la sentinelle si la clé n'est pas trouvée
+	 */
+	Noeud rechercher(Object o) {
+		@SuppressWarnings("unchecked")
+		E e = (E) o;
+		Noeud x = racine;
+
+		while (x != sentinelle) {
+			int c = comparer(e, x.cle);
+			if (c == 0) {
+				return x;
+			}
+			x = c < 0 ? x.gauche : x.droit;
+			if(mesure) profondeur++;
+		}
+		return x;
+	}
+
+	/**
+	 * Supprime le noeud z. Cette méthode peut être utilisée dans
+	 * {@link #remove(Object)} et {@link Iterator#remove()}
+	 *
+	 * @param z
+	 *			le noeud à supprimer
+	 * @return le noeud contenant la clé qui suit celle de z dans l'ordre des
+	 *		 clés. Cette valeur de retour peut être utile dans
+	 *		 {@link Iterator#remove()}
+	 */
+	Noeud supprimer(Noeud z) {
+		if(z == sentinelle) {
+			return sentinelle;
+		}
+		if(doigt == z) {
+			doigt = sentinelle;
+		}
+		modifications++;
+		Noeud suivant = z.suivant();
+		Noeud y = z;			// noeud effectivement retiré de sa position
+		char yCouleur = y.couleur;
+		Noeud x;				// noeud qui prend la place de y
+
+		if(z.gauche == sentinelle) {
+			x = z.droit;
+			transplanter(z, z.droit);
+		} else if(z.droit == sentinelle) {
+			x = z.gauche;
+			transplanter(z, z.gauche);
+		} else {
+			y = suivant;
+			yCouleur = y.couleur;
+			x = y.droit;
+			if(y.pere == z) {
+				x.pere = y;
+			} else {
+				transplanter(y, y.droit);
+				y.droit = z.droit;
+				y.droit.pere = y;
+			}
+			transplanter(z, y);
+			y.gauche = z.gauche;
+			y.gauche.pere = y;
+			y.couleur = z.couleur;
+		}
+		// Les sous-arbres qui ont perdu un noeud sont ceux des ancêtres de x
+		for(Noeud p = x.pere; p != sentinelle; p = p.pere) {
+			majNoeud(p);
+		}
+		if(yCouleur == 'N') {
+			supprimerCorrection(x);
+		}
+		return suivant;
+	}
+
+	/**
+	 * Remplace le sous-arbre enraciné en u par celui enraciné en v
+	 */
+	private void transplanter(Noeud u, Noeud v) {
+		if(u.pere == sentinelle) {
+			racine = v;
+		} else if(u == u.pere.gauche) {
+			u.pere.gauche = v;
+		} else {
+			u.pere.droit = v;
+		}
+		v.pere = u.pere;
+	}
+
+	private void supprimerCorrection(Noeud x) {
+		Noeud w;
+		while(x != racine && x.couleur == 'N') {
+			if(x == x.pere.gauche) {
+				w = x.pere.droit; // le frère de x
+				if(w.couleur == 'R') {
+					// cas 1
+					if(mesure) metriques.correctionSuppression(1);
+					w.couleur = 'N';
+					x.pere.couleur = 'R';
+					rotationGauche(x.pere);
+					w = x.pere.droit;
+				}
+				if(w.gauche.couleur == 'N' && w.droit.couleur == 'N') {
+					// cas 2
+					if(mesure) metriques.correctionSuppression(2);
+					w.couleur = 'R';
+					x = x.pere;
+				} else {
+					if(w.droit.couleur == 'N') {
+						// cas 3
+						if(mesure) metriques.correctionSuppression(3);
+						w.gauche.couleur = 'N';
+						w.couleur = 'R';
+						rotationDroite(w);
+						w = x.pere.droit;
+					}
+					// cas 4
+					if(mesure) metriques.correctionSuppression(4);
+					w.couleur = x.pere.couleur;
+					x.pere.couleur = 'N';
+					w.droit.couleur = 'N';
+					rotationGauche(x.pere);
+					x = racine;
+				}
+			} else {
+				w = x.pere.gauche; // le frère de x
+				if(w.couleur == 'R') {
+					// cas 1
+					if(mesure) metriques.correctionSuppression(1);
+					w.couleur = 'N';
+					x.pere.couleur = 'R';
+					rotationDroite(x.pere);
+					w = x.pere.gauche;
+				}
+				if(w.gauche.couleur == 'N' && w.droit.couleur == 'N') {
+					// cas 2
+					if(mesure) metriques.correctionSuppression(2);
+					w.couleur = 'R';
+					x = x.pere;
+				} else {
+					if(w.gauche.couleur == 'N') {
+						// cas 3
+						if(mesure) metriques.correctionSuppression(3);
+						w.droit.couleur = 'N';
+						w.couleur = 'R';
+						rotationGauche(w);
+						w = x.pere.gauche;
+					}
+					// cas 4
+					if(mesure) metriques.correctionSuppression(4);
+					w.couleur = x.pere.couleur;
+					x.pere.couleur = 'N';
+					w.gauche.couleur = 'N';
+					rotationDroite(x.pere);
+					x = racine;
+				}
+			}
+		}
+		x.couleur = 'N';
+	}
+
+	/**
+	 * Recalcule la taille du sous-arbre enraciné en x à partir de ses fils.
+	 * Appelée pour chaque noeud dont le sous-arbre a changé (ajout,
+	 * suppression, rotation, construction), de bas en haut : une sous-classe
+	 * peut la redéfinir pour maintenir sa propre information, en appelant
+	 * cette méthode.
+	 */
+	void majNoeud(Noeud x) {
+		x.taille = x.gauche.taille + x.droit.taille + 1;
+	}
+
+	/**
+	 * Crée le noeud d'une nouvelle clé ; redéfinie par les sous-classes dont
+	 * les noeuds portent plus d'information. La sentinelle n'est pas créée
+	 * par cette méthode.
+	 */
+	Noeud creerNoeud(E e) {
+		return new Noeud(e);
+	}
+
+	private Noeud sentinelle(){
+		Noeud s = new Noeud(null);
+		s.pere = s.gauche = s.droit = s;
+		s.couleur = 'N';
+		s.taille = 0;
+		return s;
+	}
+
+	@Override
+	public boolean add(E e) {
+		if(!mesure) {
+			return ajouter(e);
+		}
+		long debut = debutOperation();
+		boolean r = ajouter(e);
+		finOperation(ARNMetrics.Operation.AJOUT, debut);
+		return r;
+	}
+
+	private boolean ajouter(E e)
+	{
+		if (e == null) return false;
+		int avant = size();
+		trouverOuInserer(e, null);
+		return size() != avant;
+	}
+
+	/**
+	 * Cherche e et, s'il est absent, insère un nouveau noeud à la place où la
+	 * descente s'est arrêtée : une seule descente et une comparaison par
+	 * niveau
+	 *
+	 * @param fabrique
+	 *			crée la clé du nouveau noeud, null pour insérer e lui-même
+	 * @return le noeud de la clé égale à e, trouvé ou inséré
+	 */
+	Noeud trouverOuInserer(E e, Supplier<? extends E> fabrique) {
+		Noeud y = sentinelle;
+		Noeud x = depart(doigt, e, BUDGET_DOIGT);
+		int c = 0;
+		while (x != sentinelle)
+		{
+			c = this.comparer(e, x.cle);
+			if(c == 0) {
+				doigt = x;
+				return x;
+			}
+			y = x;
+			x = c < 0 ? x.gauche : x.droit;
+			if(mesure) profondeur++;
+		}
+
+		if(fabrique != null) {
+			E cree = Objects.requireNonNull(fabrique.get());
+			if(cmp.compare(cree, e) != 0) {
+				throw new IllegalArgumentException("l'élément créé n'est pas égal à la clé");
+			}
+			e = cree;
+		}
+		Noeud z = creerNoeud(e);
+		accrocher(z, y, c < 0);
+		doigt = z;
+		return z;
+	}
+
+	/**
+	 * Accroche le nouveau noeud z sous y, à la place d'une feuille, puis
+	 * rééquilibre l'arbre
+	 *
+	 * @param aGauche
+	 *			vrai pour faire de z le fils gauche de y
+	 */
+	private void accrocher(Noeud z, Noeud y, boolean aGauche) {
+		modifications++;
+		z.pere = y;
+
+		if( y == sentinelle )
+		{
+			racine = z;
 		}
 		else
 		{
-			if( this.cmp.compare(z.cle, y.cle) < 0) y.gauche = z;
-			else									y.droit  = z;
+			if( aGauche) y.gauche = z;
+			else		 y.droit  = z;
 		}
 
 		z.gauche = z.droit = sentinelle;
 		z.couleur = 'R';
+		majNoeud(z);
+		for(Noeud p = y; p != sentinelle; p = p.pere) {
+			majNoeud(p);
+		}
 		ajouterCorrection(z);
-		return true;
+	}
+
+	/**
+	 * Recherche par le doigt : renvoie le noeud d'où descendre pour chercher
+	 * e en partant du noeud f plutôt que de la racine. On remonte depuis f
+	 * jusqu'au premier ancêtre dont le sous-arbre couvre l'intervalle de e,
+	 * ce qui coûte O(log d) comparaisons quand e est à d rangs de f. Pendant
+	 * la remontée, seuls les ancêtres qui bornent le sous-arbre sont
+	 * comparés à e.
+	 *
+	 * @param f
+	 *			le noeud de départ, la sentinelle pour partir de la racine
+	 * @param budget
+	 *			le nombre de comparaisons au-delà duquel on abandonne la
+	 *			remontée pour repartir de la racine
+	 * @return le noeud d'où descendre, qui peut contenir e
+	 */
+	private Noeud depart(Noeud f, E e, int budget) {
+		if(f == sentinelle || f == racine) {
+			return racine;
+		}
+		Noeud x = f;
+		int c = comparer(e, x.cle);
+		while(c != 0) {
+			// Tant que x est du côté c de son père, le sous-arbre du père a la
+			// même borne que celui de x de ce côté : inutile de comparer
+			Noeud y = x;
+			if(c > 0) {
+				while(y.pere != sentinelle && y == y.pere.droit) {
+					y = y.pere;
+				}
+			} else {
+				while(y.pere != sentinelle && y == y.pere.gauche) {
+					y = y.pere;
+				}
+			}
+			Noeud a = y.pere;			// la borne du sous-arbre de x du côté c
+			if(a == sentinelle) {
+				return x;
+			}
+			if(budget-- == 0) {
+				return racine;
+			}
+			int d = comparer(e, a.cle);
+			if(d == 0) {
+				return a;
+			}
+			if((d > 0) != (c > 0)) {
+				return x;				// e est entre x et sa borne
+			}
+			x = a;
+		}
+		return x;
 	}
 
 
@@ -381,6 +1089,7 @@ public class ARN<E> extends AbstractCollection<E> {
 				y = z.pere.pere.droit; // l'oncle de z
 				if (y.couleur == 'R') {
 					// cas 1
+					if(mesure) metriques.correctionAjout(1);
 					z.pere.couleur = 'N';
 					y.couleur = 'N';
 					z.pere.pere.couleur = 'R';
@@ -388,10 +1097,12 @@ public class ARN<E> extends AbstractCollection<E> {
 				} else {
 					if (z == z.pere.droit) {
 						// cas 2
+						if(mesure) metriques.correctionAjout(2);
 						z = z.pere;
 						rotationGauche(z);
 					}
 					// cas 3
+					if(mesure) metriques.correctionAjout(3);
 					z.pere.couleur = 'N';
 					z.pere.pere.couleur = 'R';
 					rotationDroite(z.pere.pere);
@@ -400,6 +1111,7 @@ public class ARN<E> extends AbstractCollection<E> {
 				y = z.pere.pere.gauche; // l'oncle de z
 				if (y.couleur == 'R') {
 					// cas 1
+					if(mesure) metriques.correctionAjout(1);
 					z.pere.couleur = 'N';
 					y.couleur = 'N';
 					z.pere.pere.couleur = 'R';
@@ -407,10 +1119,12 @@ public class ARN<E> extends AbstractCollection<E> {
 				} else {
 					if (z == z.pere.gauche) {
 						// cas 2
+						if(mesure) metriques.correctionAjout(2);
 						z = z.pere;
 						rotationDroite(z);
 					}
 					// cas 3
+					if(mesure) metriques.correctionAjout(3);
 					z.pere.couleur = 'N';
 					z.pere.pere.couleur = 'R';
 					rotationGauche(z.pere.pere);
@@ -421,6 +1135,7 @@ public class ARN<E> extends AbstractCollection<E> {
 	}
 
 	private void rotationGauche(Noeud x) {
+		if(mesure) metriques.rotation();
 		Noeud y = x.droit;
 		x.droit = y.gauche;
 		if(y.gauche != sentinelle){
@@ -439,13 +1154,16 @@ public class ARN<E> extends AbstractCollection<E> {
 		}
 		y.gauche = x;
 		x.pere = y;
+		majNoeud(x);
+		majNoeud(y);
 	}
 
 	private  void rotationDroite(Noeud x){
+		if(mesure) metriques.rotation();
 		Noeud y = x.gauche;
 		x.gauche = y.droit;
-		if(y.gauche != sentinelle){
-			y.gauche.pere = x;
+		if(y.droit != sentinelle){
+			y.droit.pere = x;
 		}
 		y.pere = x.pere;
 		if (x.pere == sentinelle){
@@ -460,90 +1178,1355 @@ public class ARN<E> extends AbstractCollection<E> {
 		}
 		y.droit = x;
 		x.pere = y;
+		majNoeud(x);
+		majNoeud(y);
 	}
 
+	/**
+	 * Ajoute les éléments de c. Un gros lot est fusionné avec le contenu de
+	 * l'arbre, qui est alors reconstruit en temps linéaire, plutôt qu'inséré
+	 * élément par élément.
+	 */
 	@Override
 	public boolean addAll(Collection<? extends E> c)
 	{
-		Iterator it = c.iterator();
-		while(it.hasNext()) {
-			E t = (E)it.next();
-			this.add(t);
+		int avant = size();
+		if(c instanceof ARN && Chargement.memeOrdre(c, cmp)) {
+			if(c != this) {
+				calculer(UNION, memeType(c));
+			}
+		} else if(racine == sentinelle) {
+			racine = construire(Chargement.preparer(c, cmp));
+			modifications++;
+		} else if(Chargement.fusionRentable(size(), c.size())) {
+			racine = construire(Chargement.fusionner(elements(), Chargement.preparer(c, cmp), cmp));
+			doigt = sentinelle;
+			modifications++;
+		} else {
+			for(E t : c) {
+				this.add(t);
+			}
 		}
-		return true;
+		return size() != avant;
 	}
 
 	/**
-	 * Les itérateurs doivent parcourir les éléments dans l'ordre ! Ceci peut se
-	 * faire facilement en utilisant {@link Noeud#minimum()} et
-	 * {@link Noeud#suivant()}
+	 * Si c est un ARN de même ordre, la différence est calculée par
+	 * découpage et recollement des sous-arbres
 	 */
-	private class ARNIterator implements Iterator<E> {
-		Noeud courant;
-		Noeud suivant;
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		if(c == this) {
+			boolean modifie = !isEmpty();
+			clear();
+			return modifie;
+		}
+		if(c instanceof ARN && Chargement.memeOrdre(c, cmp)) {
+			int avant = size();
+			calculer(DIFFERENCE, memeType(c));
+			return size() != avant;
+		}
+		return super.removeAll(c);
+	}
 
-		public ARNIterator(){
-			super();
-			this.courant = ARN.this.sentinelle;
-			this.suivant = ARN.this.racine.minimum();
+	/**
+	 * Si c est un ARN de même ordre, l'intersection est calculée par
+	 * découpage et recollement des sous-arbres
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		if(c == this) {
+			return false;
 		}
+		if(c instanceof ARN && Chargement.memeOrdre(c, cmp)) {
+			int avant = size();
+			calculer(INTERSECTION, memeType(c));
+			return size() != avant;
+		}
+		return super.retainAll(c);
+	}
 
-		public boolean hasNext() {
-			return suivant != ARN.this.sentinelle;
+	/**
+	 * Si c est un ARN de même ordre, ses éléments sont cherchés dans l'ordre :
+	 * par une recherche chacun si c est petit, sinon en avançant dans l'arbre
+	 * au même rythme que dans c
+	 */
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if(!(c instanceof ARN) || !Chargement.memeOrdre(c, cmp)) {
+			return super.containsAll(c);
 		}
+		ARN<E> autre = memeType(c);
+		if(autre.size() > size()) {
+			return false;
+		}
+		if(!Chargement.fusionRentable(size(), autre.size())) {
+			return super.containsAll(c);
+		}
+		Noeud x = racine.minimum();
+		for(Noeud y = autre.racine.minimum(); y != autre.sentinelle; y = y.suivant()) {
+			while(x != sentinelle && cmp.compare(x.cle, y.cle) < 0) {
+				x = x.suivant();
+			}
+			if(x == sentinelle || cmp.compare(x.cle, y.cle) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
 
-		public E next() {
-			this.courant = this.suivant;
-			this.suivant = this.suivant.suivant();
-			return this.courant.cle;
+	/**
+	 * Renvoie c, un ARN ordonné comme cet arbre (voir
+	 * {@link Chargement#memeOrdre}) : ses éléments sont comparables à ceux de
+	 * cet arbre et il peut être lu comme un ARN&lt;E&gt;
+	 */
+	@SuppressWarnings("unchecked")
+	private ARN<E> memeType(Collection<?> c) {
+		return (ARN<E>) c;
+	}
+
+	/**
+	 * Renvoie un nouvel arbre contenant les éléments de cet arbre et ceux de
+	 * autre. Si les deux arbres ont le même ordre, le calcul se fait en
+	 * O(m log(n/m + 1)) (m étant la plus petite des deux tailles) en plus de
+	 * la copie de cet arbre, sur plusieurs threads pour les gros arbres.
+	 *
+	 * @param autre
+	 *			l'arbre à ajouter, qui n'est pas modifié
+	 * @return l'union, ordonnée comme cet arbre
+	 */
+	public ARN<E> union(ARN<? extends E> autre) {
+		ARN<E> r = copie();
+		r.addAll(autre);
+		return r;
+	}
+
+	/**
+	 * Renvoie un nouvel arbre contenant les éléments présents à la fois dans
+	 * cet arbre et dans autre
+	 *
+	 * @see #union(ARN)
+	 */
+	public ARN<E> intersection(ARN<? extends E> autre) {
+		ARN<E> r = copie();
+		r.retainAll(autre);
+		return r;
+	}
+
+	/**
+	 * Renvoie un nouvel arbre contenant les éléments de cet arbre absents de
+	 * autre
+	 *
+	 * @see #union(ARN)
+	 */
+	public ARN<E> difference(ARN<? extends E> autre) {
+		ARN<E> r = copie();
+		r.removeAll(autre);
+		return r;
+	}
+
+	/**
+	 * Renvoie un nouvel arbre contenant les éléments présents dans un seul des
+	 * deux arbres
+	 *
+	 * @see #union(ARN)
+	 */
+	public ARN<E> symmetricDifference(ARN<? extends E> autre) {
+		ARN<E> r = copie();
+		if(Chargement.memeOrdre(autre, cmp)) {
+			r.calculer(DIFFERENCE_SYMETRIQUE, memeType(autre));
+		} else {
+			for(E e : autre) {
+				if(!r.remove(e)) {
+					r.add(e);
+				}
+			}
 		}
+		return r;
+	}
 
-		public void remove() {
-			this.suivant = ARN.this.supprimer(this.courant);
+	// Algèbre des ensembles : découpage et recollement
+
+	private static final int UNION = 0;
+	private static final int INTERSECTION = 1;
+	private static final int DIFFERENCE = 2;
+	private static final int DIFFERENCE_SYMETRIQUE = 3;
+
+	/**
+	 * Sous-arbre détaché de l'arbre pendant un calcul ensembliste, avec sa
+	 * hauteur noire (nombre de noeuds noirs d'un chemin de sa racine à une
+	 * feuille, sentinelle exclue). Sa racine peut être rouge et son champ
+	 * pere n'a pas de sens.
+	 */
+	private final class Morceau {
+		final Noeud racine;
+		final int hn;
+
+		Morceau(Noeud racine, int hn) {
+			this.racine = racine;
+			this.hn = hn;
 		}
 	}
 
-	// Pour un "joli" affichage
+	/**
+	 * Résultat d'un découpage : les clés inférieures, le noeud de la clé
+	 * cherchée (la sentinelle si elle est absente) et les clés supérieures
+	 */
+	private final class Decoupe {
+		Morceau gauche;
+		Noeud trouve;
+		Morceau droite;
 
-	@Override
-	public String toString() {
-		StringBuffer buf = new StringBuffer();
-		toString(racine, buf, "", maxStrLen(racine));
-		return buf.toString();
+		Decoupe(Morceau gauche, Noeud trouve, Morceau droite) {
+			this.gauche = gauche;
+			this.trouve = trouve;
+			this.droite = droite;
+		}
 	}
 
-	private void toString(Noeud x, StringBuffer buf, String path, int len) {
-		if (x == sentinelle)
-			return;
-		toString(x.droit, buf, path + "D", len);
-		for (int i = 0; i < path.length(); i++) {
-			for (int j = 0; j < len + 6; j++)
-				buf.append(' ');
-			char c = ' ';
-			if (i == path.length() - 1)
-				c = '+';
-			else if (path.charAt(i) != path.charAt(i + 1))
-				c = '|';
-			buf.append(c);
-		}
-		if (x.couleur == 'R') {
-			buf.append("-- " + "\u001B[31m" + x.cle.toString() + "\u001B[0m");
+	/**
+	 * Remplace le contenu de l'arbre par le résultat de l'opération entre
+	 * lui et autre. Les noeuds de cet arbre sont réutilisés, ceux de autre
+	 * sont seulement lus (et copiés si besoin).
+	 */
+	private void calculer(int operation, ARN<E> autre) {
+		Morceau a = new Morceau(racine, hauteurNoire(racine, sentinelle));
+		Noeud b = autre.racine;
+		int hnB = hauteurNoire(b, autre.sentinelle);
+		Morceau r;
+		if(a.racine.taille + b.taille >= SEUIL_ALGEBRE_PARALLELE) {
+			r = ForkJoinPool.commonPool().invoke(new Operation(operation, autre, a, b, hnB));
 		} else {
-			buf.append("-- " + x.cle.toString());
+			r = new Operation(operation, autre, a, b, hnB).calculer(a, b, hnB);
+		}
+		racine = r.racine;
+		doigt = sentinelle;
+		modifications++;
+		if(racine != sentinelle) {
+			racine.pere = sentinelle;
+			racine.couleur = 'N';
+		}
+	}
+
+	/**
+	 * Opération ensembliste entre un morceau de cet arbre et un sous-arbre de
+	 * l'autre : on découpe le morceau selon la racine de l'autre, on traite
+	 * récursivement (en parallèle si c'est assez gros) les deux moitiés, puis
+	 * on recolle les résultats.
+	 */
+	@SuppressWarnings("serial")
+	private final class Operation extends RecursiveTask<Morceau> {
+		final int operation;
+		final ARN<E> autre;
+		final Morceau a;
+		final Noeud b;
+		final int hnB;
+
+		Operation(int operation, ARN<E> autre, Morceau a, Noeud b, int hnB) {
+			this.operation = operation;
+			this.autre = autre;
+			this.a = a;
+			this.b = b;
+			this.hnB = hnB;
+		}
+
+		@Override
+		protected Morceau compute() {
+			return calculer(a, b, hnB);
+		}
+
+		Morceau calculer(Morceau a, Noeud b, int hnB) {
+			if(b == autre.sentinelle) {
+				return operation == INTERSECTION ? vide() : a;
+			}
+			if(a.racine == sentinelle) {
+				if(operation == UNION || operation == DIFFERENCE_SYMETRIQUE) {
+					return new Morceau(copier(b, autre.sentinelle), hnB);
+				}
+				return a;
+			}
+			Decoupe d = decouper(a, b.cle);
+			int hnFils = b.couleur == 'N' ? hnB - 1 : hnB;
+			Morceau g, dr;
+			if(a.racine.taille + b.taille >= SEUIL_ALGEBRE_PARALLELE) {
+				Operation t = new Operation(operation, autre, d.gauche, b.gauche, hnFils);
+				t.fork();
+				dr = calculer(d.droite, b.droit, hnFils);
+				g = t.join();
+			} else {
+				g = calculer(d.gauche, b.gauche, hnFils);
+				dr = calculer(d.droite, b.droit, hnFils);
+			}
+			boolean present = d.trouve != sentinelle;
+			switch(operation) {
+				case UNION:
+					return joindre(g, present ? d.trouve : creerNoeud(b.cle), dr);
+				case INTERSECTION:
+					return present ? joindre(g, d.trouve, dr) : joindre(g, dr);
+				case DIFFERENCE:
+					return joindre(g, dr);
+				default:
+					return present ? joindre(g, dr) : joindre(g, creerNoeud(b.cle), dr);
+			}
 		}
-		if (x.gauche != sentinelle || x.droit != sentinelle) {
-			buf.append(" --");
-			for (int j = x.cle.toString().length(); j < len; j++)
-				buf.append('-');
-			buf.append('|');
+	}
+
+	private Morceau vide() {
+		return new Morceau(sentinelle, 0);
+	}
+
+	/**
+	 * Renvoie la hauteur noire du sous-arbre de racine x, en suivant sa branche
+	 * gauche
+	 */
+	private static int hauteurNoire(ARN<?>.Noeud x, ARN<?>.Noeud sentinelle) {
+		int hn = 0;
+		for(; x != sentinelle; x = x.gauche) {
+			if(x.couleur == 'N') {
+				hn++;
+			}
+		}
+		return hn;
+	}
+
+	/**
+	 * Copie dans cet arbre le sous-arbre x d'un autre arbre, couleurs
+	 * comprises
+	 */
+	private Noeud copier(Noeud x, Noeud sentinelleX) {
+		if(x == sentinelleX) {
+			return sentinelle;
+		}
+		Noeud y = creerNoeud(x.cle);
+		y.couleur = x.couleur;
+		lier(y, copier(x.gauche, sentinelleX), copier(x.droit, sentinelleX));
+		return y;
+	}
+
+	/**
+	 * Renvoie un nouvel arbre de même ordre et de même forme que celui-ci
+	 */
+	private ARN<E> copie() {
+		ARN<E> r = new ARN<>(cmp);
+		r.racine = r.copier(racine, sentinelle);
+		if(r.racine != r.sentinelle) {
+			r.racine.pere = r.sentinelle;
+		}
+		return r;
+	}
+
+	/**
+	 * Fait de g et d les fils de k. La sentinelle n'est jamais modifiée, ce
+	 * qui permet de travailler sur plusieurs morceaux en parallèle.
+	 */
+	private void lier(Noeud k, Noeud g, Noeud d) {
+		k.gauche = g;
+		k.droit = d;
+		if(g != sentinelle) {
+			g.pere = k;
+		}
+		if(d != sentinelle) {
+			d.pere = k;
 		}
-		buf.append("\n");
-		toString(x.gauche, buf, path + "G", len);
+		majNoeud(k);
 	}
 
-	private int maxStrLen(Noeud x) {
-		return x == sentinelle ? 0 : Math.max(x.cle.toString().length(),
-			Math.max(maxStrLen(x.gauche), maxStrLen(x.droit)));
+	/**
+	 * Découpe le morceau t selon la clé k, en O(log n)
+	 */
+	private Decoupe decouper(Morceau t, E k) {
+		Noeud m = t.racine;
+		if(m == sentinelle) {
+			return new Decoupe(t, sentinelle, t);
+		}
+		int hnFils = m.couleur == 'N' ? t.hn - 1 : t.hn;
+		Morceau g = new Morceau(m.gauche, hnFils);
+		Morceau d = new Morceau(m.droit, hnFils);
+		int c = cmp.compare(k, m.cle);
+		if(c == 0) {
+			return new Decoupe(g, m, d);
+		}
+		if(c < 0) {
+			Decoupe r = decouper(g, k);
+			r.droite = joindre(r.droite, m, d);
+			return r;
+		}
+		Decoupe r = decouper(d, k);
+		r.gauche = joindre(g, m, r.gauche);
+		return r;
+	}
+
+	/**
+	 * Renvoie l'arbre formé des clés de g, de la clé du noeud k puis des clés
+	 * de d, toutes les clés de g étant inférieures à celle de k et celles de d
+	 * supérieures. Le coût est proportionnel à la différence des hauteurs
+	 * noires.
+	 */
+	private Morceau joindre(Morceau g, Noeud k, Morceau d) {
+		if(g.hn > d.hn) {
+			Noeud r = joindreDroite(g.racine, g.hn, k, d);
+			if(r.couleur == 'R' && r.droit.couleur == 'R') {
+				r.couleur = 'N';
+				return new Morceau(r, g.hn + 1);
+			}
+			return new Morceau(r, g.hn);
+		}
+		if(d.hn > g.hn) {
+			Noeud r = joindreGauche(d.racine, d.hn, k, g);
+			if(r.couleur == 'R' && r.gauche.couleur == 'R') {
+				r.couleur = 'N';
+				return new Morceau(r, d.hn + 1);
+			}
+			return new Morceau(r, d.hn);
+		}
+		lier(k, g.racine, d.racine);
+		if(g.racine.couleur == 'N' && d.racine.couleur == 'N') {
+			k.couleur = 'R';
+			return new Morceau(k, g.hn);
+		}
+		k.couleur = 'N';
+		return new Morceau(k, g.hn + 1);
+	}
+
+	/**
+	 * Accroche k et d sur la branche droite de t, au premier noeud noir de
+	 * même hauteur noire que d
+	 */
+	private Noeud joindreDroite(Noeud t, int hn, Noeud k, Morceau d) {
+		if(t.couleur == 'N' && hn == d.hn) {
+			lier(k, t, d.racine);
+			k.couleur = 'R';
+			return k;
+		}
+		Noeud r = joindreDroite(t.droit, t.couleur == 'N' ? hn - 1 : hn, k, d);
+		t.droit = r;
+		r.pere = t;
+		majNoeud(t);
+		if(t.couleur == 'N' && r.couleur == 'R' && r.droit.couleur == 'R') {
+			r.droit.couleur = 'N';
+			return tournerGauche(t);
+		}
+		return t;
+	}
+
+	private Noeud joindreGauche(Noeud t, int hn, Noeud k, Morceau g) {
+		if(t.couleur == 'N' && hn == g.hn) {
+			lier(k, g.racine, t);
+			k.couleur = 'R';
+			return k;
+		}
+		Noeud r = joindreGauche(t.gauche, t.couleur == 'N' ? hn - 1 : hn, k, g);
+		t.gauche = r;
+		r.pere = t;
+		majNoeud(t);
+		if(t.couleur == 'N' && r.couleur == 'R' && r.gauche.couleur == 'R') {
+			r.gauche.couleur = 'N';
+			return tournerDroite(t);
+		}
+		return t;
+	}
+
+	/**
+	 * Recolle deux morceaux sans clé intermédiaire : le maximum de g sert de
+	 * pivot
+	 */
+	private Morceau joindre(Morceau g, Morceau d) {
+		if(g.racine == sentinelle) {
+			return d;
+		}
+		if(d.racine == sentinelle) {
+			return g;
+		}
+		Decoupe r = extraireMaximum(g);
+		return joindre(r.gauche, r.trouve, d);
+	}
+
+	private Decoupe extraireMaximum(Morceau t) {
+		Noeud m = t.racine;
+		int hnFils = m.couleur == 'N' ? t.hn - 1 : t.hn;
+		Morceau g = new Morceau(m.gauche, hnFils);
+		if(m.droit == sentinelle) {
+			return new Decoupe(g, m, null);
+		}
+		Decoupe r = extraireMaximum(new Morceau(m.droit, hnFils));
+		r.gauche = joindre(g, m, r.gauche);
+		return r;
+	}
+
+	/**
+	 * Rotations des morceaux détachés : contrairement à
+	 * {@link #rotationGauche(Noeud)}, elles ne touchent ni à la racine ni à la
+	 * sentinelle et c'est l'appelant qui raccroche le noeud renvoyé
+	 */
+	private Noeud tournerGauche(Noeud x) {
+		Noeud y = x.droit;
+		x.droit = y.gauche;
+		if(y.gauche != sentinelle) {
+			y.gauche.pere = x;
+		}
+		y.gauche = x;
+		x.pere = y;
+		majNoeud(x);
+		majNoeud(y);
+		return y;
+	}
+
+	private Noeud tournerDroite(Noeud x) {
+		Noeud y = x.gauche;
+		x.gauche = y.droit;
+		if(y.droit != sentinelle) {
+			y.droit.pere = x;
+		}
+		y.droit = x;
+		x.pere = y;
+		majNoeud(x);
+		majNoeud(y);
+		return y;
+	}
+
+	// Chargement en bloc
+
+	/**
+	 * Renvoie les éléments de l'arbre dans l'ordre
+	 */
+	private Object[] elements() {
+		Object[] t = new Object[size()];
+		int i = 0;
+		for(Noeud x = racine.minimum(); x != sentinelle; x = x.suivant()) {
+			t[i++] = x.cle;
+		}
+		return t;
+	}
+
+	/**
+	 * Construit un arbre rouge-noir à partir d'un tableau trié d'éléments
+	 * distincts, en temps linéaire et sans aucune comparaison. L'arbre obtenu
+	 * est complet sauf sur son dernier niveau, dont les noeuds sont rouges.
+	 *
+	 * @param t
+	 *			les éléments triés
+	 * @return la racine de l'arbre construit
+	 */
+	private Noeud construire(Object[] t) {
+		int niveauRouge = 0;
+		for(int m = t.length - 1; m >= 0; m = m / 2 - 1) {
+			niveauRouge++;
+		}
+		Noeud r = construire(t, 0, t.length - 1, 0, niveauRouge);
+		if(r != sentinelle) {
+			r.pere = sentinelle;
+		}
+		return r;
+	}
+
+	private Noeud construire(Object[] t, int lo, int hi, int niveau, int niveauRouge) {
+		if(hi < lo) {
+			return sentinelle;
+		}
+		int milieu = (lo + hi) >>> 1;
+		@SuppressWarnings("unchecked")
+		E cle = (E) t[milieu];
+		Noeud x = creerNoeud(cle);
+		x.couleur = niveau == niveauRouge ? 'R' : 'N';
+		x.gauche = construire(t, lo, milieu - 1, niveau + 1, niveauRouge);
+		x.droit = construire(t, milieu + 1, hi, niveau + 1, niveauRouge);
+		if(x.gauche != sentinelle) {
+			x.gauche.pere = x;
+		}
+		if(x.droit != sentinelle) {
+			x.droit.pere = x;
+		}
+		majNoeud(x);
+		return x;
+	}
+
+	// Sauvegarde binaire
+
+	/** "ARNB" */
+	private static final int MAGIE = 0x41524E42;
+	private static final int VERSION = 1;
+	/** Magie, version, largeur des clés, nombre de clés et CRC de ces champs */
+	private static final int TAILLE_ENTETE = 4 + 4 + 4 + 8 + 4;
+	private static final int CLES_PAR_BLOC = 4096;
+	/** Taille maximale d'une fenêtre du fichier projetée en mémoire */
+	private static final int TAILLE_FENETRE = 1 << 26;
+
+	/**
+	 * <p>
+	 * Écrit les clés de l'arbre, dans l'ordre, codées par codec. Le format
+	 * est un en-tête (magie "ARNB", version, largeur des clés, nombre de
+	 * clés, CRC32 de l'en-tête) suivi de blocs d'au plus 4096 clés, chacun
+	 * précédé de son nombre de clés et suivi du CRC32 des clés. Les entiers
+	 * sont écrits en gros-boutiste.
+	 * </p>
+	 *
+	 * <p>
+	 * Le fichier se relit en temps linéaire avec
+	 * {@link #readFrom(FileChannel, KeyCodec, Comparator)}.
+	 * </p>
+	 *
+	 * @param canal
+	 *			le canal où écrire, à partir de sa position courante
+	 * @param codec
+	 *			le codage des clés, qui doit préserver l'ordre de l'arbre
+	 * @throws IOException
+	 *			si l'écriture échoue
+	 */
+	public void writeTo(WritableByteChannel canal, KeyCodec<E> codec) throws IOException {
+		int largeur = codec.largeur();
+		int n = size();
+		ByteBuffer tampon = ByteBuffer.allocate(Math.max(TAILLE_ENTETE, 4 + CLES_PAR_BLOC * largeur + 4));
+		tampon.putInt(MAGIE).putInt(VERSION).putInt(largeur).putLong(n);
+		tampon.putInt(crc(tampon, 0, TAILLE_ENTETE - 4));
+		ecrire(canal, tampon);
+
+		Noeud x = racine.minimum();
+		for(int restants = n; restants > 0; ) {
+			int m = Math.min(restants, CLES_PAR_BLOC);
+			tampon.clear();
+			tampon.putInt(m);
+			for(int i = 0; i < m; i++) {
+				codec.encoder(x.cle, tampon, 4 + i * largeur);
+				x = x.suivant();
+			}
+			tampon.position(4 + m * largeur);
+			tampon.putInt(crc(tampon, 4, m * largeur));
+			ecrire(canal, tampon);
+			restants -= m;
+		}
+	}
+
+	/**
+	 * Relit un arbre écrit par {@link #writeTo(WritableByteChannel, KeyCodec)},
+	 * ordonné selon l'ordre naturel
+	 *
+	 * @see #readFrom(FileChannel, KeyCodec, Comparator)
+	 */
+	public static <E> ARN<E> readFrom(FileChannel canal, KeyCodec<E> codec) throws IOException {
+		return readFrom(canal, codec, null);
+	}
+
+	/**
+	 * Relit un arbre écrit par {@link #writeTo(WritableByteChannel, KeyCodec)}.
+	 * Le fichier est projeté en mémoire par fenêtres et les clés, déjà
+	 * triées, sont chargées en temps linéaire sans aucune comparaison. La
+	 * position du canal est placée après les données lues.
+	 *
+	 * @param canal
+	 *			le fichier à lire, à partir de sa position courante
+	 * @param codec
+	 *			le codage utilisé à l'écriture
+	 * @param cmp
+	 *			l'ordre de l'arbre à l'écriture, null pour l'ordre naturel
+	 * @return l'arbre relu
+	 * @throws IOException
+	 *			si la lecture échoue ou si le fichier est tronqué ou corrompu
+	 */
+	public static <E> ARN<E> readFrom(FileChannel canal, KeyCodec<E> codec, Comparator<? super E> cmp) throws IOException {
+		long debut = canal.position();
+		ByteBuffer entete = projeter(canal, debut, TAILLE_ENTETE, "Ce n'est pas une sauvegarde d'ARN");
+		if(entete.getInt(0) != MAGIE) {
+			throw new IOException("Ce n'est pas une sauvegarde d'ARN");
+		}
+		if(entete.getInt(4) != VERSION) {
+			throw new IOException("Version de sauvegarde non reconnue : " + entete.getInt(4));
+		}
+		if(entete.getInt(TAILLE_ENTETE - 4) != crc(entete, 0, TAILLE_ENTETE - 4)) {
+			throw new IOException("En-tête corrompu");
+		}
+		int largeur = entete.getInt(8);
+		if(largeur != codec.largeur()) {
+			throw new IOException("Clés de " + largeur + " octets, le codec en attend " + codec.largeur());
+		}
+		long n = entete.getLong(12);
+		if(n < 0 || n > Integer.MAX_VALUE - 8) {
+			throw new IOException("Nombre de clés invalide : " + n);
+		}
+
+		Object[] t = new Object[(int) n];
+		long pas = 4 + (long) CLES_PAR_BLOC * largeur + 4;
+		long blocsParFenetre = Math.max(1, TAILLE_FENETRE / pas);
+		long position = debut + TAILLE_ENTETE;
+		int lus = 0;
+		while(lus < n) {
+			// Une fenêtre de blocs entiers, le dernier bloc pouvant être incomplet
+			long blocs = Math.min(blocsParFenetre, (n - lus + CLES_PAR_BLOC - 1) / CLES_PAR_BLOC);
+			long cles = Math.min(blocs * CLES_PAR_BLOC, n - lus);
+			long octets = (blocs - 1) * pas + 4 + (cles - (blocs - 1) * CLES_PAR_BLOC) * largeur + 4;
+			ByteBuffer fenetre = projeter(canal, position, octets, "Sauvegarde tronquée");
+			int p = 0;
+			for(long b = 0; b < blocs; b++) {
+				int m = fenetre.getInt(p);
+				if(m != Math.min(CLES_PAR_BLOC, n - lus)) {
+					throw new IOException("Bloc corrompu à la position " + (position + p));
+				}
+				if(fenetre.getInt(p + 4 + m * largeur) != crc(fenetre, p + 4, m * largeur)) {
+					throw new IOException("Somme de contrôle fausse pour le bloc à la position " + (position + p));
+				}
+				for(int i = 0; i < m; i++) {
+					t[lus++] = codec.decoder(fenetre, p + 4 + i * largeur);
+				}
+				p += 4 + m * largeur + 4;
+			}
+			position += octets;
+		}
+		canal.position(position);
+
+		ARN<E> arbre = cmp == null ? new ARN<>() : new ARN<>(cmp);
+		arbre.racine = arbre.construire(t);
+		return arbre;
+	}
+
+	/**
+	 * Projette en lecture seule les octets [position, position + octets[ du
+	 * fichier, après avoir vérifié qu'ils existent : projeter au-delà de la
+	 * fin agrandirait un fichier ouvert en écriture, et échouerait avec une
+	 * erreur sans rapport sur un fichier ouvert en lecture seule.
+	 *
+	 * @throws IOException
+	 *			avec le message erreur si le fichier est trop court
+	 */
+	private static ByteBuffer projeter(FileChannel canal, long position, long octets, String erreur) throws IOException {
+		if(canal.size() - position < octets) {
+			throw new IOException(erreur);
+		}
+		return canal.map(FileChannel.MapMode.READ_ONLY, position, octets);
+	}
+
+	private static int crc(ByteBuffer b, int position, int longueur) {
+		CRC32 crc = new CRC32();
+		crc.update(b.duplicate().position(position).limit(position + longueur));
+		return (int) crc.getValue();
+	}
+
+	private static void ecrire(WritableByteChannel canal, ByteBuffer tampon) throws IOException {
+		tampon.flip();
+		while(tampon.hasRemaining()) {
+			canal.write(tampon);
+		}
+	}
+
+	/**
+	 * Renvoie un curseur placé avant le premier élément
+	 *
+	 * @see Cursor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * <p>
+	 * Position dans l'arbre, sur un élément ou avant le premier. Les
+	 * recherches faites par le curseur partent de sa position (recherche par
+	 * le doigt) : chercher ou insérer une clé proche de la précédente ne
+	 * demande que quelques comparaisons, quelle que soit la taille de l'arbre.
+	 * </p>
+	 *
+	 * <p>
+	 * Comme les itérateurs, le curseur est fail-fast : si l'arbre est modifié
+	 * autrement que par {@link #insertAfter(Object)}, sa position n'est plus
+	 * sûre et {@link #get()}, {@link #hasNext()}, {@link #next()} et
+	 * {@link #insertAfter(Object)} lèvent ConcurrentModificationException
+	 * jusqu'au prochain {@link #seek(Object)}, qui repart alors de la racine.
+	 * </p>
+	 */
+	public final class Cursor {
+		private Noeud noeud = sentinelle;		// la sentinelle : avant le premier élément
+		private int attendu = modifications;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Place le curseur sur l'élément égal à e s'il existe, sinon sur le
+		 * plus grand élément inférieur à e (ou avant le premier élément s'il
+		 * n'y en a pas). Un appel à {@link #insertAfter(Object)} peut donc
+		 * ajouter e juste après.
+		 *
+		 * @param e
+		 *			la clé cherchée
+		 * @return vrai si e est présent dans l'arbre
+		 */
+		public boolean seek(E e) {
+			// Après une modification, noeud a pu être retiré de l'arbre
+			Noeud x = depart(modifications == attendu ? noeud : sentinelle, e, Integer.MAX_VALUE);
+			attendu = modifications;
+			Noeud y = sentinelle;
+			int c = 0;
+			while(x != sentinelle) {
+				c = comparer(e, x.cle);
+				if(c == 0) {
+					noeud = x;
+					return true;
+				}
+				y = x;
+				x = c < 0 ? x.gauche : x.droit;
+			}
+			// e se placerait juste avant ou juste après y
+			noeud = y == sentinelle || c > 0 ? y : y.precedent();
+			return false;
+		}
+
+		/**
+		 * Renvoie l'élément sur lequel est placé le curseur
+		 *
+		 * @throws NoSuchElementException
+		 *			si le curseur est avant le premier élément
+		 */
+		public E get() {
+			verifier();
+			return cleOuException(noeud);
+		}
+
+		public boolean hasNext() {
+			verifier();
+			return apres() != sentinelle;
+		}
+
+		/**
+		 * Avance le curseur sur l'élément suivant et le renvoie
+		 *
+		 * @throws NoSuchElementException
+		 *			si le curseur est sur le dernier élément
+		 */
+		public E next() {
+			verifier();
+			Noeud s = apres();
+			if(s == sentinelle) {
+				throw new NoSuchElementException();
+			}
+			noeud = s;
+			return s.cle;
+		}
+
+		/**
+		 * Ajoute e juste après la position du curseur, sans le chercher depuis
+		 * la racine, puis place le curseur sur e. Seules deux comparaisons
+		 * vérifient que e est bien entre l'élément courant et le suivant.
+		 *
+		 * @param e
+		 *			l'élément à ajouter
+		 * @throws IllegalArgumentException
+		 *			si e n'est pas strictement entre l'élément courant et le
+		 *			suivant
+		 * @throws ConcurrentModificationException
+		 *			si l'arbre a été modifié depuis le dernier déplacement du
+		 *			curseur
+		 */
+		public void insertAfter(E e) {
+			Objects.requireNonNull(e);
+			verifier();
+			Noeud s = apres();
+			if((noeud != sentinelle && comparer(e, noeud.cle) <= 0)
+					|| (s != sentinelle && comparer(e, s.cle) >= 0)) {
+				throw new IllegalArgumentException(e + " n'est pas à sa place après le curseur");
+			}
+			// Le successeur de noeud est à l'extrême gauche de son sous-arbre
+			// droit : si ce sous-arbre est vide, e devient le fils droit de
+			// noeud, sinon le fils gauche de s
+			Noeud z = creerNoeud(e);
+			if(noeud != sentinelle && noeud.droit == sentinelle) {
+				accrocher(z, noeud, false);
+			} else {
+				accrocher(z, s, true);
+			}
+			noeud = z;
+			attendu = modifications;
+		}
+
+		private Noeud apres() {
+			return noeud == sentinelle ? racine.minimum() : noeud.suivant();
+		}
+
+		private void verifier() {
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * Les itérateurs doivent parcourir les éléments dans l'ordre ! Ceci peut se
+	 * faire facilement en utilisant {@link Noeud#minimum()} et
+	 * {@link Noeud#suivant()}, ou {@link Noeud#maximum()} et
+	 * {@link Noeud#precedent()} dans l'ordre décroissant. Le parcours s'arrête
+	 * sur le noeud fin, exclu, ce qui permet de parcourir un intervalle sans
+	 * comparer les clés.
+	 */
+	private class ARNIterator implements Iterator<E> {
+		Noeud courant;
+		Noeud suivant;
+		final Noeud fin;
+		final boolean descendant;
+		int attendu = modifications;
+
+		public ARNIterator(){
+			this(ARN.this.racine.minimum(), ARN.this.sentinelle, false);
+		}
+
+		ARNIterator(Noeud premier, Noeud fin, boolean descendant) {
+			this.courant = ARN.this.sentinelle;
+			this.suivant = premier;
+			this.fin = fin;
+			this.descendant = descendant;
+		}
+
+		public boolean hasNext() {
+			return suivant != fin && suivant != ARN.this.sentinelle;
+		}
+
+		public E next() {
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.courant = this.suivant;
+			this.suivant = descendant ? this.suivant.precedent() : this.suivant.suivant();
+			return this.courant.cle;
+		}
+
+		public void remove() {
+			if(courant == ARN.this.sentinelle) {
+				throw new IllegalStateException();
+			}
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+			// Le noeud suivant, déjà calculé, reste dans l'arbre : la
+			// suppression peut le déplacer mais ne change pas son identité
+			ARN.this.supprimer(this.courant);
+			this.courant = ARN.this.sentinelle;
+			attendu = modifications;
+		}
+	}
+
+	/**
+	 * Parcourt les noeuds de rang debut (inclus) à fin (exclu), du noeud
+	 * courant au noeud fin. trySplit coupe au rang médian : le morceau renvoyé
+	 * prend la première moitié.
+	 */
+	private class ARNSpliterator implements Spliterator<E> {
+		Noeud courant;
+		Noeud fin;
+		int debut;
+		int rangFin;
+
+		ARNSpliterator(Noeud courant, Noeud fin, int debut, int rangFin) {
+			this.courant = courant;
+			this.fin = fin;
+			this.debut = debut;
+			this.rangFin = rangFin;
+		}
+
+		public Spliterator<E> trySplit() {
+			int n = rangFin - debut;
+			if(n < 2) {
+				return null;
+			}
+			int milieu = debut + (n >>> 1);
+			Noeud m = noeudDeRang(milieu);
+			ARNSpliterator gauche = new ARNSpliterator(courant, m, debut, milieu);
+			courant = m;
+			debut = milieu;
+			return gauche;
+		}
+
+		public boolean tryAdvance(Consumer<? super E> action) {
+			Objects.requireNonNull(action);
+			if(courant == fin) {
+				return false;
+			}
+			E e = courant.cle;
+			courant = courant.suivant();
+			debut++;
+			action.accept(e);
+			return true;
+		}
+
+		public void forEachRemaining(Consumer<? super E> action) {
+			Objects.requireNonNull(action);
+			Noeud x = courant;
+			Noeud f = fin;
+			courant = f;
+			debut = rangFin;
+			for(; x != f; x = x.suivant()) {
+				action.accept(x.cle);
+			}
+		}
+
+		public long estimateSize() {
+			return rangFin - debut;
+		}
+
+		public int characteristics() {
+			return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED
+				| Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL;
+		}
+
+		public Comparator<? super E> getComparator() {
+			return comparator();
+		}
+	}
+
+	/**
+	 * Vue d'un intervalle de l'arbre, éventuellement parcourue dans l'ordre
+	 * décroissant. Les bornes sont exprimées dans l'ordre de l'arbre : bas est
+	 * toujours la plus petite, même pour une vue décroissante. Les
+	 * modifications de la vue sont faites dans l'arbre et réciproquement.
+	 */
+	private class SousEnsemble extends AbstractSet<E> implements NavigableSet<E> {
+		final boolean depuisDebut;
+		final E bas;
+		final boolean basInclus;
+		final boolean jusquaFin;
+		final E haut;
+		final boolean hautInclus;
+		final boolean descendant;
+
+		SousEnsemble(boolean depuisDebut, E bas, boolean basInclus,
+				boolean jusquaFin, E haut, boolean hautInclus, boolean descendant) {
+			if(!depuisDebut && !jusquaFin && cmp.compare(bas, haut) > 0) {
+				throw new IllegalArgumentException("borne inférieure > borne supérieure");
+			}
+			if(!depuisDebut) {
+				cmp.compare(bas, bas);		// vérifie le type de la borne
+			}
+			if(!jusquaFin) {
+				cmp.compare(haut, haut);
+			}
+			this.depuisDebut = depuisDebut;
+			this.bas = bas;
+			this.basInclus = basInclus;
+			this.jusquaFin = jusquaFin;
+			this.haut = haut;
+			this.hautInclus = hautInclus;
+			this.descendant = descendant;
+		}
+
+		// Bornes
+
+		@SuppressWarnings("unchecked")
+		boolean tropBas(Object e) {
+			if(depuisDebut) {
+				return false;
+			}
+			int c = cmp.compare((E) e, bas);
+			return c < 0 || (c == 0 && !basInclus);
+		}
+
+		@SuppressWarnings("unchecked")
+		boolean tropHaut(Object e) {
+			if(jusquaFin) {
+				return false;
+			}
+			int c = cmp.compare((E) e, haut);
+			return c > 0 || (c == 0 && !hautInclus);
+		}
+
+		boolean dansBornes(Object e) {
+			return !tropBas(e) && !tropHaut(e);
+		}
+
+		/**
+		 * Indique si e peut servir de borne (incluse ou non) à une sous-vue
+		 */
+		boolean borneValide(E e, boolean inclusive) {
+			if(inclusive) {
+				return dansBornes(e);
+			}
+			return (depuisDebut || cmp.compare(e, bas) >= 0)
+				&& (jusquaFin || cmp.compare(e, haut) <= 0);
+		}
+
+		// Noeuds extrêmes et voisins, dans l'ordre de l'arbre
+
+		Noeud premierNoeud() {
+			Noeud x = depuisDebut ? racine.minimum() : plafond(bas, basInclus);
+			return x == sentinelle || tropHaut(x.cle) ? sentinelle : x;
+		}
+
+		Noeud dernierNoeud() {
+			Noeud x = jusquaFin ? racine.maximum() : plancher(haut, hautInclus);
+			return x == sentinelle || tropBas(x.cle) ? sentinelle : x;
+		}
+
+		/** Premier noeud après l'intervalle, la sentinelle s'il n'y en a pas */
+		Noeud apresFin() {
+			return jusquaFin ? sentinelle : plafond(haut, !hautInclus);
+		}
+
+		/** Premier noeud avant l'intervalle, la sentinelle s'il n'y en a pas */
+		Noeud avantDebut() {
+			return depuisDebut ? sentinelle : plancher(bas, !basInclus);
+		}
+
+		Noeud plafondDansBornes(E e, boolean inclusif) {
+			if(tropBas(e)) {
+				return premierNoeud();
+			}
+			Noeud x = plafond(e, inclusif);
+			return x == sentinelle || tropHaut(x.cle) ? sentinelle : x;
+		}
+
+		Noeud plancherDansBornes(E e, boolean inclusif) {
+			if(tropHaut(e)) {
+				return dernierNoeud();
+			}
+			Noeud x = plancher(e, inclusif);
+			return x == sentinelle || tropBas(x.cle) ? sentinelle : x;
+		}
+
+		// Collection
+
+		@Override
+		public Iterator<E> iterator() {
+			return descendant
+				? new ARNIterator(dernierNoeud(), avantDebut(), true)
+				: new ARNIterator(premierNoeud(), apresFin(), false);
+		}
+
+		@Override
+		public Iterator<E> descendingIterator() {
+			return descendingSet().iterator();
+		}
+
+		@Override
+		public void forEach(Consumer<? super E> action) {
+			if(descendant) {
+				NavigableSet.super.forEach(action);
+				return;
+			}
+			Objects.requireNonNull(action);
+			parcourir(premierNoeud(), apresFin(), action);
+		}
+
+		@Override
+		public Spliterator<E> spliterator() {
+			if(descendant) {
+				return NavigableSet.super.spliterator();
+			}
+			Noeud premier = premierNoeud();
+			if(premier == sentinelle) {
+				return Spliterators.emptySpliterator();
+			}
+			Noeud fin = apresFin();
+			return new ARNSpliterator(premier, fin, rang(premier), rang(fin));
+		}
+
+		/**
+		 * Calculée en O(log n) par différence de rangs
+		 */
+		@Override
+		public int size() {
+			Noeud premier = premierNoeud();
+			return premier == sentinelle ? 0 : rang(apresFin()) - rang(premier);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return premierNoeud() == sentinelle;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return dansBornes(o) && ARN.this.contains(o);
+		}
+
+		@Override
+		public boolean add(E e) {
+			if(!dansBornes(e)) {
+				throw new IllegalArgumentException("élément hors de l'intervalle");
+			}
+			return ARN.this.add(e);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return dansBornes(o) && ARN.this.remove(o);
+		}
+
+		// NavigableSet
+
+		@Override
+		public Comparator<? super E> comparator() {
+			Comparator<? super E> c = ARN.this.comparator();
+			return descendant ? Collections.reverseOrder(c) : c;
+		}
+
+		@Override
+		public E first() {
+			return cleOuException(descendant ? dernierNoeud() : premierNoeud());
+		}
+
+		@Override
+		public E last() {
+			return cleOuException(descendant ? premierNoeud() : dernierNoeud());
+		}
+
+		@Override
+		public E lower(E e) {
+			return (descendant ? plafondDansBornes(e, false) : plancherDansBornes(e, false)).cle;
+		}
+
+		@Override
+		public E floor(E e) {
+			return (descendant ? plafondDansBornes(e, true) : plancherDansBornes(e, true)).cle;
+		}
+
+		@Override
+		public E ceiling(E e) {
+			return (descendant ? plancherDansBornes(e, true) : plafondDansBornes(e, true)).cle;
+		}
+
+		@Override
+		public E higher(E e) {
+			return (descendant ? plancherDansBornes(e, false) : plafondDansBornes(e, false)).cle;
+		}
+
+		@Override
+		public E pollFirst() {
+			return extraire(descendant ? dernierNoeud() : premierNoeud());
+		}
+
+		@Override
+		public E pollLast() {
+			return extraire(descendant ? premierNoeud() : dernierNoeud());
+		}
+
+		@Override
+		public NavigableSet<E> descendingSet() {
+			return new SousEnsemble(depuisDebut, bas, basInclus, jusquaFin, haut, hautInclus, !descendant);
+		}
+
+		@Override
+		public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+			if(descendant) {
+				return sousVue(false, toElement, toInclusive, false, fromElement, fromInclusive);
+			}
+			return sousVue(false, fromElement, fromInclusive, false, toElement, toInclusive);
+		}
+
+		@Override
+		public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+			if(descendant) {
+				return sousVue(false, toElement, inclusive, jusquaFin, haut, hautInclus);
+			}
+			return sousVue(depuisDebut, bas, basInclus, false, toElement, inclusive);
+		}
+
+		@Override
+		public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+			if(descendant) {
+				return sousVue(depuisDebut, bas, basInclus, false, fromElement, inclusive);
+			}
+			return sousVue(false, fromElement, inclusive, jusquaFin, haut, hautInclus);
+		}
+
+		@Override
+		public SortedSet<E> subSet(E fromElement, E toElement) {
+			return subSet(fromElement, true, toElement, false);
+		}
+
+		@Override
+		public SortedSet<E> headSet(E toElement) {
+			return headSet(toElement, false);
+		}
+
+		@Override
+		public SortedSet<E> tailSet(E fromElement) {
+			return tailSet(fromElement, true);
+		}
+
+		/**
+		 * Crée une vue plus étroite, dont les nouvelles bornes doivent être
+		 * dans l'intervalle de celle-ci
+		 */
+		private SousEnsemble sousVue(boolean depuisDebut, E bas, boolean basInclus,
+				boolean jusquaFin, E haut, boolean hautInclus) {
+			if(!depuisDebut && !borneValide(bas, basInclus)) {
+				throw new IllegalArgumentException("borne inférieure hors de l'intervalle");
+			}
+			if(!jusquaFin && !borneValide(haut, hautInclus)) {
+				throw new IllegalArgumentException("borne supérieure hors de l'intervalle");
+			}
+			return new SousEnsemble(depuisDebut, bas, basInclus, jusquaFin, haut, hautInclus, descendant);
+		}
+	}
+
+	// Pour un "joli" affichage
+
+	/**
+	 * Le dessin de l'arbre au format texte de {@link #dump}, les clés des
+	 * noeuds rouges en rouge
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		try {
+			dump(buf, DumpOptions.texte().couleurs(true));
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);		// impossible avec un StringBuilder
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Écrit l'arbre dans out, au format et dans les limites donnés par les
+	 * options. Le parcours est itératif et chaque ligne est écrite dès
+	 * qu'elle est prête : la mémoire utilisée est proportionnelle à la
+	 * hauteur de l'arbre, pas à sa taille.
+	 *
+	 * @param out
+	 *			la destination, un Writer bufferisé pour un fichier
+	 * @param options
+	 *			le format (texte, DOT ou JSON) et les limites
+	 * @throws IOException
+	 *			si l'écriture dans out échoue
+	 */
+	public void dump(Appendable out, DumpOptions options) throws IOException {
+		Dessin.ecrire(racine, acces(), out, options);
+	}
+
+	/**
+	 * Calcule en un seul parcours, en O(n), la hauteur, le diamètre, la
+	 * hauteur noire, le nombre de noeuds de chaque couleur et la profondeur
+	 * moyenne des feuilles. Le parcours est itératif ; au-delà de
+	 * SEUIL_STATS noeuds, les premiers niveaux sont répartis entre les threads
+	 * du ForkJoinPool commun.
+	 */
+	public TreeStats stats() {
+		return TreeStats.calculer(racine, acces(), size() >= SEUIL_STATS);
+	}
+
+	/**
+	 * Accès aux noeuds pour les parcours communs ({@link Dessin},
+	 * {@link TreeStats})
+	 */
+	private Dessin.Acces<Noeud> acces() {
+		return new Dessin.Acces<Noeud>() {
+			public boolean vide(Noeud x) {
+				return x == sentinelle;
+			}
+
+			public Noeud gauche(Noeud x) {
+				return x.gauche;
+			}
+
+			public Noeud droit(Noeud x) {
+				return x.droit;
+			}
+
+			public Object cle(Noeud x) {
+				return x.cle;
+			}
+
+			public boolean rouge(Noeud x) {
+				return x.couleur == 'R';
+			}
+		};
 	}
 
 	// TODO : voir quelles autres méthodes il faut surcharger
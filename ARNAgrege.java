@@ -0,0 +1,162 @@
+import java.util.*;
+
+/**
+ * <p>
+ * {@link ARN} dont chaque noeud stocke, en plus de sa clé, l'agrégat (somme,
+ * minimum, nombre, ...) des éléments de son sous-arbre, défini par un
+ * {@link Monoide}. L'agrégat est tenu à jour par les ajouts, les suppressions
+ * et les rotations, au même endroit que la taille des sous-arbres : une
+ * modification ne recalcule que les agrégats des noeuds sur son chemin.
+ * </p>
+ *
+ * <p>
+ * {@link #aggregate(Object, Object)} calcule alors l'agrégat des éléments
+ * d'un intervalle en O(log n) : il combine les agrégats des sous-arbres
+ * entièrement compris dans l'intervalle le long des deux chemins qui mènent
+ * à ses bornes, sans parcourir les éléments.
+ * </p>
+ *
+ * <pre>
+ * ARNAgrege&lt;Integer, Long&gt; t = new ARNAgrege&lt;&gt;(Monoide.somme(Integer::longValue));
+ * t.addAll(List.of(1, 5, 10, 20));
+ * t.aggregate(2, 15);		// 15
+ * </pre>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ * @param <A>
+ *			le type de l'agrégat
+ */
+public class ARNAgrege<E, A> extends ARN<E> {
+	private final Monoide<? super E, A> monoide;
+
+	private class NoeudAgrege extends Noeud {
+		A agregat;			// agrégat du sous-arbre enraciné ici
+
+		NoeudAgrege(E cle) {
+			super(cle);
+		}
+	}
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordonnés selon l'ordre naturel
+	 *
+	 * @param monoide
+	 *			l'agrégat à maintenir
+	 */
+	public ARNAgrege(Monoide<? super E, A> monoide) {
+		super();
+		this.monoide = Objects.requireNonNull(monoide);
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 * @param monoide
+	 *			l'agrégat à maintenir
+	 */
+	public ARNAgrege(Comparator<? super E> cmp, Monoide<? super E, A> monoide) {
+		super(cmp);
+		this.monoide = Objects.requireNonNull(monoide);
+	}
+
+	/**
+	 * Agrégat de tous les éléments, en temps constant
+	 */
+	public A aggregate() {
+		return agregat(racine);
+	}
+
+	/**
+	 * Agrégat des éléments compris entre lo et hi, bornes incluses
+	 */
+	public A aggregate(E lo, E hi) {
+		return aggregate(lo, true, hi, true);
+	}
+
+	/**
+	 * Agrégat des éléments compris entre lo et hi, en O(log n)
+	 *
+	 * @param lo
+	 *			la borne inférieure
+	 * @param loInclusive
+	 *			vrai si lo fait partie de l'intervalle
+	 * @param hi
+	 *			la borne supérieure
+	 * @param hiInclusive
+	 *			vrai si hi fait partie de l'intervalle
+	 * @return l'agrégat, neutre si aucun élément n'est dans l'intervalle
+	 */
+	public A aggregate(E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+		// Le premier noeud dans l'intervalle en descendant : les deux bornes
+		// se séparent à partir de lui
+		Noeud s = racine;
+		while(s != sentinelle) {
+			if(tropBas(s.cle, lo, loInclusive)) {
+				s = s.droit;
+			} else if(tropHaut(s.cle, hi, hiInclusive)) {
+				s = s.gauche;
+			} else {
+				break;
+			}
+		}
+		if(s == sentinelle) {
+			return monoide.neutre();
+		}
+		// À gauche de s, tout ce qui est au-dessus de lo est dans l'intervalle
+		A gauche = monoide.neutre();
+		for(Noeud x = s.gauche; x != sentinelle; ) {
+			if(tropBas(x.cle, lo, loInclusive)) {
+				x = x.droit;
+			} else {
+				gauche = monoide.combiner(monoide.combiner(monoide.valeur(x.cle), agregat(x.droit)), gauche);
+				x = x.gauche;
+			}
+		}
+		A droite = monoide.neutre();
+		for(Noeud x = s.droit; x != sentinelle; ) {
+			if(tropHaut(x.cle, hi, hiInclusive)) {
+				x = x.gauche;
+			} else {
+				droite = monoide.combiner(droite, monoide.combiner(agregat(x.gauche), monoide.valeur(x.cle)));
+				x = x.droit;
+			}
+		}
+		return monoide.combiner(gauche, monoide.combiner(monoide.valeur(s.cle), droite));
+	}
+
+	// Maintien des agrégats
+
+	@Override
+	Noeud creerNoeud(E e) {
+		return new NoeudAgrege(e);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	void majNoeud(Noeud x) {
+		super.majNoeud(x);
+		((NoeudAgrege) x).agregat = monoide.combiner(
+			monoide.combiner(agregat(x.gauche), monoide.valeur(x.cle)), agregat(x.droit));
+	}
+
+	@SuppressWarnings("unchecked")
+	private A agregat(Noeud x) {
+		return x == sentinelle ? monoide.neutre() : ((NoeudAgrege) x).agregat;
+	}
+
+	private boolean tropBas(E e, E lo, boolean inclusif) {
+		int c = cmp.compare(e, lo);
+		return c < 0 || (c == 0 && !inclusif);
+	}
+
+	private boolean tropHaut(E e, E hi, boolean inclusif) {
+		int c = cmp.compare(e, hi);
+		return c > 0 || (c == 0 && !inclusif);
+	}
+}
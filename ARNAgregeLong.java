@@ -0,0 +1,134 @@
+import java.util.*;
+
+/**
+ * Version de {@link ARNAgrege} dont l'agrégat est un long, stocké dans chaque
+ * noeud sans boxing et combiné sans allocation.
+ *
+ * <pre>
+ * ARNAgregeLong&lt;Mesure&gt; t = new ARNAgregeLong&lt;&gt;(parDate, MonoideLong.maximum(Mesure::valeur));
+ * long pic = t.aggregate(debut, fin);
+ * </pre>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ARNAgregeLong<E> extends ARN<E> {
+	private final MonoideLong<? super E> monoide;
+
+	private class NoeudLong extends Noeud {
+		long agregat;			// agrégat du sous-arbre enraciné ici
+
+		NoeudLong(E cle) {
+			super(cle);
+		}
+	}
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordonnés selon l'ordre naturel
+	 *
+	 * @param monoide
+	 *			l'agrégat à maintenir
+	 */
+	public ARNAgregeLong(MonoideLong<? super E> monoide) {
+		super();
+		this.monoide = Objects.requireNonNull(monoide);
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 * @param monoide
+	 *			l'agrégat à maintenir
+	 */
+	public ARNAgregeLong(Comparator<? super E> cmp, MonoideLong<? super E> monoide) {
+		super(cmp);
+		this.monoide = Objects.requireNonNull(monoide);
+	}
+
+	/**
+	 * Agrégat de tous les éléments, en temps constant
+	 */
+	public long aggregate() {
+		return agregat(racine);
+	}
+
+	/**
+	 * Agrégat des éléments compris entre lo et hi, bornes incluses
+	 */
+	public long aggregate(E lo, E hi) {
+		return aggregate(lo, true, hi, true);
+	}
+
+	/**
+	 * Agrégat des éléments compris entre lo et hi, en O(log n)
+	 *
+	 * @see ARNAgrege#aggregate(Object, boolean, Object, boolean)
+	 */
+	public long aggregate(E lo, boolean loInclusive, E hi, boolean hiInclusive) {
+		Noeud s = racine;
+		while(s != sentinelle) {
+			if(tropBas(s.cle, lo, loInclusive)) {
+				s = s.droit;
+			} else if(tropHaut(s.cle, hi, hiInclusive)) {
+				s = s.gauche;
+			} else {
+				break;
+			}
+		}
+		if(s == sentinelle) {
+			return monoide.neutre();
+		}
+		long gauche = monoide.neutre();
+		for(Noeud x = s.gauche; x != sentinelle; ) {
+			if(tropBas(x.cle, lo, loInclusive)) {
+				x = x.droit;
+			} else {
+				gauche = monoide.combiner(monoide.combiner(monoide.valeur(x.cle), agregat(x.droit)), gauche);
+				x = x.gauche;
+			}
+		}
+		long droite = monoide.neutre();
+		for(Noeud x = s.droit; x != sentinelle; ) {
+			if(tropHaut(x.cle, hi, hiInclusive)) {
+				x = x.gauche;
+			} else {
+				droite = monoide.combiner(droite, monoide.combiner(agregat(x.gauche), monoide.valeur(x.cle)));
+				x = x.droit;
+			}
+		}
+		return monoide.combiner(gauche, monoide.combiner(monoide.valeur(s.cle), droite));
+	}
+
+	// Maintien des agrégats
+
+	@Override
+	Noeud creerNoeud(E e) {
+		return new NoeudLong(e);
+	}
+
+	@Override
+	void majNoeud(Noeud x) {
+		super.majNoeud(x);
+		((NoeudLong) x).agregat = monoide.combiner(
+			monoide.combiner(agregat(x.gauche), monoide.valeur(x.cle)), agregat(x.droit));
+	}
+
+	private long agregat(Noeud x) {
+		return x == sentinelle ? monoide.neutre() : ((NoeudLong) x).agregat;
+	}
+
+	private boolean tropBas(E e, E lo, boolean inclusif) {
+		int c = cmp.compare(e, lo);
+		return c < 0 || (c == 0 && !inclusif);
+	}
+
+	private boolean tropHaut(E e, E hi, boolean inclusif) {
+		int c = cmp.compare(e, hi);
+		return c > 0 || (c == 0 && !inclusif);
+	}
+}
@@ -0,0 +1,155 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * Observateur qui cumule les mesures d'un ou plusieurs {@link ARN} :
+ * nombre d'opérations, de comparaisons, de rotations, passages dans chaque
+ * cas de correction, profondeur des descentes et histogramme des durées.
+ * Les compteurs peuvent être mis à jour par plusieurs threads et consultés
+ * par JMX après {@link #enregistrer(String)}.
+ * </p>
+ *
+ * <pre>
+ * ARNCompteurs compteurs = new ARNCompteurs();
+ * compteurs.enregistrer("index");
+ * arbre.setMetriques(compteurs);
+ * </pre>
+ */
+public class ARNCompteurs implements ARNMetrics, ARNCompteursMBean {
+	private final LongAdder[] operations = adders(ARNMetrics.Operation.values().length);
+	private final LongAdder comparaisons = new LongAdder();
+	private final LongAdder profondeurs = new LongAdder();
+	private final LongAdder rotations = new LongAdder();
+	private final LongAdder[] casAjout = adders(3);
+	private final LongAdder[] casSuppression = adders(4);
+	private final LongAdder[] latences = adders(Long.SIZE);
+
+	private static LongAdder[] adders(int n) {
+		LongAdder[] t = new LongAdder[n];
+		for(int i = 0; i < n; i++) {
+			t[i] = new LongAdder();
+		}
+		return t;
+	}
+
+	private static long[] valeurs(LongAdder[] t) {
+		long[] v = new long[t.length];
+		for(int i = 0; i < t.length; i++) {
+			v[i] = t[i].sum();
+		}
+		return v;
+	}
+
+	/**
+	 * Enregistre ces compteurs auprès du serveur JMX de la plateforme, sous le
+	 * nom {@code arn:type=ARNCompteurs,name=<nom>}
+	 *
+	 * @param nom
+	 *			le nom qui distingue ces compteurs dans la console JMX
+	 * @return le nom JMX sous lequel les compteurs sont enregistrés
+	 * @throws JMException
+	 *			si le nom est invalide ou déjà utilisé
+	 */
+	public ObjectName enregistrer(String nom) throws JMException {
+		ObjectName n = new ObjectName("arn:type=ARNCompteurs,name=" + ObjectName.quote(nom));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, n);
+		return n;
+	}
+
+	// ARNMetrics
+
+	@Override
+	public void operation(Operation type, int comparaisons, int profondeur, long nanos) {
+		operations[type.ordinal()].increment();
+		this.comparaisons.add(comparaisons);
+		profondeurs.add(profondeur);
+		latences[63 - Long.numberOfLeadingZeros(Math.max(nanos, 1))].increment();
+	}
+
+	@Override
+	public void rotation() {
+		rotations.increment();
+	}
+
+	@Override
+	public void correctionAjout(int cas) {
+		casAjout[cas - 1].increment();
+	}
+
+	@Override
+	public void correctionSuppression(int cas) {
+		casSuppression[cas - 1].increment();
+	}
+
+	// ARNCompteursMBean
+
+	public long getAjouts() {
+		return operations[Operation.AJOUT.ordinal()].sum();
+	}
+
+	public long getSuppressions() {
+		return operations[Operation.SUPPRESSION.ordinal()].sum();
+	}
+
+	public long getRecherches() {
+		return operations[Operation.RECHERCHE.ordinal()].sum();
+	}
+
+	public long getComparaisons() {
+		return comparaisons.sum();
+	}
+
+	public long getRotations() {
+		return rotations.sum();
+	}
+
+	public double getComparaisonsParOperation() {
+		long n = getAjouts() + getSuppressions() + getRecherches();
+		return n == 0 ? 0 : (double) comparaisons.sum() / n;
+	}
+
+	public double getProfondeurMoyenne() {
+		long n = getAjouts() + getSuppressions() + getRecherches();
+		return n == 0 ? 0 : (double) profondeurs.sum() / n;
+	}
+
+	public long[] getCasAjout() {
+		return valeurs(casAjout);
+	}
+
+	public long[] getCasSuppression() {
+		return valeurs(casSuppression);
+	}
+
+	public long[] getHistogrammeLatences() {
+		return valeurs(latences);
+	}
+
+	public void reinitialiser() {
+		for(LongAdder a : operations) {
+			a.reset();
+		}
+		comparaisons.reset();
+		profondeurs.reset();
+		rotations.reset();
+		for(LongAdder a : casAjout) {
+			a.reset();
+		}
+		for(LongAdder a : casSuppression) {
+			a.reset();
+		}
+		for(LongAdder a : latences) {
+			a.reset();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ajouts : " + getAjouts() + ", suppressions : " + getSuppressions()
+			+ ", recherches : " + getRecherches() + ", comparaisons/opération : "
+			+ String.format("%.1f", getComparaisonsParOperation()) + ", rotations : " + getRotations();
+	}
+}
@@ -0,0 +1,36 @@
+/**
+ * Interface d'administration JMX de {@link ARNCompteurs}
+ */
+public interface ARNCompteursMBean {
+
+	long getAjouts();
+
+	long getSuppressions();
+
+	long getRecherches();
+
+	long getComparaisons();
+
+	long getRotations();
+
+	/** Nombre moyen de comparaisons par opération */
+	double getComparaisonsParOperation();
+
+	/** Profondeur moyenne des descentes */
+	double getProfondeurMoyenne();
+
+	/** Nombre de passages dans chaque cas de la correction après ajout, cas 1 à 3 */
+	long[] getCasAjout();
+
+	/** Nombre de passages dans chaque cas de la correction après suppression, cas 1 à 4 */
+	long[] getCasSuppression();
+
+	/**
+	 * Histogramme des durées d'opération : la case i compte les opérations
+	 * qui ont duré entre 2^i (inclus) et 2^(i+1) (exclu) nanosecondes
+	 */
+	long[] getHistogrammeLatences();
+
+	/** Remet tous les compteurs à zéro */
+	void reinitialiser();
+}
@@ -0,0 +1,735 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * {@link ARN} dont le contenu survit à un arrêt brutal. Chaque ajout et
+ * chaque suppression est écrit dans un journal sur disque avant d'être
+ * confirmé : add et remove ne rendent la main qu'une fois l'opération
+ * enregistrée de manière durable (fsync). À l'ouverture, l'arbre est
+ * reconstruit à partir du dernier instantané et du journal qui le suit.
+ * </p>
+ *
+ * <p>
+ * Les écritures sur disque sont faites par un thread dédié qui regroupe les
+ * opérations (« group commit ») : il attend au plus latenceMax après la
+ * première opération en attente, ou que lotMax opérations soient en attente,
+ * puis les écrit toutes et ne fait qu'un seul fsync. Plusieurs threads qui
+ * modifient l'arbre en même temps partagent donc le coût du fsync, et
+ * {@link #addAsync(Object)} / {@link #removeAsync(Object)} permettent à un
+ * seul thread d'enchaîner les opérations sans attendre chaque fsync.
+ * </p>
+ *
+ * <p>
+ * Le journal est découpé en segments de 64 Mo. Tous les quatre segments (ou
+ * à la demande, par {@link #checkpoint()}), l'arbre complet est sauvegardé
+ * avec {@link ARN#writeTo} et les segments qu'il rend inutiles sont
+ * supprimés. Le dossier contient donc :
+ * </p>
+ * <ul>
+ * <li>{@code instantane-<n>.arn} : l'arbre après toutes les opérations des
+ * segments de numéro inférieur à n ;</li>
+ * <li>{@code journal-<n>.log} : les opérations, chacune écrite sur
+ * 1 + largeur + 4 octets (type, clé codée, CRC32).</li>
+ * </ul>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ARNDurable<E> extends AbstractSet<E> implements Closeable {
+	private static final byte AJOUT = 1;
+	private static final byte SUPPRESSION = 2;
+	private static final byte VIDAGE = 3;
+
+	private static final long TAILLE_SEGMENT = 1 << 26;
+	private static final int SEGMENTS_PAR_POINT = 4;
+	private static final Duration LATENCE_PAR_DEFAUT = Duration.ofMillis(2);
+	private static final int LOT_PAR_DEFAUT = 4096;
+
+	private final Path dossier;
+	private final KeyCodec<E> codec;
+	private final Comparator<? super E> cmp;
+	private final long latenceMax;			// en nanosecondes
+	private final int lotMax;
+	private final int tailleEnregistrement;
+	private final ARN<E> arbre;
+
+	// Protégés par le moniteur de this
+	private ByteBuffer enAttente;				// opérations pas encore écrites
+	private ByteBuffer libre;					// le second tampon, null pendant son écriture
+	private int nbEnAttente;
+	private long debutAttente;				// System.nanoTime() de la première opération en attente
+	private long sequence;					// nombre d'opérations journalisées
+	private long durable;					// nombre d'opérations écrites et synchronisées
+	private final ArrayDeque<Promesse> promesses = new ArrayDeque<>();
+	private final CRC32 crc = new CRC32();
+	private boolean pointDemande;
+	private long points;					// nombre d'instantanés écrits
+	private boolean ferme;
+	private IOException erreur;
+
+	// Utilisés seulement par le thread d'écriture après l'ouverture
+	private FileChannel segment;
+	private long numeroSegment;
+	private int segmentsDepuisPoint;
+	private final Thread ecrivain;
+
+	/** Opération asynchrone à confirmer quand elle sera durable */
+	private static final class Promesse {
+		final long sequence;
+		final boolean resultat;
+		final CompletableFuture<Boolean> futur = new CompletableFuture<>();
+
+		Promesse(long sequence, boolean resultat) {
+			this.sequence = sequence;
+			this.resultat = resultat;
+		}
+	}
+
+	// Consructeurs
+
+	/**
+	 * Ouvre (ou crée) l'arbre durable rangé dans dossier. Les éléments sont
+	 * ordoDés selon l'ordre naturel ; les écritures sont regroupées par lots
+	 * d'au plus 4096 opérations attendant au plus 2 ms.
+	 *
+	 * @param dossier
+	 *			le dossier du journal et des instantanés
+	 * @param codec
+	 *			le codage des clés, qui doit préserver l'ordre
+	 * @throws IOException
+	 *			si le dossier ne peut pas être lu ou si le journal est corrompu
+	 */
+	public ARNDurable(Path dossier, KeyCodec<E> codec) throws IOException {
+		this(dossier, codec, null, LATENCE_PAR_DEFAUT, LOT_PAR_DEFAUT);
+	}
+
+	/**
+	 * Ouvre (ou crée) l'arbre durable rangé dans dossier
+	 *
+	 * @param dossier
+	 *			le dossier du journal et des instantanés
+	 * @param codec
+	 *			le codage des clés, qui doit préserver l'ordre
+	 * @param cmp
+	 *			l'ordre des éléments, null pour l'ordre naturel
+	 * @param latenceMax
+	 *			le temps maximal pendant lequel une opération attend que
+	 *			d'autres la rejoignent avant l'écriture du lot
+	 * @param lotMax
+	 *			le nombre d'opérations en attente qui déclenche l'écriture
+	 *			sans attendre latenceMax
+	 * @throws IOException
+	 *			si le dossier ne peut pas être lu ou si le journal est corrompu
+	 */
+	public ARNDurable(Path dossier, KeyCodec<E> codec, Comparator<? super E> cmp,
+			Duration latenceMax, int lotMax) throws IOException {
+		if(lotMax < 1) {
+			throw new IllegalArgumentException("lotMax < 1");
+		}
+		this.dossier = dossier;
+		this.codec = codec;
+		this.cmp = cmp;
+		this.latenceMax = latenceMax.toNanos();
+		this.lotMax = lotMax;
+		this.tailleEnregistrement = 1 + codec.largeur() + 4;
+		this.enAttente = ByteBuffer.allocate(lotMax * tailleEnregistrement);
+		this.libre = ByteBuffer.allocate(lotMax * tailleEnregistrement);
+
+		Files.createDirectories(dossier);
+		long point = dernierNumero("instantane-*.arn");
+		if(point >= 0) {
+			try(FileChannel c = FileChannel.open(fichier("instantane-", point, ".arn"))) {
+				arbre = ARN.readFrom(c, codec, cmp);
+			}
+		} else {
+			arbre = cmp == null ? new ARN<>() : new ARN<>(cmp);
+			point = 0;
+		}
+		List<Long> segments = numeros("journal-*.log");
+		long dernier = point;
+		for(int i = 0; i < segments.size(); i++) {
+			long n = segments.get(i);
+			if(n >= point) {
+				rejouer(fichier("journal-", n, ".log"), i == segments.size() - 1);
+				dernier = Math.max(dernier, n + 1);
+			}
+		}
+		nettoyer(point);
+		numeroSegment = dernier;
+		segment = ouvrirSegment(numeroSegment);
+
+		ecrivain = new Thread(this::ecrire, "ARNDurable " + dossier);
+		ecrivain.setDaemon(true);
+		ecrivain.start();
+	}
+
+	// Lectures
+
+	@Override
+	public synchronized boolean contains(Object o) {
+		return arbre.contains(o);
+	}
+
+	@Override
+	public synchronized int size() {
+		return arbre.size();
+	}
+
+	/**
+	 * Parcourt une copie des éléments prise à l'appel : le parcours n'est pas
+	 * perturbé par les modifications concurrentes. La suppression par
+	 * l'itérateur est journalisée comme {@link #remove(Object)}.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		Object[] copie;
+		synchronized(this) {
+			copie = arbre.toArray();
+		}
+		return new Iterator<E>() {
+			int i;
+
+			public boolean hasNext() {
+				return i < copie.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			public E next() {
+				if(i == copie.length) {
+					throw new NoSuchElementException();
+				}
+				return (E) copie[i++];
+			}
+
+			public void remove() {
+				if(i == 0 || copie[i - 1] == null) {
+					throw new IllegalStateException();
+				}
+				ARNDurable.this.remove(copie[i - 1]);
+				copie[i - 1] = null;
+			}
+		};
+	}
+
+	// Écritures
+
+	/**
+	 * Ajoute e et attend que l'ajout soit durable
+	 *
+	 * @throws UncheckedIOException
+	 *			si le journal ne peut plus être écrit
+	 */
+	@Override
+	public boolean add(E e) {
+		long s;
+		synchronized(this) {
+			verifierOuvert();
+			if(e == null || !arbre.add(e)) {
+				return false;
+			}
+			s = journaliser(AJOUT, e);
+		}
+		attendre(s);
+		return true;
+	}
+
+	/**
+	 * Retire o et attend que la suppression soit durable
+	 *
+	 * @throws UncheckedIOException
+	 *			si le journal ne peut plus être écrit
+	 */
+	@Override
+	public boolean remove(Object o) {
+		long s;
+		synchronized(this) {
+			verifierOuvert();
+			if(o == null || !arbre.remove(o)) {
+				return false;
+			}
+			s = journaliserSuppression(o);
+		}
+		attendre(s);
+		return true;
+	}
+
+	/**
+	 * Ajoute tous les éléments de c, puis attend une seule fois que tous ces
+	 * ajouts soient durables
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		long s = -1;
+		synchronized(this) {
+			verifierOuvert();
+			for(E e : c) {
+				if(e != null && arbre.add(e)) {
+					s = journaliser(AJOUT, e);
+				}
+			}
+		}
+		if(s < 0) {
+			return false;
+		}
+		attendre(s);
+		return true;
+	}
+
+	/**
+	 * Retire tous les éléments de c, puis attend une seule fois que toutes
+	 * ces suppressions soient durables
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		Objects.requireNonNull(c);
+		long s = -1;
+		synchronized(this) {
+			verifierOuvert();
+			for(Object o : c) {
+				if(o != null && arbre.remove(o)) {
+					s = journaliserSuppression(o);
+				}
+			}
+		}
+		if(s < 0) {
+			return false;
+		}
+		attendre(s);
+		return true;
+	}
+
+	/**
+	 * Ne garde que les éléments de c, puis attend une seule fois que toutes
+	 * les suppressions soient durables
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		Objects.requireNonNull(c);
+		return removeIf(e -> !c.contains(e));
+	}
+
+	/**
+	 * Retire les éléments qui vérifient filtre, puis attend une seule fois que
+	 * toutes ces suppressions soient durables
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super E> filtre) {
+		Objects.requireNonNull(filtre);
+		long s = -1;
+		synchronized(this) {
+			verifierOuvert();
+			for(Iterator<E> it = arbre.iterator(); it.hasNext(); ) {
+				E e = it.next();
+				if(filtre.test(e)) {
+					it.remove();
+					s = journaliser(SUPPRESSION, e);
+				}
+			}
+		}
+		if(s < 0) {
+			return false;
+		}
+		attendre(s);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		long s;
+		synchronized(this) {
+			verifierOuvert();
+			arbre.clear();
+			s = journaliser(VIDAGE, null);
+		}
+		attendre(s);
+	}
+
+	/**
+	 * Ajoute e sans attendre que l'ajout soit durable : l'arbre est modifié
+	 * tout de suite et le futur renvoyé est complété quand le journal a été
+	 * synchronisé (ou en erreur si l'écriture échoue)
+	 *
+	 * @return le futur résultat de {@link #add(Object)}
+	 */
+	public CompletableFuture<Boolean> addAsync(E e) {
+		synchronized(this) {
+			verifierOuvert();
+			if(e == null || !arbre.add(e)) {
+				return CompletableFuture.completedFuture(false);
+			}
+			return promettre(journaliser(AJOUT, e));
+		}
+	}
+
+	/**
+	 * Retire o sans attendre que la suppression soit durable
+	 *
+	 * @return le futur résultat de {@link #remove(Object)}
+	 * @see #addAsync(Object)
+	 */
+	public CompletableFuture<Boolean> removeAsync(Object o) {
+		synchronized(this) {
+			verifierOuvert();
+			if(o == null || !arbre.remove(o)) {
+				return CompletableFuture.completedFuture(false);
+			}
+			return promettre(journaliserSuppression(o));
+		}
+	}
+
+	/**
+	 * Sauvegarde l'arbre complet et supprime les segments du journal devenus
+	 * inutiles, puis rend la main
+	 *
+	 * @throws UncheckedIOException
+	 *			si l'instantané ne peut pas être écrit
+	 */
+	public void checkpoint() {
+		synchronized(this) {
+			verifierOuvert();
+			long attendu = points + 1;
+			pointDemande = true;
+			notifyAll();
+			while(points < attendu) {
+				verifierErreur();
+				attendreNotification();
+			}
+		}
+	}
+
+	/**
+	 * Écrit les opérations en attente puis ferme le journal. Les opérations
+	 * suivantes lèvent IllegalStateException.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized(this) {
+			if(ferme) {
+				return;
+			}
+			ferme = true;
+			notifyAll();
+		}
+		try {
+			ecrivain.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		segment.close();
+		synchronized(this) {
+			if(erreur != null) {
+				throw erreur;
+			}
+		}
+	}
+
+	// Journal
+
+	/**
+	 * Ajoute une opération au lot en attente. Appelée avec le moniteur, dans
+	 * l'ordre où les opérations ont été appliquées à l'arbre.
+	 *
+	 * @return le numéro de l'opération
+	 */
+	private long journaliser(byte type, E e) {
+		if(enAttente.remaining() < tailleEnregistrement) {
+			ByteBuffer b = ByteBuffer.allocate(enAttente.capacity() * 2);
+			enAttente.flip();
+			b.put(enAttente);
+			enAttente = b;
+		}
+		int p = enAttente.position();
+		enAttente.put(type);
+		if(e == null) {
+			for(int i = 0; i < codec.largeur(); i++) {
+				enAttente.put((byte) 0);
+			}
+		} else {
+			codec.encoder(e, enAttente, p + 1);
+			enAttente.position(p + 1 + codec.largeur());
+		}
+		crc.reset();
+		crc.update(enAttente.duplicate().position(p).limit(p + 1 + codec.largeur()));
+		enAttente.putInt((int) crc.getValue());
+
+		if(nbEnAttente++ == 0) {
+			debutAttente = System.nanoTime();
+			notifyAll();
+		} else if(nbEnAttente >= lotMax) {
+			notifyAll();
+		}
+		return ++sequence;
+	}
+
+	/**
+	 * Journalise la suppression de o, que l'arbre vient de retirer : o est
+	 * donc comparable à ses éléments et peut être codé comme un E
+	 */
+	@SuppressWarnings("unchecked")
+	private long journaliserSuppression(Object o) {
+		return journaliser(SUPPRESSION, (E) o);
+	}
+
+	private CompletableFuture<Boolean> promettre(long s) {
+		Promesse p = new Promesse(s, true);
+		promesses.add(p);
+		return p.futur;
+	}
+
+	/**
+	 * Attend que l'opération numéro s soit durable
+	 */
+	private synchronized void attendre(long s) {
+		while(durable < s) {
+			verifierErreur();
+			attendreNotification();
+		}
+	}
+
+	private void attendreNotification() {
+		try {
+			wait();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrompu en attendant le journal", e);
+		}
+	}
+
+	private void verifierOuvert() {
+		if(ferme) {
+			throw new IllegalStateException("Arbre fermé");
+		}
+		verifierErreur();
+	}
+
+	private void verifierErreur() {
+		if(erreur != null) {
+			throw new UncheckedIOException("Le journal ne peut plus être écrit", erreur);
+		}
+	}
+
+	/**
+	 * Boucle du thread d'écriture : attend un lot, l'écrit, le synchronise,
+	 * confirme ses opérations, puis change de segment ou écrit un instantané
+	 * si besoin
+	 */
+	private void ecrire() {
+		try {
+			while(true) {
+				ByteBuffer lot;
+				long fin;
+				ARN<E> copie = null;
+				synchronized(this) {
+					while(nbEnAttente == 0 && !pointDemande && !ferme) {
+						wait();
+					}
+					if(nbEnAttente == 0 && !pointDemande) {
+						return;						// fermé et tout est écrit
+					}
+					long limite = debutAttente + latenceMax;
+					while(nbEnAttente > 0 && nbEnAttente < lotMax && !pointDemande && !ferme) {
+						long reste = limite - System.nanoTime();
+						if(reste <= 0) {
+							break;
+						}
+						wait(reste / 1_000_000, (int) (reste % 1_000_000));
+					}
+					lot = enAttente;
+					enAttente = libre;
+					libre = null;
+					nbEnAttente = 0;
+					fin = sequence;
+					if(pointDemande || segmentsDepuisPoint >= SEGMENTS_PAR_POINT) {
+						// Copie en O(n) sans comparaison, cohérente avec le lot
+						copie = new ARN<>(arbre);
+					}
+				}
+
+				lot.flip();
+				if(lot.hasRemaining()) {
+					while(lot.hasRemaining()) {
+						segment.write(lot);
+					}
+					segment.force(false);
+				}
+				lot.clear();
+				if(copie != null || segment.size() >= TAILLE_SEGMENT) {
+					changerDeSegment();
+				}
+				confirmer(lot, fin);
+
+				if(copie != null) {
+					ecrireInstantane(copie, numeroSegment);
+					segmentsDepuisPoint = 0;
+					synchronized(this) {
+						pointDemande = false;
+						points++;
+						notifyAll();
+					}
+				}
+			}
+		} catch(IOException e) {
+			echec(e);
+		} catch(InterruptedException e) {
+			echec(new IOException("Thread d'écriture interrompu", e));
+		}
+	}
+
+	/**
+	 * Rend le tampon écrit et confirme les opérations jusqu'à fin
+	 */
+	private void confirmer(ByteBuffer lot, long fin) {
+		List<Promesse> tenues = new ArrayList<>();
+		synchronized(this) {
+			libre = lot;
+			durable = fin;
+			while(!promesses.isEmpty() && promesses.peek().sequence <= fin) {
+				tenues.add(promesses.poll());
+			}
+			notifyAll();
+		}
+		for(Promesse p : tenues) {
+			p.futur.complete(p.resultat);
+		}
+	}
+
+	private void echec(IOException e) {
+		List<Promesse> perdues;
+		synchronized(this) {
+			erreur = e;
+			perdues = new ArrayList<>(promesses);
+			promesses.clear();
+			notifyAll();
+		}
+		for(Promesse p : perdues) {
+			p.futur.completeExceptionally(e);
+		}
+	}
+
+	private void changerDeSegment() throws IOException {
+		segment.close();
+		segment = ouvrirSegment(++numeroSegment);
+		segmentsDepuisPoint++;
+	}
+
+	private FileChannel ouvrirSegment(long n) throws IOException {
+		return FileChannel.open(fichier("journal-", n, ".log"),
+			StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Écrit l'instantané n dans un fichier temporaire renommé une fois
+	 * complet, puis supprime les segments et instantanés plus anciens
+	 */
+	private void ecrireInstantane(ARN<E> copie, long n) throws IOException {
+		Path tmp = dossier.resolve("instantane.tmp");
+		try(FileChannel c = FileChannel.open(tmp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			copie.writeTo(c, codec);
+			c.force(true);
+		}
+		Files.move(tmp, fichier("instantane-", n, ".arn"), StandardCopyOption.ATOMIC_MOVE);
+		nettoyer(n);
+	}
+
+	/**
+	 * Supprime les segments et instantanés antérieurs à l'instantané n
+	 */
+	private void nettoyer(long n) throws IOException {
+		for(long s : numeros("journal-*.log")) {
+			if(s < n) {
+				Files.delete(fichier("journal-", s, ".log"));
+			}
+		}
+		for(long s : numeros("instantane-*.arn")) {
+			if(s < n) {
+				Files.delete(fichier("instantane-", s, ".arn"));
+			}
+		}
+		Files.deleteIfExists(dossier.resolve("instantane.tmp"));
+	}
+
+	// Relecture
+
+	/**
+	 * Rejoue les opérations d'un segment. Une opération incomplète ou
+	 * corrompue à la fin du dernier segment est celle qui était en cours
+	 * d'écriture lors de l'arrêt : elle n'avait pas été confirmée et elle est
+	 * ignorée. Ailleurs, c'est une corruption du journal.
+	 */
+	private void rejouer(Path f, boolean dernier) throws IOException {
+		try(FileChannel c = FileChannel.open(f, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long taille = c.size();
+			if(taille == 0) {
+				return;
+			}
+			ByteBuffer b = c.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+			int largeur = codec.largeur();
+			int p = 0;
+			for(; p + tailleEnregistrement <= taille; p += tailleEnregistrement) {
+				crc.reset();
+				crc.update(b.duplicate().position(p).limit(p + 1 + largeur));
+				if(b.getInt(p + 1 + largeur) != (int) crc.getValue()) {
+					break;
+				}
+				byte type = b.get(p);
+				if(type == AJOUT) {
+					arbre.add(codec.decoder(b, p + 1));
+				} else if(type == SUPPRESSION) {
+					arbre.remove(codec.decoder(b, p + 1));
+				} else if(type == VIDAGE) {
+					arbre.clear();
+				} else {
+					break;
+				}
+			}
+			if(p < taille) {
+				if(!dernier) {
+					throw new IOException("Journal corrompu : " + f + " à la position " + p);
+				}
+				c.truncate(p);
+			}
+		}
+	}
+
+	// Fichiers
+
+	private Path fichier(String prefixe, long n, String suffixe) {
+		return dossier.resolve(String.format("%s%020d%s", prefixe, n, suffixe));
+	}
+
+	/**
+	 * Renvoie, triés, les numéros des fichiers du dossier correspondant au
+	 * motif (de la forme préfixe-*.suffixe)
+	 */
+	private List<Long> numeros(String motif) throws IOException {
+		List<Long> r = new ArrayList<>();
+		try(DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, motif)) {
+			for(Path f : fichiers) {
+				String nom = f.getFileName().toString();
+				r.add(Long.parseLong(nom.substring(nom.indexOf('-') + 1, nom.indexOf('.'))));
+			}
+		}
+		Collections.sort(r);
+		return r;
+	}
+
+	private long dernierNumero(String motif) throws IOException {
+		List<Long> r = numeros(motif);
+		return r.isEmpty() ? -1 : r.get(r.size() - 1);
+	}
+}
@@ -0,0 +1,619 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre rouge-noir stocké hors du tas Java, pour les très gros ensembles de
+ * clés de largeur fixe : le ramasse-miettes ne voit que quelques tampons
+ * directs, quel que soit le nombre d'éléments.
+ * </p>
+ *
+ * <p>
+ * Chaque noeud occupe un emplacement de taille fixe dans un bloc mémoire
+ * (ByteBuffer direct) : fils gauche, fils droit et père sous forme d'indices
+ * long, puis la clé codée par un {@link KeyCodec}, puis la couleur. Les blocs
+ * sont alloués au fur et à mesure que l'arbre grossit et les indices étant des
+ * long, le nombre d'éléments n'est pas limité à Integer.MAX_VALUE (voir
+ * {@link #tailleLongue()}). L'indice 0 est la sentinelle ; les emplacements
+ * libérés par les suppressions sont réutilisés.
+ * </p>
+ *
+ * <p>
+ * Les clés sont comparées directement sur leurs octets codés, sans être
+ * décodées : l'ordre de l'arbre est celui du codage. La mémoire est libérée
+ * immédiatement par {@link #close()}, après quoi l'arbre est inutilisable.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ARNHorsTas<E> extends AbstractCollection<E> implements AutoCloseable {
+	private static final long SENTINELLE = 0;
+	private static final int BITS_PAR_BLOC = 16;
+	private static final int NOEUDS_PAR_BLOC = 1 << BITS_PAR_BLOC;
+
+	// Disposition d'un noeud dans son bloc
+	private static final int GAUCHE = 0;
+	private static final int DROIT = 8;
+	private static final int PERE = 16;
+	private static final int CLE = 24;
+
+	private static final byte ROUGE = 1;
+	private static final byte NOIR = 0;
+
+	private final KeyCodec<E> codec;
+	private final int largeur;
+	private final int couleur;		// position de l'octet de couleur dans le noeud
+	private final int pas;			// taille d'un noeud, multiple de 8
+	private final ByteBuffer sonde;	// clé recherchée, codée une fois par opération
+
+	private ByteBuffer[] blocs;
+	private int nbBlocs;
+	private long racine;
+	private long taille;
+	private long libre;				// tête de la liste des emplacements libérés, chaînés par GAUCHE
+	private long prochain;			// premier emplacement jamais utilisé
+
+	/**
+	 * Crée un arbre vide dont les clés sont codées par codec
+	 *
+	 * @param codec
+	 *			le codage des clés, qui définit aussi leur ordre
+	 */
+	public ARNHorsTas(KeyCodec<E> codec) {
+		this.codec = codec;
+		this.largeur = codec.largeur();
+		this.couleur = CLE + largeur;
+		this.pas = (couleur + 1 + 7) & ~7;
+		this.sonde = ByteBuffer.allocate(largeur);
+		this.blocs = new ByteBuffer[4];
+		initialiser();
+	}
+
+	private void initialiser() {
+		nbBlocs = 0;
+		racine = SENTINELLE;
+		taille = 0;
+		libre = SENTINELLE;
+		prochain = 1;
+		// la sentinelle : noire, ses liens pointent sur elle-même
+		nouveauBloc();
+		setGauche(SENTINELLE, SENTINELLE);
+		setDroit(SENTINELLE, SENTINELLE);
+		setPere(SENTINELLE, SENTINELLE);
+		setCouleur(SENTINELLE, NOIR);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		verifierOuvert();
+		return new ARNHorsTasIterator();
+	}
+
+	/**
+	 * Renvoie le nombre d'éléments, plafonné à Integer.MAX_VALUE comme le
+	 * demande Collection ; voir {@link #tailleLongue()}
+	 */
+	@Override
+	public int size() {
+		return (int) Math.min(taille, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Renvoie le nombre exact d'éléments
+	 */
+	public long tailleLongue() {
+		return taille;
+	}
+
+	/**
+	 * Renvoie le nombre d'octets réservés hors du tas
+	 */
+	public long memoireReservee() {
+		return (long) nbBlocs * NOEUDS_PAR_BLOC * pas;
+	}
+
+	@Override
+	public void clear() {
+		verifierOuvert();
+		liberer();
+		blocs = new ByteBuffer[4];
+		initialiser();
+	}
+
+	/**
+	 * Libère immédiatement toute la mémoire hors du tas. L'arbre ne peut plus
+	 * être utilisé ensuite.
+	 */
+	@Override
+	public void close() {
+		if(blocs != null) {
+			liberer();
+			blocs = null;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object o) {
+		verifierOuvert();
+		if(o == null) {
+			return false;
+		}
+		coder((E) o);
+		return rechercher() != SENTINELLE;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object o) {
+		verifierOuvert();
+		if(o == null) {
+			return false;
+		}
+		coder((E) o);
+		long z = rechercher();
+		if(z == SENTINELLE) {
+			return false;
+		}
+		supprimer(z);
+		return true;
+	}
+
+	@Override
+	public boolean add(E e) {
+		verifierOuvert();
+		if(e == null) return false;
+		coder(e);
+		long y = SENTINELLE;
+		long x = racine;
+		int c = 0;
+		while(x != SENTINELLE) {
+			c = comparerSonde(x);
+			if(c == 0) {
+				return false;
+			}
+			y = x;
+			x = c < 0 ? gauche(x) : droit(x);
+		}
+		long z = nouveauNoeud();
+		setPere(z, y);
+		if(y == SENTINELLE) {
+			racine = z;
+		} else if(c < 0) {
+			setGauche(y, z);
+		} else {
+			setDroit(y, z);
+		}
+		taille++;
+		ajouterCorrection(z);
+		return true;
+	}
+
+	// Accès aux noeuds
+
+	private ByteBuffer bloc(long x) {
+		return blocs[(int) (x >>> BITS_PAR_BLOC)];
+	}
+
+	private int position(long x) {
+		return (int) (x & (NOEUDS_PAR_BLOC - 1)) * pas;
+	}
+
+	private long gauche(long x) {
+		return bloc(x).getLong(position(x) + GAUCHE);
+	}
+
+	private long droit(long x) {
+		return bloc(x).getLong(position(x) + DROIT);
+	}
+
+	private long pere(long x) {
+		return bloc(x).getLong(position(x) + PERE);
+	}
+
+	private boolean rouge(long x) {
+		return bloc(x).get(position(x) + couleur) == ROUGE;
+	}
+
+	private void setGauche(long x, long v) {
+		bloc(x).putLong(position(x) + GAUCHE, v);
+	}
+
+	private void setDroit(long x, long v) {
+		bloc(x).putLong(position(x) + DROIT, v);
+	}
+
+	private void setPere(long x, long v) {
+		bloc(x).putLong(position(x) + PERE, v);
+	}
+
+	private void setCouleur(long x, byte c) {
+		bloc(x).put(position(x) + couleur, c);
+	}
+
+	private E cle(long x) {
+		return codec.decoder(bloc(x), position(x) + CLE);
+	}
+
+	private void coder(E e) {
+		codec.encoder(e, sonde, 0);
+	}
+
+	/**
+	 * Compare la clé codée dans la sonde à celle du noeud x
+	 */
+	private int comparerSonde(long x) {
+		return KeyCodec.comparer(sonde, 0, bloc(x), position(x) + CLE, largeur);
+	}
+
+	// Gestion des emplacements
+
+	/**
+	 * Réserve un emplacement pour un nouveau noeud rouge sans fils dont la clé
+	 * est celle de la sonde
+	 */
+	private long nouveauNoeud() {
+		long z;
+		if(libre != SENTINELLE) {
+			z = libre;
+			libre = gauche(z);
+		} else {
+			if(prochain == (long) nbBlocs << BITS_PAR_BLOC) {
+				nouveauBloc();
+			}
+			z = prochain++;
+		}
+		ByteBuffer b = bloc(z);
+		int p = position(z);
+		for(int i = 0; i < largeur; i++) {
+			b.put(p + CLE + i, sonde.get(i));
+		}
+		setGauche(z, SENTINELLE);
+		setDroit(z, SENTINELLE);
+		setPere(z, SENTINELLE);
+		setCouleur(z, ROUGE);
+		return z;
+	}
+
+	private void nouveauBloc() {
+		if(nbBlocs == blocs.length) {
+			blocs = Arrays.copyOf(blocs, nbBlocs * 2);
+		}
+		blocs[nbBlocs++] = ByteBuffer.allocateDirect(NOEUDS_PAR_BLOC * pas);
+	}
+
+	private void libererNoeud(long z) {
+		setGauche(z, libre);
+		libre = z;
+	}
+
+	private void liberer() {
+		for(int i = 0; i < nbBlocs; i++) {
+			Memoire.liberer(blocs[i]);
+			blocs[i] = null;
+		}
+		nbBlocs = 0;
+	}
+
+	private void verifierOuvert() {
+		if(blocs == null) {
+			throw new IllegalStateException("Arbre fermé");
+		}
+	}
+
+	// Quelques méthodes utiles
+
+	private long rechercher() {
+		long x = racine;
+		while(x != SENTINELLE) {
+			int c = comparerSonde(x);
+			if(c == 0) {
+				return x;
+			}
+			x = c < 0 ? gauche(x) : droit(x);
+		}
+		return x;
+	}
+
+	private long minimum(long x) {
+		while(gauche(x) != SENTINELLE) {
+			x = gauche(x);
+		}
+		return x;
+	}
+
+	private long suivant(long x) {
+		if(droit(x) != SENTINELLE) {
+			return minimum(droit(x));
+		}
+		long y = pere(x);
+		while(y != SENTINELLE && x == droit(y)) {
+			x = y;
+			y = pere(y);
+		}
+		return y;
+	}
+
+	/**
+	 * Supprime le noeud z et libère son emplacement
+	 *
+	 * @return le noeud qui suit z dans l'ordre des clés
+	 */
+	private long supprimer(long z) {
+		long suivant = suivant(z);
+		long y = z;
+		boolean yRouge = rouge(y);
+		long x;
+
+		if(gauche(z) == SENTINELLE) {
+			x = droit(z);
+			transplanter(z, droit(z));
+		} else if(droit(z) == SENTINELLE) {
+			x = gauche(z);
+			transplanter(z, gauche(z));
+		} else {
+			y = suivant;
+			yRouge = rouge(y);
+			x = droit(y);
+			if(pere(y) == z) {
+				setPere(x, y);
+			} else {
+				transplanter(y, droit(y));
+				setDroit(y, droit(z));
+				setPere(droit(y), y);
+			}
+			transplanter(z, y);
+			setGauche(y, gauche(z));
+			setPere(gauche(y), y);
+			setCouleur(y, rouge(z) ? ROUGE : NOIR);
+		}
+		taille--;
+		if(!yRouge) {
+			supprimerCorrection(x);
+		}
+		libererNoeud(z);
+		return suivant;
+	}
+
+	private void transplanter(long u, long v) {
+		long p = pere(u);
+		if(p == SENTINELLE) {
+			racine = v;
+		} else if(u == gauche(p)) {
+			setGauche(p, v);
+		} else {
+			setDroit(p, v);
+		}
+		setPere(v, p);
+	}
+
+	private void ajouterCorrection(long z) {
+		long y;
+		while(rouge(pere(z))) {
+			long p = pere(z);
+			long g = pere(p);
+			if(p == gauche(g)) {
+				y = droit(g); // l'oncle de z
+				if(rouge(y)) {
+					// cas 1
+					setCouleur(p, NOIR);
+					setCouleur(y, NOIR);
+					setCouleur(g, ROUGE);
+					z = g;
+				} else {
+					if(z == droit(p)) {
+						// cas 2
+						z = p;
+						rotationGauche(z);
+					}
+					// cas 3
+					setCouleur(pere(z), NOIR);
+					setCouleur(pere(pere(z)), ROUGE);
+					rotationDroite(pere(pere(z)));
+				}
+			} else {
+				y = gauche(g); // l'oncle de z
+				if(rouge(y)) {
+					// cas 1
+					setCouleur(p, NOIR);
+					setCouleur(y, NOIR);
+					setCouleur(g, ROUGE);
+					z = g;
+				} else {
+					if(z == gauche(p)) {
+						// cas 2
+						z = p;
+						rotationDroite(z);
+					}
+					// cas 3
+					setCouleur(pere(z), NOIR);
+					setCouleur(pere(pere(z)), ROUGE);
+					rotationGauche(pere(pere(z)));
+				}
+			}
+		}
+		setCouleur(racine, NOIR);
+	}
+
+	private void supprimerCorrection(long x) {
+		long w;
+		while(x != racine && !rouge(x)) {
+			long p = pere(x);
+			if(x == gauche(p)) {
+				w = droit(p); // le frère de x
+				if(rouge(w)) {
+					// cas 1
+					setCouleur(w, NOIR);
+					setCouleur(p, ROUGE);
+					rotationGauche(p);
+					w = droit(p);
+				}
+				if(!rouge(gauche(w)) && !rouge(droit(w))) {
+					// cas 2
+					setCouleur(w, ROUGE);
+					x = p;
+				} else {
+					if(!rouge(droit(w))) {
+						// cas 3
+						setCouleur(gauche(w), NOIR);
+						setCouleur(w, ROUGE);
+						rotationDroite(w);
+						w = droit(p);
+					}
+					// cas 4
+					setCouleur(w, rouge(p) ? ROUGE : NOIR);
+					setCouleur(p, NOIR);
+					setCouleur(droit(w), NOIR);
+					rotationGauche(p);
+					x = racine;
+				}
+			} else {
+				w = gauche(p); // le frère de x
+				if(rouge(w)) {
+					// cas 1
+					setCouleur(w, NOIR);
+					setCouleur(p, ROUGE);
+					rotationDroite(p);
+					w = gauche(p);
+				}
+				if(!rouge(gauche(w)) && !rouge(droit(w))) {
+					// cas 2
+					setCouleur(w, ROUGE);
+					x = p;
+				} else {
+					if(!rouge(gauche(w))) {
+						// cas 3
+						setCouleur(droit(w), NOIR);
+						setCouleur(w, ROUGE);
+						rotationGauche(w);
+						w = gauche(p);
+					}
+					// cas 4
+					setCouleur(w, rouge(p) ? ROUGE : NOIR);
+					setCouleur(p, NOIR);
+					setCouleur(gauche(w), NOIR);
+					rotationDroite(p);
+					x = racine;
+				}
+			}
+		}
+		setCouleur(x, NOIR);
+	}
+
+	private void rotationGauche(long x) {
+		long y = droit(x);
+		setDroit(x, gauche(y));
+		if(gauche(y) != SENTINELLE) {
+			setPere(gauche(y), x);
+		}
+		long p = pere(x);
+		setPere(y, p);
+		if(p == SENTINELLE) {
+			racine = y;
+		} else if(x == gauche(p)) {
+			setGauche(p, y);
+		} else {
+			setDroit(p, y);
+		}
+		setGauche(y, x);
+		setPere(x, y);
+	}
+
+	private void rotationDroite(long x) {
+		long y = gauche(x);
+		setGauche(x, droit(y));
+		if(droit(y) != SENTINELLE) {
+			setPere(droit(y), x);
+		}
+		long p = pere(x);
+		setPere(y, p);
+		if(p == SENTINELLE) {
+			racine = y;
+		} else if(x == droit(p)) {
+			setDroit(p, y);
+		} else {
+			setGauche(p, y);
+		}
+		setDroit(y, x);
+		setPere(x, y);
+	}
+
+	/**
+	 * Parcourt les éléments dans l'ordre ; chaque clé est décodée au moment
+	 * où elle est renvoyée
+	 */
+	private class ARNHorsTasIterator implements Iterator<E> {
+		long courant;
+		long suivant;
+
+		ARNHorsTasIterator() {
+			this.courant = SENTINELLE;
+			this.suivant = minimum(racine);
+		}
+
+		public boolean hasNext() {
+			return suivant != SENTINELLE;
+		}
+
+		public E next() {
+			if(suivant == SENTINELLE) {
+				throw new NoSuchElementException();
+			}
+			verifierOuvert();
+			courant = suivant;
+			suivant = suivant(suivant);
+			return cle(courant);
+		}
+
+		public void remove() {
+			if(courant == SENTINELLE) {
+				throw new IllegalStateException();
+			}
+			verifierOuvert();
+			suivant = supprimer(courant);
+			courant = SENTINELLE;
+		}
+	}
+
+	/**
+	 * Libération explicite des tampons directs. Sans elle, leur mémoire ne
+	 * serait rendue qu'après leur passage par le ramasse-miettes. La méthode
+	 * invokeCleaner de sun.misc.Unsafe est cherchée par réflexion, sans
+	 * référence à la classe à la compilation ; si elle est introuvable, la
+	 * libération est laissée au ramasse-miettes.
+	 */
+	private static final class Memoire {
+		private static final MethodHandle NETTOYER;
+
+		static {
+			MethodHandle h = null;
+			try {
+				Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+				Field f = unsafe.getDeclaredField("theUnsafe");
+				f.setAccessible(true);
+				h = MethodHandles.lookup()
+					.findVirtual(unsafe, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(f.get(null));
+			} catch(ReflectiveOperationException | RuntimeException e) {
+				// pas d'Unsafe accessible : le ramasse-miettes s'en chargera
+			}
+			NETTOYER = h;
+		}
+
+		static void liberer(ByteBuffer tampon) {
+			if(NETTOYER == null) {
+				return;
+			}
+			try {
+				NETTOYER.invokeExact(tampon);
+			} catch(Throwable e) {
+				throw new IllegalStateException("Impossible de libérer un tampon direct", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,976 @@
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * <p>
+ * Table associative ordonnée par un arbre rouge-noir. Les clés sont rangées
+ * dans un {@link ARN} dont les noeuds portent aussi la valeur associée : les
+ * rotations, les corrections après ajout et suppression et la recherche par
+ * le doigt sont celles d'ARN. Il n'y a pas d'objet intermédiaire par entrée,
+ * ni d'objet sonde à construire pour chercher une clé.
+ * </p>
+ *
+ * <p>
+ * get, put, remove et merge ne font qu'une descente dans l'arbre. Les noeuds
+ * sont eux-mêmes les entrées renvoyées par le parcours de
+ * {@link #entrySet()} (setValue modifie la table) ; les méthodes de
+ * navigation (firstEntry, ceilingEntry, ...) renvoient des copies non
+ * modifiables, comme {@link TreeMap}.
+ * </p>
+ *
+ * @param <K>
+ *			le type des clés
+ * @param <V>
+ *			le type des valeurs
+ */
+public class ARNMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+	private final Arbre arbre;
+	private final Comparator<? super K> cmp;
+
+	/**
+	 * L'arbre des clés. Ses noeuds sont des entrées de la table ; les
+	 * méthodes de navigation renvoient null plutôt que la sentinelle.
+	 */
+	private final class Arbre extends ARN<K> {
+		Arbre() {
+			super();
+		}
+
+		Arbre(Comparator<? super K> cmp) {
+			super(cmp);
+		}
+
+		final class Entree extends Noeud implements Map.Entry<K, V> {
+			V valeur;
+
+			Entree(K cle) {
+				super(cle);
+			}
+
+			/** L'entrée suivante, null si c'est la dernière */
+			Entree apres() {
+				return entree(suivant());
+			}
+
+			/** L'entrée précédente, null si c'est la première */
+			Entree avant() {
+				return entree(precedent());
+			}
+
+			public K getKey() {
+				return cle;
+			}
+
+			public V getValue() {
+				return valeur;
+			}
+
+			public V setValue(V valeur) {
+				V ancienne = this.valeur;
+				this.valeur = valeur;
+				return ancienne;
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				if(!(o instanceof Map.Entry)) {
+					return false;
+				}
+				Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+				return Objects.equals(cle, e.getKey()) && Objects.equals(valeur, e.getValue());
+			}
+
+			@Override
+			public int hashCode() {
+				return Objects.hashCode(cle) ^ Objects.hashCode(valeur);
+			}
+
+			@Override
+			public String toString() {
+				return cle + "=" + valeur;
+			}
+		}
+
+		@Override
+		Noeud creerNoeud(K k) {
+			return new Entree(k);
+		}
+
+		@SuppressWarnings("unchecked")
+		Entree entree(Noeud x) {
+			return x == sentinelle ? null : (Entree) x;
+		}
+
+		Entree premiere() {
+			return entree(racine.minimum());
+		}
+
+		Entree derniere() {
+			return entree(racine.maximum());
+		}
+	}
+
+	// Consructeurs
+
+	/**
+	 * Crée une table vide. Les clés sont ordonnées selon l'ordre naturel
+	 */
+	public ARNMap() {
+		arbre = new Arbre();
+		cmp = arbre.cmp;
+	}
+
+	/**
+	 * Crée une table vide. Les clés sont comparées selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des clés
+	 */
+	public ARNMap(Comparator<? super K> cmp) {
+		arbre = new Arbre(cmp);
+		this.cmp = cmp;
+	}
+
+	/**
+	 * Constructeur par recopie. Crée une table qui contient les mêmes
+	 * associations que m. L'ordre des clés est l'ordre naturel.
+	 *
+	 * @param m
+	 *			la table à copier
+	 */
+	public ARNMap(Map<? extends K, ? extends V> m) {
+		this();
+		putAll(m);
+	}
+
+	/**
+	 * Crée une table qui contient les mêmes associations que m, ordonnées
+	 * selon le même ordre que m
+	 *
+	 * @param m
+	 *			la table triée à copier
+	 */
+	public ARNMap(SortedMap<K, ? extends V> m) {
+		arbre = m.comparator() == null ? new Arbre() : new Arbre(m.comparator());
+		cmp = arbre.cmp;
+		putAll(m);
+	}
+
+	// Map
+
+	@Override
+	public int size() {
+		return arbre.size();
+	}
+
+	@Override
+	public void clear() {
+		arbre.clear();
+	}
+
+	@Override
+	public boolean containsKey(Object o) {
+		return rechercher(o) != null;
+	}
+
+	@Override
+	public V get(Object o) {
+		Arbre.Entree x = rechercher(o);
+		return x == null ? null : x.valeur;
+	}
+
+	/**
+	 * Associe v à k, en une seule descente : la valeur du noeud est remplacée
+	 * si k est présente, sinon le nouveau noeud est accroché là où la
+	 * recherche s'est arrêtée
+	 */
+	@Override
+	public V put(K k, V v) {
+		return trouverOuInserer(k).setValue(v);
+	}
+
+	@Override
+	public V remove(Object o) {
+		Arbre.Entree z = rechercher(o);
+		if(z == null) {
+			return null;
+		}
+		arbre.supprimer(z);
+		return z.valeur;
+	}
+
+	/**
+	 * Fusionne v avec la valeur associée à k, en une seule descente : si k
+	 * est absente (ou associée à null) elle est associée à v, sinon à
+	 * f(ancienne valeur, v), et retirée si ce résultat est null
+	 */
+	@Override
+	public V merge(K k, V v, BiFunction<? super V, ? super V, ? extends V> f) {
+		Objects.requireNonNull(v);
+		Objects.requireNonNull(f);
+		Arbre.Entree x = trouverOuInserer(k);
+		if(x.valeur == null) {
+			x.valeur = v;
+			return v;
+		}
+		V nouvelle = f.apply(x.valeur, v);
+		if(nouvelle == null) {
+			arbre.supprimer(x);
+		} else {
+			x.valeur = nouvelle;
+		}
+		return nouvelle;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new Vue(true, null, false, true, null, false, false).entrySet();
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return navigableKeySet();
+	}
+
+	// NavigableMap
+
+	@Override
+	public Comparator<? super K> comparator() {
+		return arbre.comparator();
+	}
+
+	@Override
+	public K firstKey() {
+		return cleOuException(arbre.premiere());
+	}
+
+	@Override
+	public K lastKey() {
+		return cleOuException(arbre.derniere());
+	}
+
+	@Override
+	public Map.Entry<K, V> firstEntry() {
+		return exporter(arbre.premiere());
+	}
+
+	@Override
+	public Map.Entry<K, V> lastEntry() {
+		return exporter(arbre.derniere());
+	}
+
+	@Override
+	public Map.Entry<K, V> pollFirstEntry() {
+		return extraire(arbre.premiere());
+	}
+
+	@Override
+	public Map.Entry<K, V> pollLastEntry() {
+		return extraire(arbre.derniere());
+	}
+
+	@Override
+	public Map.Entry<K, V> lowerEntry(K k) {
+		return exporter(plancher(k, false));
+	}
+
+	@Override
+	public K lowerKey(K k) {
+		return cle(plancher(k, false));
+	}
+
+	@Override
+	public Map.Entry<K, V> floorEntry(K k) {
+		return exporter(plancher(k, true));
+	}
+
+	@Override
+	public K floorKey(K k) {
+		return cle(plancher(k, true));
+	}
+
+	@Override
+	public Map.Entry<K, V> ceilingEntry(K k) {
+		return exporter(plafond(k, true));
+	}
+
+	@Override
+	public K ceilingKey(K k) {
+		return cle(plafond(k, true));
+	}
+
+	@Override
+	public Map.Entry<K, V> higherEntry(K k) {
+		return exporter(plafond(k, false));
+	}
+
+	@Override
+	public K higherKey(K k) {
+		return cle(plafond(k, false));
+	}
+
+	@Override
+	public NavigableMap<K, V> descendingMap() {
+		return new Vue(true, null, false, true, null, false, true);
+	}
+
+	@Override
+	public NavigableSet<K> navigableKeySet() {
+		return new Cles<>(this);
+	}
+
+	@Override
+	public NavigableSet<K> descendingKeySet() {
+		return new Cles<>(descendingMap());
+	}
+
+	@Override
+	public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+		return new Vue(false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+	}
+
+	@Override
+	public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+		return new Vue(true, null, false, false, toKey, inclusive, false);
+	}
+
+	@Override
+	public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+		return new Vue(false, fromKey, inclusive, true, null, false, false);
+	}
+
+	@Override
+	public SortedMap<K, V> subMap(K fromKey, K toKey) {
+		return subMap(fromKey, true, toKey, false);
+	}
+
+	@Override
+	public SortedMap<K, V> headMap(K toKey) {
+		return headMap(toKey, false);
+	}
+
+	@Override
+	public SortedMap<K, V> tailMap(K fromKey) {
+		return tailMap(fromKey, true);
+	}
+
+	// Quelques méthodes utiles
+
+	private Arbre.Entree rechercher(Object o) {
+		return arbre.entree(arbre.rechercher(o));
+	}
+
+	/**
+	 * L'entrée de la plus petite clé supérieure (ou égale si inclusif) à k,
+	 * null s'il n'y en a pas
+	 */
+	private Arbre.Entree plafond(K k, boolean inclusif) {
+		return arbre.entree(arbre.plafond(k, inclusif));
+	}
+
+	/**
+	 * L'entrée de la plus grande clé inférieure (ou égale si inclusif) à k,
+	 * null s'il n'y en a pas
+	 */
+	private Arbre.Entree plancher(K k, boolean inclusif) {
+		return arbre.entree(arbre.plancher(k, inclusif));
+	}
+
+	/**
+	 * L'entrée de k, accrochée avec une valeur null si k était absente
+	 */
+	private Arbre.Entree trouverOuInserer(K k) {
+		if(arbre.isEmpty()) {
+			cmp.compare(k, k);		// vérifie le type (et null) de la clé
+		}
+		return arbre.entree(arbre.trouverOuInserer(k, null));
+	}
+
+	/**
+	 * Copie non modifiable de l'entrée x, null si x est null
+	 */
+	private Map.Entry<K, V> exporter(Arbre.Entree x) {
+		return x == null ? null : new AbstractMap.SimpleImmutableEntry<>(x.cle, x.valeur);
+	}
+
+	/**
+	 * Supprime x (s'il n'est pas null) et renvoie une copie de son entrée
+	 */
+	private Map.Entry<K, V> extraire(Arbre.Entree x) {
+		Map.Entry<K, V> e = exporter(x);
+		if(x != null) {
+			arbre.supprimer(x);
+		}
+		return e;
+	}
+
+	private static <K> K cle(Map.Entry<K, ?> x) {
+		return x == null ? null : x.getKey();
+	}
+
+	private K cleOuException(Arbre.Entree x) {
+		if(x == null) {
+			throw new NoSuchElementException();
+		}
+		return x.cle;
+	}
+
+	/**
+	 * Parcourt les entrées de premier (incluse) à fin (exclue), vers les clés
+	 * croissantes ou décroissantes
+	 */
+	private class ARNMapIterator implements Iterator<Map.Entry<K, V>> {
+		Arbre.Entree courant;
+		Arbre.Entree suivant;
+		final Arbre.Entree fin;
+		final boolean descendant;
+
+		ARNMapIterator(Arbre.Entree premier, Arbre.Entree fin, boolean descendant) {
+			this.suivant = premier;
+			this.fin = fin;
+			this.descendant = descendant;
+		}
+
+		public boolean hasNext() {
+			return suivant != fin && suivant != null;
+		}
+
+		public Map.Entry<K, V> next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.courant = this.suivant;
+			this.suivant = descendant ? this.suivant.avant() : this.suivant.apres();
+			return this.courant;
+		}
+
+		public void remove() {
+			if(courant == null) {
+				throw new IllegalStateException();
+			}
+			// Le noeud suivant reste dans l'arbre : la suppression peut le
+			// déplacer mais ne change pas son identité
+			arbre.supprimer(this.courant);
+			this.courant = null;
+		}
+	}
+
+	/**
+	 * Vue sur les associations dont la clé est comprise entre deux bornes
+	 * (chacune pouvant être absente, incluse ou exclue), éventuellement dans
+	 * l'ordre décroissant. Les bornes sont toujours exprimées dans l'ordre de
+	 * la table : bas est la plus petite.
+	 */
+	private class Vue extends AbstractMap<K, V> implements NavigableMap<K, V> {
+		final boolean depuisDebut;
+		final K bas;
+		final boolean basInclus;
+		final boolean jusquaFin;
+		final K haut;
+		final boolean hautInclus;
+		final boolean descendant;
+
+		Vue(boolean depuisDebut, K bas, boolean basInclus,
+				boolean jusquaFin, K haut, boolean hautInclus, boolean descendant) {
+			if(!depuisDebut && !jusquaFin && cmp.compare(bas, haut) > 0) {
+				throw new IllegalArgumentException("borne inférieure > borne supérieure");
+			}
+			if(!depuisDebut) {
+				cmp.compare(bas, bas);		// vérifie le type de la borne
+			}
+			if(!jusquaFin) {
+				cmp.compare(haut, haut);
+			}
+			this.depuisDebut = depuisDebut;
+			this.bas = bas;
+			this.basInclus = basInclus;
+			this.jusquaFin = jusquaFin;
+			this.haut = haut;
+			this.hautInclus = hautInclus;
+			this.descendant = descendant;
+		}
+
+		// Bornes
+
+		@SuppressWarnings("unchecked")
+		boolean tropBas(Object k) {
+			if(depuisDebut) {
+				return false;
+			}
+			int c = cmp.compare((K) k, bas);
+			return c < 0 || (c == 0 && !basInclus);
+		}
+
+		@SuppressWarnings("unchecked")
+		boolean tropHaut(Object k) {
+			if(jusquaFin) {
+				return false;
+			}
+			int c = cmp.compare((K) k, haut);
+			return c > 0 || (c == 0 && !hautInclus);
+		}
+
+		boolean dansBornes(Object k) {
+			return !tropBas(k) && !tropHaut(k);
+		}
+
+		/**
+		 * Indique si k peut servir de borne (incluse ou non) à une sous-vue
+		 */
+		boolean borneValide(K k, boolean inclusive) {
+			if(inclusive) {
+				return dansBornes(k);
+			}
+			return (depuisDebut || cmp.compare(k, bas) >= 0)
+				&& (jusquaFin || cmp.compare(k, haut) <= 0);
+		}
+
+		// Entrées extrêmes et voisines, dans l'ordre de la table
+
+		Arbre.Entree premiereEntree() {
+			Arbre.Entree x = depuisDebut ? arbre.premiere() : plafond(bas, basInclus);
+			return x == null || tropHaut(x.cle) ? null : x;
+		}
+
+		Arbre.Entree derniereEntree() {
+			Arbre.Entree x = jusquaFin ? arbre.derniere() : plancher(haut, hautInclus);
+			return x == null || tropBas(x.cle) ? null : x;
+		}
+
+		/** Première entrée après l'intervalle, null s'il n'y en a pas */
+		Arbre.Entree apresFin() {
+			return jusquaFin ? null : plafond(haut, !hautInclus);
+		}
+
+		/** Dernière entrée avant l'intervalle, null s'il n'y en a pas */
+		Arbre.Entree avantDebut() {
+			return depuisDebut ? null : plancher(bas, !basInclus);
+		}
+
+		Arbre.Entree plafondDansBornes(K k, boolean inclusif) {
+			if(tropBas(k)) {
+				return premiereEntree();
+			}
+			Arbre.Entree x = plafond(k, inclusif);
+			return x == null || tropHaut(x.cle) ? null : x;
+		}
+
+		Arbre.Entree plancherDansBornes(K k, boolean inclusif) {
+			if(tropHaut(k)) {
+				return derniereEntree();
+			}
+			Arbre.Entree x = plancher(k, inclusif);
+			return x == null || tropBas(x.cle) ? null : x;
+		}
+
+		Arbre.Entree inferieur(K k, boolean inclusif) {
+			return descendant ? plafondDansBornes(k, inclusif) : plancherDansBornes(k, inclusif);
+		}
+
+		Arbre.Entree superieur(K k, boolean inclusif) {
+			return descendant ? plancherDansBornes(k, inclusif) : plafondDansBornes(k, inclusif);
+		}
+
+		Arbre.Entree premier() {
+			return descendant ? derniereEntree() : premiereEntree();
+		}
+
+		Arbre.Entree dernier() {
+			return descendant ? premiereEntree() : derniereEntree();
+		}
+
+		// Map
+
+		/**
+		 * En temps constant pour la table entière, en parcourant la vue sinon
+		 */
+		@Override
+		public int size() {
+			if(depuisDebut && jusquaFin) {
+				return arbre.size();
+			}
+			int n = 0;
+			for(Arbre.Entree x = premiereEntree(), fin = apresFin(); x != fin && x != null; x = x.apres()) {
+				n++;
+			}
+			return n;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return premiereEntree() == null;
+		}
+
+		@Override
+		public boolean containsKey(Object o) {
+			return dansBornes(o) && ARNMap.this.containsKey(o);
+		}
+
+		@Override
+		public V get(Object o) {
+			return dansBornes(o) ? ARNMap.this.get(o) : null;
+		}
+
+		@Override
+		public V put(K k, V v) {
+			if(!dansBornes(k)) {
+				throw new IllegalArgumentException("clé hors de l'intervalle");
+			}
+			return ARNMap.this.put(k, v);
+		}
+
+		@Override
+		public V remove(Object o) {
+			return dansBornes(o) ? ARNMap.this.remove(o) : null;
+		}
+
+		@Override
+		public Set<Map.Entry<K, V>> entrySet() {
+			return new AbstractSet<Map.Entry<K, V>>() {
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator() {
+					return descendant
+						? new ARNMapIterator(derniereEntree(), avantDebut(), true)
+						: new ARNMapIterator(premiereEntree(), apresFin(), false);
+				}
+
+				@Override
+				public int size() {
+					return Vue.this.size();
+				}
+
+				@Override
+				public boolean isEmpty() {
+					return Vue.this.isEmpty();
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					return entree(o) != null;
+				}
+
+				@Override
+				public boolean remove(Object o) {
+					Arbre.Entree x = entree(o);
+					if(x == null) {
+						return false;
+					}
+					arbre.supprimer(x);
+					return true;
+				}
+
+				/** L'entrée de la vue égale à o, null sinon */
+				private Arbre.Entree entree(Object o) {
+					if(!(o instanceof Map.Entry)) {
+						return null;
+					}
+					Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+					if(!dansBornes(e.getKey())) {
+						return null;
+					}
+					Arbre.Entree x = rechercher(e.getKey());
+					return x != null && Objects.equals(x.valeur, e.getValue()) ? x : null;
+				}
+			};
+		}
+
+		// NavigableMap
+
+		@Override
+		public Comparator<? super K> comparator() {
+			Comparator<? super K> c = ARNMap.this.comparator();
+			return descendant ? Collections.reverseOrder(c) : c;
+		}
+
+		@Override
+		public K firstKey() {
+			return cleOuException(premier());
+		}
+
+		@Override
+		public K lastKey() {
+			return cleOuException(dernier());
+		}
+
+		@Override
+		public Map.Entry<K, V> firstEntry() {
+			return exporter(premier());
+		}
+
+		@Override
+		public Map.Entry<K, V> lastEntry() {
+			return exporter(dernier());
+		}
+
+		@Override
+		public Map.Entry<K, V> pollFirstEntry() {
+			return extraire(premier());
+		}
+
+		@Override
+		public Map.Entry<K, V> pollLastEntry() {
+			return extraire(dernier());
+		}
+
+		@Override
+		public Map.Entry<K, V> lowerEntry(K k) {
+			return exporter(inferieur(k, false));
+		}
+
+		@Override
+		public K lowerKey(K k) {
+			return cle(inferieur(k, false));
+		}
+
+		@Override
+		public Map.Entry<K, V> floorEntry(K k) {
+			return exporter(inferieur(k, true));
+		}
+
+		@Override
+		public K floorKey(K k) {
+			return cle(inferieur(k, true));
+		}
+
+		@Override
+		public Map.Entry<K, V> ceilingEntry(K k) {
+			return exporter(superieur(k, true));
+		}
+
+		@Override
+		public K ceilingKey(K k) {
+			return cle(superieur(k, true));
+		}
+
+		@Override
+		public Map.Entry<K, V> higherEntry(K k) {
+			return exporter(superieur(k, false));
+		}
+
+		@Override
+		public K higherKey(K k) {
+			return cle(superieur(k, false));
+		}
+
+		@Override
+		public NavigableMap<K, V> descendingMap() {
+			return new Vue(depuisDebut, bas, basInclus, jusquaFin, haut, hautInclus, !descendant);
+		}
+
+		@Override
+		public NavigableSet<K> navigableKeySet() {
+			return new Cles<>(this);
+		}
+
+		@Override
+		public Set<K> keySet() {
+			return navigableKeySet();
+		}
+
+		@Override
+		public NavigableSet<K> descendingKeySet() {
+			return new Cles<>(descendingMap());
+		}
+
+		@Override
+		public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+			if(descendant) {
+				return sousVue(false, toKey, toInclusive, false, fromKey, fromInclusive);
+			}
+			return sousVue(false, fromKey, fromInclusive, false, toKey, toInclusive);
+		}
+
+		@Override
+		public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+			if(descendant) {
+				return sousVue(false, toKey, inclusive, jusquaFin, haut, hautInclus);
+			}
+			return sousVue(depuisDebut, bas, basInclus, false, toKey, inclusive);
+		}
+
+		@Override
+		public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+			if(descendant) {
+				return sousVue(depuisDebut, bas, basInclus, false, fromKey, inclusive);
+			}
+			return sousVue(false, fromKey, inclusive, jusquaFin, haut, hautInclus);
+		}
+
+		@Override
+		public SortedMap<K, V> subMap(K fromKey, K toKey) {
+			return subMap(fromKey, true, toKey, false);
+		}
+
+		@Override
+		public SortedMap<K, V> headMap(K toKey) {
+			return headMap(toKey, false);
+		}
+
+		@Override
+		public SortedMap<K, V> tailMap(K fromKey) {
+			return tailMap(fromKey, true);
+		}
+
+		/**
+		 * Crée une vue plus étroite, dont les nouvelles bornes doivent être
+		 * dans l'intervalle de celle-ci
+		 */
+		private Vue sousVue(boolean depuisDebut, K bas, boolean basInclus,
+				boolean jusquaFin, K haut, boolean hautInclus) {
+			if(!depuisDebut && !borneValide(bas, basInclus)) {
+				throw new IllegalArgumentException("borne inférieure hors de l'intervalle");
+			}
+			if(!jusquaFin && !borneValide(haut, hautInclus)) {
+				throw new IllegalArgumentException("borne supérieure hors de l'intervalle");
+			}
+			return new Vue(depuisDebut, bas, basInclus, jusquaFin, haut, hautInclus, descendant);
+		}
+	}
+
+	/**
+	 * Ensemble des clés d'une table (ou d'une vue), qui délègue toutes ses
+	 * opérations à la table
+	 */
+	private static final class Cles<K> extends AbstractSet<K> implements NavigableSet<K> {
+		private final NavigableMap<K, ?> m;
+
+		Cles(NavigableMap<K, ?> m) {
+			this.m = m;
+		}
+
+		@Override
+		public Iterator<K> iterator() {
+			Iterator<? extends Map.Entry<K, ?>> it = m.entrySet().iterator();
+			return new Iterator<K>() {
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				public K next() {
+					return it.next().getKey();
+				}
+
+				public void remove() {
+					it.remove();
+				}
+			};
+		}
+
+		@Override
+		public Iterator<K> descendingIterator() {
+			return descendingSet().iterator();
+		}
+
+		@Override
+		public int size() {
+			return m.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return m.isEmpty();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return m.containsKey(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if(!m.containsKey(o)) {
+				return false;
+			}
+			m.remove(o);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			m.clear();
+		}
+
+		@Override
+		public Comparator<? super K> comparator() {
+			return m.comparator();
+		}
+
+		@Override
+		public K first() {
+			return m.firstKey();
+		}
+
+		@Override
+		public K last() {
+			return m.lastKey();
+		}
+
+		@Override
+		public K lower(K k) {
+			return m.lowerKey(k);
+		}
+
+		@Override
+		public K floor(K k) {
+			return m.floorKey(k);
+		}
+
+		@Override
+		public K ceiling(K k) {
+			return m.ceilingKey(k);
+		}
+
+		@Override
+		public K higher(K k) {
+			return m.higherKey(k);
+		}
+
+		@Override
+		public K pollFirst() {
+			Map.Entry<K, ?> e = m.pollFirstEntry();
+			return e == null ? null : e.getKey();
+		}
+
+		@Override
+		public K pollLast() {
+			Map.Entry<K, ?> e = m.pollLastEntry();
+			return e == null ? null : e.getKey();
+		}
+
+		@Override
+		public NavigableSet<K> descendingSet() {
+			return new Cles<>(m.descendingMap());
+		}
+
+		@Override
+		public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+			return new Cles<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+		}
+
+		@Override
+		public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+			return new Cles<>(m.headMap(toElement, inclusive));
+		}
+
+		@Override
+		public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+			return new Cles<>(m.tailMap(fromElement, inclusive));
+		}
+
+		@Override
+		public SortedSet<K> subSet(K fromElement, K toElement) {
+			return subSet(fromElement, true, toElement, false);
+		}
+
+		@Override
+		public SortedSet<K> headSet(K toElement) {
+			return headSet(toElement, false);
+		}
+
+		@Override
+		public SortedSet<K> tailSet(K fromElement) {
+			return tailSet(fromElement, true);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * <p>
+ * Observateur des opérations d'un {@link ARN}, installé par
+ * {@link ARN#setMetriques(ARNMetrics)}. L'arbre appelle ces méthodes pendant
+ * ses opérations : elles doivent donc être rapides et ne pas modifier
+ * l'arbre. Toutes les méthodes ne font rien par défaut.
+ * </p>
+ *
+ * <p>
+ * Quand l'observateur installé est {@link #AUCUNE}, l'arbre ne mesure rien
+ * (pas même l'heure) et n'appelle aucune de ces méthodes.
+ * </p>
+ *
+ * @see ARNCompteurs
+ */
+public interface ARNMetrics {
+
+	/** Les opérations mesurées */
+	enum Operation {
+		AJOUT,
+		SUPPRESSION,
+		RECHERCHE
+	}
+
+	/** L'observateur qui ne fait rien, installé par défaut */
+	ARNMetrics AUCUNE = new ARNMetrics() {
+	};
+
+	/**
+	 * Appelée à la fin de chaque add, remove et contains
+	 *
+	 * @param type
+	 *			l'opération terminée
+	 * @param comparaisons
+	 *			le nombre d'appels au comparateur
+	 * @param profondeur
+	 *			le nombre de niveaux descendus pour trouver la clé, depuis la
+	 *			racine ou depuis le point où s'arrête la recherche par le doigt
+	 * @param nanos
+	 *			la durée de l'opération, en nanosecondes
+	 */
+	default void operation(Operation type, int comparaisons, int profondeur, long nanos) {
+	}
+
+	/**
+	 * Appelée à chaque rotation, gauche ou droite
+	 */
+	default void rotation() {
+	}
+
+	/**
+	 * Appelée à chaque tour de la correction après un ajout
+	 *
+	 * @param cas
+	 *			le cas traité : 1 (oncle rouge, recoloration), 2 ou 3
+	 *			(rotations)
+	 */
+	default void correctionAjout(int cas) {
+	}
+
+	/**
+	 * Appelée à chaque cas traité par la correction après une suppression
+	 *
+	 * @param cas
+	 *			le cas traité, de 1 à 4
+	 */
+	default void correctionSuppression(int cas) {
+	}
+}
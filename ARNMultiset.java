@@ -0,0 +1,382 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Multi-ensemble ordonné par un arbre rouge-noir : un même élément peut être
+ * présent plusieurs fois. Les éléments distincts sont rangés dans un
+ * {@link ARN} dont les noeuds portent aussi leur nombre d'occurrences : les
+ * rotations, les corrections après ajout et suppression et la recherche par
+ * le doigt sont celles d'ARN. L'arbre a donc un noeud par élément distinct :
+ * la mémoire et le temps d'ajout dépendent du nombre d'éléments distincts,
+ * pas du nombre total d'occurrences.
+ * </p>
+ *
+ * <p>
+ * Les méthodes de Collection voient chaque occurrence : size() est le nombre
+ * total d'occurrences, add et remove ajoutent ou retirent une occurrence, et
+ * le parcours renvoie chaque élément autant de fois qu'il est présent, dans
+ * l'ordre. {@link #elementSet()} donne la vue des éléments distincts.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ARNMultiset<E> extends AbstractCollection<E> {
+	private final Arbre arbre;
+	private long total;
+
+	/**
+	 * L'arbre des éléments distincts, dont chaque noeud compte les
+	 * occurrences de sa clé
+	 */
+	private final class Arbre extends ARN<E> {
+		Arbre() {
+			super();
+		}
+
+		Arbre(Comparator<? super E> cmp) {
+			super(cmp);
+		}
+
+		final class Occurrences extends Noeud {
+			int nombre;
+
+			Occurrences(E cle) {
+				super(cle);
+			}
+
+			/** Les occurrences de l'élément suivant, null si c'est le dernier */
+			Occurrences apres() {
+				return occurrences(suivant());
+			}
+		}
+
+		@Override
+		Noeud creerNoeud(E e) {
+			return new Occurrences(e);
+		}
+
+		Occurrences occurrences(Noeud x) {
+			return x == sentinelle ? null : (Occurrences) x;
+		}
+
+		Occurrences premier() {
+			return occurrences(racine.minimum());
+		}
+	}
+
+	// Consructeurs
+
+	/**
+	 * Crée un multi-ensemble vide. Les éléments sont ordonnés selon l'ordre
+	 * naturel
+	 */
+	public ARNMultiset() {
+		arbre = new Arbre();
+	}
+
+	/**
+	 * Crée un multi-ensemble vide. Les éléments sont comparés selon l'ordre
+	 * imposé par le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public ARNMultiset(Comparator<? super E> cmp) {
+		arbre = new Arbre(cmp);
+	}
+
+	/**
+	 * Constructeur par recopie. Crée un multi-ensemble qui contient les
+	 * éléments de c, avec leur multiplicité. L'ordre des éléments est l'ordre
+	 * naturel.
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public ARNMultiset(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new ARNMultisetIterator();
+	}
+
+	/**
+	 * Renvoie le nombre total d'occurrences, Integer.MAX_VALUE s'il le
+	 * dépasse
+	 */
+	@Override
+	public int size() {
+		return (int) Math.min(total, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return total == 0;
+	}
+
+	@Override
+	public void clear() {
+		arbre.clear();
+		total = 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return rechercher(o) != null;
+	}
+
+	/**
+	 * Ajoute une occurrence de e
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean add(E e) {
+		add(e, 1);
+		return true;
+	}
+
+	/**
+	 * Retire une occurrence de o
+	 *
+	 * @return true si o était présent
+	 */
+	@Override
+	public boolean remove(Object o) {
+		return remove(o, 1) > 0;
+	}
+
+	/**
+	 * Nombre d'occurrences de o
+	 *
+	 * @return 0 si o est absent
+	 */
+	public int count(Object o) {
+		Arbre.Occurrences x = rechercher(o);
+		return x == null ? 0 : x.nombre;
+	}
+
+	/**
+	 * Ajoute n occurrences de e, en une seule descente
+	 *
+	 * @return le nombre d'occurrences de e avant l'ajout
+	 * @throws IllegalArgumentException
+	 *			si n est négatif ou si le nombre d'occurrences de e dépasserait
+	 *			Integer.MAX_VALUE
+	 */
+	public int add(E e, int n) {
+		positif(n);
+		if(n == 0) {
+			verifierType(e);
+			return count(e);
+		}
+		Arbre.Occurrences x = trouverOuInserer(e);
+		int avant = x.nombre;
+		x.nombre = somme(avant, n);
+		total += n;
+		return avant;
+	}
+
+	/**
+	 * Retire n occurrences de o, ou toutes s'il y en a moins de n
+	 *
+	 * @return le nombre d'occurrences de o avant la suppression
+	 * @throws IllegalArgumentException
+	 *			si n est négatif
+	 */
+	public int remove(Object o, int n) {
+		positif(n);
+		Arbre.Occurrences z = rechercher(o);
+		if(z == null) {
+			return 0;
+		}
+		int avant = z.nombre;
+		if(n >= avant) {
+			arbre.supprimer(z);
+			total -= avant;
+		} else {
+			z.nombre -= n;
+			total -= n;
+		}
+		return avant;
+	}
+
+	/**
+	 * Fixe à n le nombre d'occurrences de e, en une seule descente. e est
+	 * retiré si n vaut 0.
+	 *
+	 * @return le nombre d'occurrences de e avant la modification
+	 * @throws IllegalArgumentException
+	 *			si n est négatif
+	 */
+	public int setCount(E e, int n) {
+		positif(n);
+		if(n == 0) {
+			verifierType(e);
+			return remove(e, Integer.MAX_VALUE);
+		}
+		Arbre.Occurrences x = trouverOuInserer(e);
+		int avant = x.nombre;
+		x.nombre = n;
+		total += n - avant;
+		return avant;
+	}
+
+	/**
+	 * Vue des éléments distincts, dans l'ordre. Retirer un élément de la vue
+	 * retire toutes ses occurrences ; on ne peut pas y ajouter d'élément.
+	 */
+	public Set<E> elementSet() {
+		return new AbstractSet<E>() {
+			@Override
+			public Iterator<E> iterator() {
+				return new ElementIterator();
+			}
+
+			@Override
+			public int size() {
+				return arbre.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return ARNMultiset.this.contains(o);
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public boolean remove(Object o) {
+				return setCount((E) o, 0) > 0;
+			}
+
+			@Override
+			public void clear() {
+				ARNMultiset.this.clear();
+			}
+		};
+	}
+
+	// Quelques méthodes utiles
+
+	private Arbre.Occurrences rechercher(Object o) {
+		return arbre.occurrences(arbre.rechercher(o));
+	}
+
+	/**
+	 * Les occurrences de e, accrochées avec un nombre nul si e était absent
+	 */
+	private Arbre.Occurrences trouverOuInserer(E e) {
+		if(arbre.isEmpty()) {
+			verifierType(e);
+		}
+		return (Arbre.Occurrences) arbre.trouverOuInserer(e, null);
+	}
+
+	/**
+	 * Vérifie le type (et null) de e, que l'arbre vide ne compare à rien
+	 */
+	private void verifierType(E e) {
+		arbre.cmp.compare(e, e);
+	}
+
+	private static void positif(int n) {
+		if(n < 0) {
+			throw new IllegalArgumentException("nombre d'occurrences négatif : " + n);
+		}
+	}
+
+	private static int somme(int a, int b) {
+		try {
+			return Math.addExact(a, b);
+		} catch(ArithmeticException ex) {
+			throw new IllegalArgumentException("plus de Integer.MAX_VALUE occurrences", ex);
+		}
+	}
+
+	/**
+	 * Parcourt les éléments dans l'ordre, chacun autant de fois qu'il est
+	 * présent. remove() retire une occurrence de l'élément courant.
+	 */
+	private class ARNMultisetIterator implements Iterator<E> {
+		Arbre.Occurrences courant;
+		Arbre.Occurrences suivant;
+		int restant;			// occurrences de courant pas encore renvoyées
+		boolean retirable;
+
+		ARNMultisetIterator() {
+			this.suivant = arbre.premier();
+		}
+
+		public boolean hasNext() {
+			return restant > 0 || suivant != null;
+		}
+
+		public E next() {
+			if(restant == 0) {
+				if(suivant == null) {
+					throw new NoSuchElementException();
+				}
+				this.courant = this.suivant;
+				this.suivant = this.suivant.apres();
+				this.restant = this.courant.nombre;
+			}
+			restant--;
+			retirable = true;
+			return this.courant.cle;
+		}
+
+		public void remove() {
+			if(!retirable) {
+				throw new IllegalStateException();
+			}
+			// Le noeud suivant reste dans l'arbre : la suppression de courant
+			// peut le déplacer mais ne change pas son identité
+			if(courant.nombre == 1) {
+				arbre.supprimer(courant);
+			} else {
+				courant.nombre--;
+			}
+			total--;
+			retirable = false;
+		}
+	}
+
+	/**
+	 * Parcourt les éléments distincts. remove() retire toutes les
+	 * occurrences de l'élément courant.
+	 */
+	private class ElementIterator implements Iterator<E> {
+		Arbre.Occurrences courant;
+		Arbre.Occurrences suivant;
+
+		ElementIterator() {
+			this.suivant = arbre.premier();
+		}
+
+		public boolean hasNext() {
+			return suivant != null;
+		}
+
+		public E next() {
+			if(suivant == null) {
+				throw new NoSuchElementException();
+			}
+			this.courant = this.suivant;
+			this.suivant = this.suivant.apres();
+			return this.courant.cle;
+		}
+
+		public void remove() {
+			if(courant == null) {
+				throw new IllegalStateException();
+			}
+			total -= courant.nombre;
+			arbre.supprimer(courant);
+			this.courant = null;
+		}
+	}
+}
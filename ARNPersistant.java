@@ -0,0 +1,425 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre rouge-noir persistant : les noeuds ne sont jamais modifiés. Un ajout
+ * ou une suppression recopie seulement le chemin de la racine au noeud
+ * concerné (O(log n) noeuds) et partage tout le reste avec la version
+ * précédente. Les noeuds n'ont donc pas de père et les rééquilibrages sont
+ * ceux d'Okasaki pour l'ajout et de Kahrs pour la suppression, qui
+ * reconstruisent les noeuds au lieu de les tourner.
+ * </p>
+ *
+ * <p>
+ * {@link #snapshot()} renvoie en O(1) une vue figée de l'arbre : c'est
+ * simplement la racine courante. Cette vue peut être parcourue par d'autres
+ * threads, sans verrou, pendant que l'arbre continue d'être modifié. Les
+ * écritures sur l'arbre lui-même sont synchronisées entre elles.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ARNPersistant<E> extends AbstractSet<E> {
+	/**
+	 * Hauteur maximale d'un arbre rouge-noir de moins de 2^31 éléments, qui
+	 * dimensionne la pile des itérateurs
+	 */
+	private static final int HAUTEUR_MAX = 64;
+
+	private volatile Noeud<E> racine;
+	private final Comparator<? super E> cmp;
+
+	/**
+	 * Noeud immuable. Les feuilles sont représentées par null, qui est noir.
+	 */
+	private static final class Noeud<E> {
+		final E cle;
+		final Noeud<E> gauche;
+		final Noeud<E> droit;
+		final boolean rouge;
+		final int taille;			// nombre de noeuds du sous-arbre enraciné ici
+
+		Noeud(E cle, Noeud<E> gauche, Noeud<E> droit, boolean rouge) {
+			this.cle = cle;
+			this.gauche = gauche;
+			this.droit = droit;
+			this.rouge = rouge;
+			this.taille = taille(gauche) + taille(droit) + 1;
+		}
+
+		Noeud<E> enNoir() {
+			return rouge ? new Noeud<>(cle, gauche, droit, false) : this;
+		}
+
+		Noeud<E> enRouge() {
+			return rouge ? this : new Noeud<>(cle, gauche, droit, true);
+		}
+	}
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public ARNPersistant() {
+		this(Chargement.ORDRE_NATUREL);
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public ARNPersistant(Comparator<? super E> cmp) {
+		this.cmp = cmp;
+	}
+
+	/**
+	 * Constructeur par recopie. Crée un arbre qui contient les mêmes éléments
+	 * que c. L'ordre des éléments est l'ordre naturel.
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public ARNPersistant(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	/**
+	 * Renvoie en O(1) une vue immuable du contenu actuel de l'arbre. Les
+	 * modifications ultérieures de l'arbre n'y apparaissent pas ; la vue peut
+	 * être lue par plusieurs threads sans synchronisation.
+	 *
+	 * @return la vue figée, qui refuse toute modification
+	 */
+	public Collection<E> snapshot() {
+		return new Instantane<>(racine, cmp);
+	}
+
+	/**
+	 * Le parcours porte sur la version de l'arbre au moment de l'appel : il
+	 * n'est pas perturbé par les modifications faites pendant le parcours.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new ARNPersistantIterator<E>(racine) {
+			@Override
+			public void remove() {
+				ARNPersistant.this.remove(dernier());
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return taille(racine);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o != null && rechercher(racine, o, cmp) != null;
+	}
+
+	@Override
+	public synchronized void clear() {
+		racine = null;
+	}
+
+	@Override
+	public synchronized boolean add(E e) {
+		if(e == null) {
+			return false;
+		}
+		Noeud<E> r = racine;
+		Noeud<E> nouvelle = inserer(r, e);
+		if(nouvelle == r) {
+			return false;
+		}
+		racine = nouvelle.enNoir();
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized boolean remove(Object o) {
+		if(o == null || rechercher(racine, o, cmp) == null) {
+			return false;
+		}
+		Noeud<E> r = supprimer(racine, (E) o);
+		racine = r == null ? null : r.enNoir();
+		return true;
+	}
+
+	// Quelques méthodes utiles
+
+	private static int taille(Noeud<?> x) {
+		return x == null ? 0 : x.taille;
+	}
+
+	private static boolean rouge(Noeud<?> x) {
+		return x != null && x.rouge;
+	}
+
+	private static boolean noir(Noeud<?> x) {
+		return x != null && !x.rouge;
+	}
+
+	private static <E> Noeud<E> rouge(E cle, Noeud<E> gauche, Noeud<E> droit) {
+		return new Noeud<>(cle, gauche, droit, true);
+	}
+
+	private static <E> Noeud<E> noir(E cle, Noeud<E> gauche, Noeud<E> droit) {
+		return new Noeud<>(cle, gauche, droit, false);
+	}
+
+	/**
+	 * Renvoie le noeud du sous-arbre x qui contient la clé o, null s'il n'y
+	 * en a pas. o est supposé comparable aux clés, comme pour
+	 * {@link java.util.TreeSet#contains(Object)}.
+	 */
+	private static <E> Noeud<E> rechercher(Noeud<E> x, Object o, Comparator<? super E> cmp) {
+		@SuppressWarnings("unchecked")
+		E e = (E) o;
+		while(x != null) {
+			int c = cmp.compare(e, x.cle);
+			if(c == 0) {
+				return x;
+			}
+			x = c < 0 ? x.gauche : x.droit;
+		}
+		return null;
+	}
+
+	// Ajout (Okasaki)
+
+	/**
+	 * Renvoie le sous-arbre x dans lequel e a été inséré, ou x lui-même si e
+	 * y est déjà : rien n'est alors recopié
+	 */
+	private Noeud<E> inserer(Noeud<E> x, E e) {
+		if(x == null) {
+			return rouge(e, null, null);
+		}
+		int c = cmp.compare(e, x.cle);
+		if(c < 0) {
+			Noeud<E> g = inserer(x.gauche, e);
+			return g == x.gauche ? x : equilibrerGauche(x.rouge, x.cle, g, x.droit);
+		}
+		if(c > 0) {
+			Noeud<E> d = inserer(x.droit, e);
+			return d == x.droit ? x : equilibrerDroite(x.rouge, x.cle, x.gauche, d);
+		}
+		return x;
+	}
+
+	/**
+	 * Reconstruit un noeud dont le fils gauche vient d'être modifié et peut
+	 * être rouge avec un fils rouge
+	 */
+	private static <E> Noeud<E> equilibrerGauche(boolean estRouge, E z, Noeud<E> l, Noeud<E> d) {
+		if(rouge(l) && rouge(l.gauche)) {
+			return rouge(l.cle, l.gauche.enNoir(), noir(z, l.droit, d));
+		}
+		if(rouge(l) && rouge(l.droit)) {
+			return rouge(l.droit.cle, noir(l.cle, l.gauche, l.droit.gauche), noir(z, l.droit.droit, d));
+		}
+		return new Noeud<>(z, l, d, estRouge);
+	}
+
+	/**
+	 * Reconstruit un noeud dont le fils droit vient d'être modifié et peut
+	 * être rouge avec un fils rouge
+	 */
+	private static <E> Noeud<E> equilibrerDroite(boolean estRouge, E x, Noeud<E> a, Noeud<E> r) {
+		if(rouge(r) && rouge(r.gauche)) {
+			return rouge(r.gauche.cle, noir(x, a, r.gauche.gauche), noir(r.cle, r.gauche.droit, r.droit));
+		}
+		if(rouge(r) && rouge(r.droit)) {
+			return rouge(r.cle, noir(x, a, r.gauche), r.droit.enNoir());
+		}
+		return new Noeud<>(x, a, r, estRouge);
+	}
+
+	// Suppression (Kahrs)
+
+	/**
+	 * Supprime e, présent dans le sous-arbre x. La racine renvoyée peut être
+	 * rouge : l'appelant la noircit.
+	 */
+	private Noeud<E> supprimer(Noeud<E> x, E e) {
+		int c = cmp.compare(e, x.cle);
+		if(c < 0) {
+			Noeud<E> g = supprimer(x.gauche, e);
+			return noir(x.gauche) ? reequilibrerGauche(x.cle, g, x.droit) : rouge(x.cle, g, x.droit);
+		}
+		if(c > 0) {
+			Noeud<E> d = supprimer(x.droit, e);
+			return noir(x.droit) ? reequilibrerDroite(x.cle, x.gauche, d) : rouge(x.cle, x.gauche, d);
+		}
+		return fusionner(x.gauche, x.droit);
+	}
+
+	/**
+	 * Reconstruit un noeud dont le sous-arbre gauche a perdu un niveau noir
+	 */
+	private static <E> Noeud<E> reequilibrerGauche(E x, Noeud<E> g, Noeud<E> d) {
+		if(rouge(g)) {
+			return rouge(x, g.enNoir(), d);
+		}
+		if(noir(d)) {
+			return equilibrer(x, g, d.enRouge());
+		}
+		// d est rouge et son fils gauche est noir
+		return rouge(d.gauche.cle, noir(x, g, d.gauche.gauche),
+				equilibrer(d.cle, d.gauche.droit, d.droit.enRouge()));
+	}
+
+	/**
+	 * Reconstruit un noeud dont le sous-arbre droit a perdu un niveau noir
+	 */
+	private static <E> Noeud<E> reequilibrerDroite(E x, Noeud<E> g, Noeud<E> d) {
+		if(rouge(d)) {
+			return rouge(x, g, d.enNoir());
+		}
+		if(noir(g)) {
+			return equilibrer(x, g.enRouge(), d);
+		}
+		// g est rouge et son fils droit est noir
+		return rouge(g.droit.cle, equilibrer(g.cle, g.gauche.enRouge(), g.droit.gauche),
+				noir(x, g.droit.droit, d));
+	}
+
+	/**
+	 * Construit un noeud noir de fils g et d en corrigeant un éventuel
+	 * enchaînement de deux rouges dans l'un des fils
+	 */
+	private static <E> Noeud<E> equilibrer(E x, Noeud<E> g, Noeud<E> d) {
+		if(rouge(g)) {
+			if(rouge(d)) {
+				return rouge(x, g.enNoir(), d.enNoir());
+			}
+			if(rouge(g.gauche)) {
+				return rouge(g.cle, g.gauche.enNoir(), noir(x, g.droit, d));
+			}
+			if(rouge(g.droit)) {
+				return rouge(g.droit.cle, noir(g.cle, g.gauche, g.droit.gauche), noir(x, g.droit.droit, d));
+			}
+		} else if(rouge(d)) {
+			if(rouge(d.droit)) {
+				return rouge(d.cle, noir(x, g, d.gauche), d.droit.enNoir());
+			}
+			if(rouge(d.gauche)) {
+				return rouge(d.gauche.cle, noir(x, g, d.gauche.gauche), noir(d.cle, d.gauche.droit, d.droit));
+			}
+		}
+		return noir(x, g, d);
+	}
+
+	/**
+	 * Fusionne les deux fils d'un noeud supprimé, toutes les clés de g
+	 * précédant celles de d
+	 */
+	private static <E> Noeud<E> fusionner(Noeud<E> g, Noeud<E> d) {
+		if(g == null) {
+			return d;
+		}
+		if(d == null) {
+			return g;
+		}
+		if(g.rouge && d.rouge) {
+			Noeud<E> m = fusionner(g.droit, d.gauche);
+			if(rouge(m)) {
+				return rouge(m.cle, rouge(g.cle, g.gauche, m.gauche), rouge(d.cle, m.droit, d.droit));
+			}
+			return rouge(g.cle, g.gauche, rouge(d.cle, m, d.droit));
+		}
+		if(!g.rouge && !d.rouge) {
+			Noeud<E> m = fusionner(g.droit, d.gauche);
+			if(rouge(m)) {
+				return rouge(m.cle, noir(g.cle, g.gauche, m.gauche), noir(d.cle, m.droit, d.droit));
+			}
+			return reequilibrerGauche(g.cle, g.gauche, noir(d.cle, m, d.droit));
+		}
+		if(d.rouge) {
+			return rouge(d.cle, fusionner(g, d.gauche), d.droit);
+		}
+		return rouge(g.cle, g.gauche, fusionner(g.droit, d));
+	}
+
+	/**
+	 * Vue figée renvoyée par {@link ARNPersistant#snapshot()}
+	 */
+	private static final class Instantane<E> extends AbstractSet<E> {
+		private final Noeud<E> racine;
+		private final Comparator<? super E> cmp;
+
+		Instantane(Noeud<E> racine, Comparator<? super E> cmp) {
+			this.racine = racine;
+			this.cmp = cmp;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ARNPersistantIterator<>(racine);
+		}
+
+		@Override
+		public int size() {
+			return taille(racine);
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o != null && rechercher(racine, o, cmp) != null;
+		}
+	}
+
+	/**
+	 * Parcours infixe avec une pile explicite : les noeuds n'ont pas de père.
+	 * La pile contient les ancêtres dont le sous-arbre droit reste à
+	 * parcourir.
+	 */
+	private static class ARNPersistantIterator<E> implements Iterator<E> {
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private final Noeud<E>[] pile = new Noeud[HAUTEUR_MAX];
+		private int sommet;
+		private Noeud<E> courant;
+
+		ARNPersistantIterator(Noeud<E> racine) {
+			descendre(racine);
+		}
+
+		private void descendre(Noeud<E> x) {
+			while(x != null) {
+				pile[sommet++] = x;
+				x = x.gauche;
+			}
+		}
+
+		public boolean hasNext() {
+			return sommet > 0;
+		}
+
+		public E next() {
+			if(sommet == 0) {
+				throw new NoSuchElementException();
+			}
+			courant = pile[--sommet];
+			descendre(courant.droit);
+			return courant.cle;
+		}
+
+		E dernier() {
+			if(courant == null) {
+				throw new IllegalStateException();
+			}
+			E e = courant.cle;
+			courant = null;
+			return e;
+		}
+	}
+}
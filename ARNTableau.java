@@ -0,0 +1,486 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre rouge-noir dont les noeuds ne sont pas des objets mais des indices
+ * dans des tableaux parallèles : clés, fils gauche, fils droit, père et un
+ * bit de couleur par noeud (rangés par 64 dans un long). L'indice 0 joue le
+ * rôle de la sentinelle de {@link ARN}.
+ * </p>
+ *
+ * <p>
+ * L'arbre n'alloue donc que quelques grands tableaux au lieu d'un objet par
+ * élément : le ramasse-miettes n'a presque rien à parcourir et les noeuds
+ * voisins dans les tableaux restent proches en mémoire. Les cases libérées
+ * par une suppression sont chaînées dans une liste libre et réutilisées par
+ * les ajouts suivants.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ARNTableau<E> extends AbstractCollection<E> {
+	private static final int SENTINELLE = 0;
+	private static final int CAPACITE_INITIALE = 16;
+
+	private Object[] cles;
+	private int[] gauche;
+	private int[] droit;
+	private int[] pere;
+	private long[] rouges;		// bit i à 1 si le noeud i est rouge
+
+	private int racine;
+	private int taille;
+	private int libre;			// tête de la liste des cases libérées, chaînées par gauche
+	private int prochain;		// première case jamais utilisée
+	private Comparator<? super E> cmp;
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public ARNTableau() {
+		this(Chargement.ORDRE_NATUREL);
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public ARNTableau(Comparator<? super E> cmp) {
+		this.cmp = cmp;
+		allouer(CAPACITE_INITIALE);
+	}
+
+	/**
+	 * Constructeur par recopie. Crée un arbre qui contient les mêmes éléments
+	 * que c. L'ordre des éléments est l'ordre naturel.
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public ARNTableau(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	private void allouer(int capacite) {
+		cles = new Object[capacite];
+		gauche = new int[capacite];
+		droit = new int[capacite];
+		pere = new int[capacite];
+		rouges = new long[(capacite + 63) >>> 6];
+		racine = SENTINELLE;
+		taille = 0;
+		libre = SENTINELLE;
+		prochain = 1;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new ARNTableauIterator();
+	}
+
+	@Override
+	public int size() {
+		return taille;
+	}
+
+	@Override
+	public void clear() {
+		allouer(CAPACITE_INITIALE);
+	}
+
+	public int hauteur() {
+		return hauteur(racine);
+	}
+
+	private int hauteur(int r) {
+		if(r == SENTINELLE) {
+			return 0;
+		}
+		return Math.max(hauteur(gauche[r]), hauteur(droit[r])) + 1;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o != null && rechercher(o) != SENTINELLE;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if(o == null) {
+			return false;
+		}
+		int z = rechercher(o);
+		if(z == SENTINELLE) {
+			return false;
+		}
+		supprimer(z);
+		return true;
+	}
+
+	@Override
+	public boolean add(E e) {
+		if(e == null) return false;
+		int y = SENTINELLE;
+		int x = racine;
+		int c = 0;
+		while(x != SENTINELLE) {
+			c = cmp.compare(e, cle(x));
+			if(c == 0) {
+				return false;
+			}
+			y = x;
+			x = c < 0 ? gauche[x] : droit[x];
+		}
+		int z = nouveauNoeud(e);
+		pere[z] = y;
+		if(y == SENTINELLE) {
+			racine = z;
+		} else if(c < 0) {
+			gauche[y] = z;
+		} else {
+			droit[y] = z;
+		}
+		taille++;
+		ajouterCorrection(z);
+		return true;
+	}
+
+	// Gestion des cases
+
+	/**
+	 * Réserve une case pour un nouveau noeud rouge sans fils, en priorité
+	 * dans la liste libre, sinon à la fin des tableaux qui sont agrandis si
+	 * besoin
+	 */
+	private int nouveauNoeud(E e) {
+		int z;
+		if(libre != SENTINELLE) {
+			z = libre;
+			libre = gauche[z];
+		} else {
+			if(prochain == cles.length) {
+				agrandir();
+			}
+			z = prochain++;
+		}
+		cles[z] = e;
+		gauche[z] = SENTINELLE;
+		droit[z] = SENTINELLE;
+		pere[z] = SENTINELLE;
+		colorer(z, true);
+		return z;
+	}
+
+	private void liberer(int z) {
+		cles[z] = null;
+		gauche[z] = libre;
+		libre = z;
+	}
+
+	private void agrandir() {
+		int capacite = cles.length + (cles.length >> 1);
+		cles = Arrays.copyOf(cles, capacite);
+		gauche = Arrays.copyOf(gauche, capacite);
+		droit = Arrays.copyOf(droit, capacite);
+		pere = Arrays.copyOf(pere, capacite);
+		rouges = Arrays.copyOf(rouges, (capacite + 63) >>> 6);
+	}
+
+	/**
+	 * La clé du noeud x : cles ne contient que des E
+	 */
+	@SuppressWarnings("unchecked")
+	private E cle(int x) {
+		return (E) cles[x];
+	}
+
+	private boolean rouge(int x) {
+		return (rouges[x >>> 6] & (1L << x)) != 0;
+	}
+
+	private void colorer(int x, boolean rouge) {
+		if(rouge) {
+			rouges[x >>> 6] |= 1L << x;
+		} else {
+			rouges[x >>> 6] &= ~(1L << x);
+		}
+	}
+
+	// Quelques méthodes utiles
+
+	private int rechercher(Object o) {
+		@SuppressWarnings("unchecked")
+		E e = (E) o;
+		int x = racine;
+		while(x != SENTINELLE) {
+			int c = cmp.compare(e, cle(x));
+			if(c == 0) {
+				return x;
+			}
+			x = c < 0 ? gauche[x] : droit[x];
+		}
+		return x;
+	}
+
+	private int minimum(int x) {
+		while(gauche[x] != SENTINELLE) {
+			x = gauche[x];
+		}
+		return x;
+	}
+
+	private int suivant(int x) {
+		if(droit[x] != SENTINELLE) {
+			return minimum(droit[x]);
+		}
+		int y = pere[x];
+		while(y != SENTINELLE && x == droit[y]) {
+			x = y;
+			y = pere[y];
+		}
+		return y;
+	}
+
+	/**
+	 * Supprime le noeud z et libère sa case
+	 *
+	 * @return le noeud qui suit z dans l'ordre des clés
+	 */
+	private int supprimer(int z) {
+		int suivant = suivant(z);
+		int y = z;
+		boolean yRouge = rouge(y);
+		int x;
+
+		if(gauche[z] == SENTINELLE) {
+			x = droit[z];
+			transplanter(z, droit[z]);
+		} else if(droit[z] == SENTINELLE) {
+			x = gauche[z];
+			transplanter(z, gauche[z]);
+		} else {
+			y = suivant;
+			yRouge = rouge(y);
+			x = droit[y];
+			if(pere[y] == z) {
+				pere[x] = y;
+			} else {
+				transplanter(y, droit[y]);
+				droit[y] = droit[z];
+				pere[droit[y]] = y;
+			}
+			transplanter(z, y);
+			gauche[y] = gauche[z];
+			pere[gauche[y]] = y;
+			colorer(y, rouge(z));
+		}
+		taille--;
+		if(!yRouge) {
+			supprimerCorrection(x);
+		}
+		liberer(z);
+		return suivant;
+	}
+
+	private void transplanter(int u, int v) {
+		if(pere[u] == SENTINELLE) {
+			racine = v;
+		} else if(u == gauche[pere[u]]) {
+			gauche[pere[u]] = v;
+		} else {
+			droit[pere[u]] = v;
+		}
+		pere[v] = pere[u];
+	}
+
+	private void ajouterCorrection(int z) {
+		int y;
+		while(rouge(pere[z])) {
+			int p = pere[z];
+			int g = pere[p];
+			if(p == gauche[g]) {
+				y = droit[g]; // l'oncle de z
+				if(rouge(y)) {
+					// cas 1
+					colorer(p, false);
+					colorer(y, false);
+					colorer(g, true);
+					z = g;
+				} else {
+					if(z == droit[p]) {
+						// cas 2
+						z = p;
+						rotationGauche(z);
+					}
+					// cas 3
+					colorer(pere[z], false);
+					colorer(pere[pere[z]], true);
+					rotationDroite(pere[pere[z]]);
+				}
+			} else {
+				y = gauche[g]; // l'oncle de z
+				if(rouge(y)) {
+					// cas 1
+					colorer(p, false);
+					colorer(y, false);
+					colorer(g, true);
+					z = g;
+				} else {
+					if(z == gauche[p]) {
+						// cas 2
+						z = p;
+						rotationDroite(z);
+					}
+					// cas 3
+					colorer(pere[z], false);
+					colorer(pere[pere[z]], true);
+					rotationGauche(pere[pere[z]]);
+				}
+			}
+		}
+		colorer(racine, false);
+	}
+
+	private void supprimerCorrection(int x) {
+		int w;
+		while(x != racine && !rouge(x)) {
+			int p = pere[x];
+			if(x == gauche[p]) {
+				w = droit[p]; // le frère de x
+				if(rouge(w)) {
+					// cas 1
+					colorer(w, false);
+					colorer(p, true);
+					rotationGauche(p);
+					w = droit[p];
+				}
+				if(!rouge(gauche[w]) && !rouge(droit[w])) {
+					// cas 2
+					colorer(w, true);
+					x = p;
+				} else {
+					if(!rouge(droit[w])) {
+						// cas 3
+						colorer(gauche[w], false);
+						colorer(w, true);
+						rotationDroite(w);
+						w = droit[p];
+					}
+					// cas 4
+					colorer(w, rouge(p));
+					colorer(p, false);
+					colorer(droit[w], false);
+					rotationGauche(p);
+					x = racine;
+				}
+			} else {
+				w = gauche[p]; // le frère de x
+				if(rouge(w)) {
+					// cas 1
+					colorer(w, false);
+					colorer(p, true);
+					rotationDroite(p);
+					w = gauche[p];
+				}
+				if(!rouge(gauche[w]) && !rouge(droit[w])) {
+					// cas 2
+					colorer(w, true);
+					x = p;
+				} else {
+					if(!rouge(gauche[w])) {
+						// cas 3
+						colorer(droit[w], false);
+						colorer(w, true);
+						rotationGauche(w);
+						w = gauche[p];
+					}
+					// cas 4
+					colorer(w, rouge(p));
+					colorer(p, false);
+					colorer(gauche[w], false);
+					rotationDroite(p);
+					x = racine;
+				}
+			}
+		}
+		colorer(x, false);
+	}
+
+	private void rotationGauche(int x) {
+		int y = droit[x];
+		droit[x] = gauche[y];
+		if(gauche[y] != SENTINELLE) {
+			pere[gauche[y]] = x;
+		}
+		pere[y] = pere[x];
+		if(pere[x] == SENTINELLE) {
+			racine = y;
+		} else if(x == gauche[pere[x]]) {
+			gauche[pere[x]] = y;
+		} else {
+			droit[pere[x]] = y;
+		}
+		gauche[y] = x;
+		pere[x] = y;
+	}
+
+	private void rotationDroite(int x) {
+		int y = gauche[x];
+		gauche[x] = droit[y];
+		if(droit[y] != SENTINELLE) {
+			pere[droit[y]] = x;
+		}
+		pere[y] = pere[x];
+		if(pere[x] == SENTINELLE) {
+			racine = y;
+		} else if(x == droit[pere[x]]) {
+			droit[pere[x]] = y;
+		} else {
+			gauche[pere[x]] = y;
+		}
+		droit[y] = x;
+		pere[x] = y;
+	}
+
+	/**
+	 * Parcourt les éléments dans l'ordre à l'aide de {@link #minimum(int)} et
+	 * {@link #suivant(int)}
+	 */
+	private class ARNTableauIterator implements Iterator<E> {
+		int courant;
+		int suivant;
+
+		ARNTableauIterator() {
+			this.courant = SENTINELLE;
+			this.suivant = minimum(racine);
+		}
+
+		public boolean hasNext() {
+			return suivant != SENTINELLE;
+		}
+
+		public E next() {
+			if(suivant == SENTINELLE) {
+				throw new NoSuchElementException();
+			}
+			courant = suivant;
+			suivant = suivant(suivant);
+			return cle(courant);
+		}
+
+		public void remove() {
+			if(courant == SENTINELLE) {
+				throw new IllegalStateException();
+			}
+			suivant = supprimer(courant);
+			courant = SENTINELLE;
+		}
+	}
+}
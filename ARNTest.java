@@ -1,6 +1,20 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.PrimitiveIterator;
 import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 //Code réalisé en binôme : Deveaux Julien et Lemesle Justine.
 
 
@@ -17,10 +31,58 @@ public class ARNTest {
 		System.out.println("-------------------------------------------------------");
 		System.out.println("test addAll");testAddAll();
 		System.out.println("-------------------------------------------------------");
+		System.out.println("Construction en bloc");testConstructionEnBloc();
+		System.out.println("-------------------------------------------------------");
 		System.out.println("TEST 5 : Arbre équilibré");testCR();
 		System.out.println("-------------------------------------------------------");
 		System.out.println("Génération et suppresion de nombres aléatoires");TestAlea();
 		System.out.println("-------------------------------------------------------");
+		System.out.println("Rang et sélection");testRang();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre d'entiers primitifs");testIntARN();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre dans des tableaux");testTableau();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre hors du tas");testHorsTas();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Navigation et vues");testNavigation();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre partagé entre plusieurs threads");testConcurrent();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre persistant et instantanés");testPersistant();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Flux parallèle");testFluxParallele();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Union, intersection et différences");testEnsembles();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Mesures");testMetriques();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Ajout en une descente");testAjoutUnique();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Doigt et curseur");testCurseur();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Sauvegarde binaire");testSauvegarde();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Journal durable");testDurable();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Table associative");testMap();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Multi-ensemble");testMultiset();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Agrégats par intervalle");testAgregats();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre d'intervalles");testIntervalles();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Export DOT et JSON");testExport();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Statistiques de forme");testStats();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Moteurs d'équilibrage");testMoteurs();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Arbre B+");testBPlus();
+		System.out.println("-------------------------------------------------------");
+		System.out.println("Parcours internes");testParcours();
+		System.out.println("-------------------------------------------------------");
 
 	}
 
@@ -157,6 +219,45 @@ public class ARNTest {
 		System.out.println(arn);
 	}
 
+	static void testConstructionEnBloc() {
+		Random r = new Random(3);
+		ArrayList<Integer> liste = new ArrayList<>();
+		for(int i = 0; i < 5000; i++) {
+			liste.add(r.nextInt(10000) - 5000);
+		}
+		TreeSet<Integer> attendu = new TreeSet<>(liste);
+		ARN<Integer> parListe = new ARN<>(liste);
+		System.out.println("ARN(Collection) non triée, avec doublons : " + parListe.size() + " éléments, identique à TreeSet : "
+			+ parListe.equals(attendu) + ", dans l'ordre : " + new ArrayList<>(parListe).equals(new ArrayList<>(attendu))
+			+ ", hauteur noire : " + parListe.stats().blackHeight());
+
+		TreeSet<Integer> decroissant = new TreeSet<>(Comparator.reverseOrder());
+		decroissant.addAll(attendu);
+		ARN<Integer> parEnsembleTrie = new ARN<>(decroissant);
+		System.out.println("ARN(SortedSet) décroissant : premier " + parEnsembleTrie.first() + ", dernier "
+			+ parEnsembleTrie.last() + ", dans l'ordre : " + new ArrayList<>(parEnsembleTrie).equals(new ArrayList<>(decroissant))
+			+ ", hauteur noire : " + parEnsembleTrie.stats().blackHeight());
+
+		ARN<Integer> fusion = new ARN<>();
+		for(int i = 0; i < 1000; i++) {
+			fusion.add(2 * i);
+		}
+		ArrayList<Integer> lot = new ArrayList<>();
+		for(int i = 1999; i >= 0; i--) {
+			lot.add(3 * i);
+		}
+		TreeSet<Integer> union = new TreeSet<>(fusion);
+		union.addAll(lot);
+		System.out.println("addAll d'un gros lot dans un arbre non vide : modifié " + fusion.addAll(lot) + ", "
+			+ fusion.size() + " éléments, dans l'ordre : " + new ArrayList<>(fusion).equals(new ArrayList<>(union))
+			+ ", hauteur noire : " + fusion.stats().blackHeight());
+		System.out.println("addAll d'un lot déjà présent : modifié " + fusion.addAll(lot));
+		fusion.remove(0);
+		fusion.add(-1);
+		System.out.println("après remove(0) et add(-1) : premier " + fusion.first() + ", contient 0 : " + fusion.contains(0)
+			+ ", hauteur noire : " + fusion.stats().blackHeight());
+	}
+
 	static void testCR(){
 		ARN<Integer> arn = new ARN<>();
 		arn.add(15);
@@ -184,4 +285,432 @@ public class ARNTest {
 		System.out.println("taille (nb de noeuds) : " + arn.size());
 		System.out.println("hauteur max de l'arbre : " + arn.hauteur());
 	}
+
+	static void testRang() {
+		ARN<Integer> arn = new ARN<>();
+		for(int i = 0; i < 20; i++) {
+			arn.add(i * 10);
+		}
+		System.out.println("taille : " + arn.size());
+		System.out.println("Élément de rang 0 : " + arn.select(0));
+		System.out.println("Élément de rang 7 : " + arn.select(7));
+		System.out.println("Rang de 70 : " + arn.rank(70));
+		System.out.println("Rang de 75 (absent) : " + arn.rank(75));
+		System.out.println("Nombre d'éléments dans [50, 120[ : " + arn.countRange(50, 120));
+		arn.remove(60);
+		System.out.println("Après suppression de 60, élément de rang 6 : " + arn.select(6));
+		System.out.println("taille : " + arn.size());
+	}
+
+	static void testIntARN() {
+		IntARN arn = new IntARN(34, 56, 76, 22, 0, 80, 79, 135, 56);
+		System.out.println("taille : " + arn.size() + ", hauteur : " + arn.hauteur());
+		arn.remove(80);
+		System.out.println("contient 80 : " + arn.contains(80) + ", contient 79 : " + arn.contains(79));
+		PrimitiveIterator.OfInt it = arn.iterator();
+		while(it.hasNext()) {
+			System.out.print(it.nextInt() + " ");
+		}
+		System.out.println();
+	}
+
+	static void testTableau() {
+		ARNTableau<Integer> arn = new ARNTableau<>();
+		for(int i = 0; i < 1000; i++) {
+			arn.add((i * 37) % 1000);
+		}
+		System.out.println("ajout de 56 déjà présent : " + arn.add(56));
+		System.out.println("taille : " + arn.size() + ", hauteur : " + arn.hauteur());
+		for(int i = 0; i < 1000; i += 2) {
+			arn.remove(i);
+		}
+		System.out.println("après suppression des pairs, taille : " + arn.size() + ", hauteur : " + arn.hauteur()
+			+ ", contient 40 : " + arn.contains(40) + ", contient 41 : " + arn.contains(41));
+		Iterator<Integer> it = arn.iterator();
+		while(it.hasNext()) {
+			if(it.next() % 3 != 0) {
+				it.remove();
+			}
+		}
+		System.out.println("après suppression par l'itérateur des non multiples de 3 : " + arn.size() + " éléments, "
+			+ "de " + arn.iterator().next() + " à 999, hauteur : " + arn.hauteur());
+		arn.add(2);
+		System.out.println("réutilisation d'une case libérée, ajout de 2 : contient 2 : " + arn.contains(2)
+			+ ", taille : " + arn.size());
+	}
+
+	static void testHorsTas() {
+		ARNHorsTas<Long> ferme;
+		try(ARNHorsTas<Long> arn = new ARNHorsTas<>(KeyCodec.LONG)) {
+			ferme = arn;
+			// les clés de -50000 à 49999, dans le désordre
+			for(long i = 0; i < 100000; i++) {
+				arn.add(i * 7919 % 100000 - 50000);
+			}
+			System.out.println("taille : " + arn.tailleLongue() + ", mémoire réservée : " + arn.memoireReservee()
+				+ " octets, ajout de 0 déjà présent : " + arn.add(0L));
+			for(long i = -50000; i < 50000; i += 2) {
+				arn.remove(i);
+			}
+			System.out.println("après suppression des pairs, taille : " + arn.size() + ", contient -3 : "
+				+ arn.contains(-3L) + ", contient -4 : " + arn.contains(-4L));
+			Iterator<Long> it = arn.iterator();
+			long precedent = Long.MIN_VALUE;
+			boolean croissant = true;
+			while(it.hasNext()) {
+				long cle = it.next();
+				croissant &= cle > precedent;
+				precedent = cle;
+				if(cle > -49990) {
+					it.remove();
+				}
+			}
+			System.out.println("parcours croissant, négatifs en tête : " + croissant + ", restent après suppression"
+				+ " par l'itérateur : " + arn);
+		}
+		try {
+			ferme.contains(-49999L);
+		} catch(IllegalStateException e) {
+			System.out.println("après close() : " + e.getMessage());
+		}
+	}
+
+	static void testNavigation() {
+		ARN<Integer> arn = new ARN<>();
+		for(int i = 0; i < 20; i++) {
+			arn.add(i * 10);
+		}
+		System.out.println("floor(75) : " + arn.floor(75) + ", ceiling(75) : " + arn.ceiling(75));
+		System.out.println("lower(70) : " + arn.lower(70) + ", higher(70) : " + arn.higher(70));
+		System.out.println("first : " + arn.first() + ", last : " + arn.last());
+		NavigableSet<Integer> vue = arn.subSet(40, true, 100, false);
+		System.out.println("subSet [40, 100[ : " + vue + ", taille : " + vue.size());
+		System.out.println("headSet(30) décroissant : " + arn.headSet(30, true).descendingSet());
+		vue.remove(50);
+		System.out.println("Après suppression de 50 dans la vue, contient 50 : " + arn.contains(50));
+		System.out.println("pollFirst : " + arn.pollFirst() + ", pollLast : " + arn.pollLast());
+		System.out.println("taille : " + arn.size());
+	}
+
+	static void testConcurrent() {
+		ConcurrentARN<Integer> arn = new ConcurrentARN<>();
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			int debut = t * 5;
+			threads[t] = new Thread(() -> {
+				for(int i = debut; i < debut + 5; i++) {
+					arn.add(i);
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread t : threads) {
+			try {
+				t.join();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		System.out.println("taille : " + arn.size() + ", contient 12 : " + arn.contains(12));
+		System.out.println("ceiling(7) : " + arn.ceiling(7) + ", contenu : " + arn);
+	}
+
+	static void testPersistant() {
+		ARNPersistant<Integer> arn = new ARNPersistant<>();
+		for(int i = 0; i < 10; i++) {
+			arn.add(i);
+		}
+		Collection<Integer> instantane = arn.snapshot();
+		arn.remove(3);
+		arn.add(42);
+		System.out.println("arbre : " + arn);
+		System.out.println("instantané : " + instantane + ", taille : " + instantane.size());
+	}
+
+	static void testFluxParallele() {
+		ARN<Integer> arn = new ARN<>();
+		for(int i = 1; i <= 1000; i++) {
+			arn.add(i);
+		}
+		System.out.println("somme de 1 à 1000 : " + arn.parallelStream().mapToLong(i -> i).sum());
+		System.out.println("pairs de [10, 20[ : " + arn.subSet(10, 20).parallelStream()
+			.filter(i -> i % 2 == 0).collect(Collectors.toList()));
+	}
+
+	static void testEnsembles() {
+		ARN<Integer> pairs = new ARN<>();
+		ARN<Integer> multiplesDe3 = new ARN<>();
+		for(int i = 0; i < 20; i++) {
+			if(i % 2 == 0) {
+				pairs.add(i);
+			}
+			if(i % 3 == 0) {
+				multiplesDe3.add(i);
+			}
+		}
+		System.out.println("union : " + pairs.union(multiplesDe3));
+		System.out.println("intersection : " + pairs.intersection(multiplesDe3));
+		System.out.println("différence : " + pairs.difference(multiplesDe3));
+		System.out.println("différence symétrique : " + pairs.symmetricDifference(multiplesDe3));
+		pairs.removeAll(multiplesDe3);
+		System.out.println("pairs après removeAll : " + pairs + ", contient tout [2, 4] : "
+			+ pairs.containsAll(new ARN<>(Arrays.asList(2, 4))));
+	}
+
+	static void testMetriques() {
+		ARN<Integer> arn = new ARN<>();
+		ARNCompteurs compteurs = new ARNCompteurs();
+		arn.setMetriques(compteurs);
+		Random r = new Random(1);
+		for(int i = 0; i < 1000; i++) {
+			arn.add(r.nextInt(2000));
+		}
+		for(int i = 0; i < 500; i++) {
+			arn.remove(r.nextInt(2000));
+			arn.contains(r.nextInt(2000));
+		}
+		System.out.println(compteurs);
+		System.out.println("profondeur moyenne : " + compteurs.getProfondeurMoyenne()
+			+ ", cas de correction après ajout : " + Arrays.toString(compteurs.getCasAjout()));
+	}
+
+	static void testAjoutUnique() {
+		ARN<String> noms = new ARN<>();
+		String a = new String("julien");
+		String b = new String("julien");
+		System.out.println("addIfAbsent(a) : " + noms.addIfAbsent(a) + ", addIfAbsent(b) : " + noms.addIfAbsent(b));
+		System.out.println("getOrAdd(b) renvoie a : " + (noms.getOrAdd(b) == a));
+		System.out.println("computeIfAbsent(\"justine\") : " + noms.computeIfAbsent("justine", () -> "justine"));
+		System.out.println("contenu : " + noms.size() + " éléments");
+	}
+
+	static void testCurseur() {
+		ARN<Integer> arn = new ARN<>();
+		ARNCompteurs compteurs = new ARNCompteurs();
+		arn.setMetriques(compteurs);
+		for(int i = 0; i < 10000; i++) {
+			arn.add(i);
+		}
+		System.out.println("clés croissantes, comparaisons par ajout : " + compteurs.getComparaisonsParOperation());
+		ARN<Integer>.Cursor curseur = arn.cursor();
+		System.out.println("seek(5000) : " + curseur.seek(5000) + ", get : " + curseur.get());
+		arn.remove(5001);
+		System.out.println("seek(5001) : " + curseur.seek(5001) + ", get : " + curseur.get());
+		curseur.insertAfter(5001);
+		System.out.println("après insertAfter(5001), next : " + curseur.next() + ", contient 5001 : " + arn.contains(5001));
+		arn.remove(5002);
+		try {
+			curseur.insertAfter(5002);
+		} catch(ConcurrentModificationException e) {
+			System.out.println("insertAfter après une suppression hors du curseur : " + e);
+		}
+		System.out.println("seek(5002) : " + curseur.seek(5002) + ", get : " + curseur.get());
+	}
+
+	static void testSauvegarde() {
+		ARN<Integer> arn = new ARN<>();
+		for(int i = -5; i < 10000; i += 3) {
+			arn.add(i);
+		}
+		try {
+			Path fichier = Files.createTempFile("arn", ".bin");
+			try(FileChannel canal = FileChannel.open(fichier, StandardOpenOption.WRITE)) {
+				arn.writeTo(canal, KeyCodec.INT);
+			}
+			ARN<Integer> relu;
+			try(FileChannel canal = FileChannel.open(fichier)) {
+				relu = ARN.readFrom(canal, KeyCodec.INT);
+			}
+			System.out.println("taille du fichier : " + Files.size(fichier) + " octets");
+			System.out.println("relu : " + relu.size() + " éléments, de " + relu.first() + " à " + relu.last()
+				+ ", identique : " + relu.equals(arn));
+			try(FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				canal.truncate(0);
+				ARN.readFrom(canal, KeyCodec.INT);
+			} catch(IOException e) {
+				System.out.println("fichier vide : " + e.getMessage() + ", taille après lecture : " + Files.size(fichier));
+			}
+			Files.delete(fichier);
+		} catch(IOException e) {
+			System.out.println("Erreur : " + e);
+		}
+	}
+
+	static void testDurable() {
+		try {
+			Path dossier = Files.createTempDirectory("arn");
+			try(ARNDurable<Long> arn = new ARNDurable<>(dossier, KeyCodec.LONG)) {
+				for(long i = 0; i < 1000; i++) {
+					arn.addAsync(i * 7);
+				}
+				arn.remove(0L);
+				arn.checkpoint();
+				arn.add(-1L);
+				arn.removeAll(Arrays.asList(7L, 14L, 21L));
+				arn.retainAll(new ARN<>(Arrays.asList(-1L, 28L, 35L, 42L)));
+			}
+			try(ARNDurable<Long> relu = new ARNDurable<>(dossier, KeyCodec.LONG)) {
+				System.out.println("relu : " + relu.size() + " éléments, contient -1 : " + relu.contains(-1L)
+					+ ", contient 0 : " + relu.contains(0L));
+				relu.clear();
+			}
+			try(DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier)) {
+				for(Path f : fichiers) {
+					Files.delete(f);
+				}
+			}
+			Files.delete(dossier);
+		} catch(IOException e) {
+			System.out.println("Erreur : " + e);
+		}
+	}
+
+	static void testMap() {
+		ARNMap<String, Integer> occurrences = new ARNMap<>();
+		for(String mot : "le chat et le chien et le rat".split(" ")) {
+			occurrences.merge(mot, 1, Integer::sum);
+		}
+		System.out.println(occurrences);
+		System.out.println("après \"et\" : " + occurrences.tailMap("et", false));
+		System.out.println("plus grand avant \"d\" : " + occurrences.floorEntry("d"));
+		System.out.println("ordre inverse : " + occurrences.descendingMap().keySet());
+	}
+
+	static void testMultiset() {
+		ARNMultiset<Integer> evenements = new ARNMultiset<>();
+		Random r = new Random(7);
+		for(int i = 0; i < 1000000; i++) {
+			evenements.add(r.nextInt(10));
+		}
+		evenements.add(42, 3);
+		evenements.remove(0, 1000000);
+		System.out.println(evenements.size() + " occurrences de " + evenements.elementSet().size()
+			+ " éléments distincts");
+		for(Integer e : evenements.elementSet()) {
+			System.out.print(e + "x" + evenements.count(e) + " ");
+		}
+		System.out.println();
+	}
+
+	static void testAgregats() {
+		ARNAgregeLong<Integer> sommes = new ARNAgregeLong<>(MonoideLong.somme(Integer::longValue));
+		ARNAgrege<Integer, Integer> maxima = new ARNAgrege<>(Monoide.maximum((Integer e) -> e % 100));
+		for(int i = 1; i <= 1000; i++) {
+			sommes.add(i);
+			maxima.add(i * 7);
+		}
+		sommes.remove(500);
+		System.out.println("somme de 1 à 1000 sans 500 : " + sommes.aggregate());
+		System.out.println("somme de 100 à 199 : " + sommes.aggregate(100, 199));
+		System.out.println("somme de ]490, 510[ : " + sommes.aggregate(490, false, 510, false));
+		System.out.println("plus grand reste modulo 100 dans [0, 50] : " + maxima.aggregate(0, 50));
+	}
+
+	static void testIntervalles() {
+		IntervalARN reunions = new IntervalARN();
+		reunions.add(900, 1000);
+		reunions.add(930, 1130);
+		reunions.add(1100, 1200);
+		reunions.add(1400, 1500);
+		reunions.add(800, 1700);
+		System.out.print("en cours à 1115 :");
+		for(Iterator<IntervalARN.Intervalle> it = reunions.stabbing(1115); it.hasNext(); ) {
+			System.out.print(" " + it.next());
+		}
+		System.out.println();
+		System.out.print("chevauchent [1200, 1400] :");
+		for(Iterator<IntervalARN.Intervalle> it = reunions.overlapping(1200, 1400); it.hasNext(); ) {
+			System.out.print(" " + it.next());
+		}
+		System.out.println();
+	}
+
+	static void testExport() {
+		ARN<Integer> arn = new ARN<>();
+		for(int i = 1; i <= 10; i++) {
+			arn.add(i);
+		}
+		try {
+			arn.dump(System.out, DumpOptions.texte().profondeurMax(2));
+			arn.dump(System.out, DumpOptions.dot().noeudsMax(3));
+			arn.dump(System.out, DumpOptions.json().profondeurMax(2));
+		} catch(IOException e) {
+			System.out.println("Erreur : " + e);
+		}
+	}
+
+	static void testStats() {
+		ARN<Integer> arn = new ARN<>();
+		ABR<Integer> abr = new ABR<>();
+		for(int i = 1; i <= 100000; i++) {
+			arn.add(i);
+			abr.add(i);
+		}
+		System.out.println("ARN : " + arn.stats());
+		System.out.println("ABR : " + abr.stats());
+	}
+
+	static void testMoteurs() {
+		for(Moteur m : Moteur.values()) {
+			ArbreOrdonne<Integer> t = m.creer();
+			for(int i = 1; i <= 1000; i++) {
+				t.add(i);
+			}
+			for(int i = 1; i <= 1000; i += 2) {
+				t.remove(i);
+			}
+			System.out.println(m + " : " + t.size() + " éléments de " + t.first() + " à " + t.last()
+				+ ", hauteur " + t.hauteur());
+		}
+	}
+
+	static void testBPlus() {
+		ArbreBPlus<Integer> t = new ArbreBPlus<>();
+		for(int i = 1; i <= 100000; i++) {
+			t.add(i);
+		}
+		for(int i = 1; i <= 100000; i += 2) {
+			t.remove(i);
+		}
+		long somme = 0;
+		for(int e : t) {
+			somme += e;
+		}
+		System.out.println(t.size() + " éléments sur " + t.hauteur() + " niveaux, somme " + somme);
+		System.out.println("contains(500) : " + t.contains(500) + ", contains(501) : " + t.contains(501)
+			+ ", ceiling(501) : " + t.ceiling(501));
+		System.out.println("pages : " + t.stats());
+		try {
+			t.dump(System.out, DumpOptions.texte().profondeurMax(1));
+		} catch(IOException e) {
+			System.out.println("Erreur : " + e);
+		}
+	}
+
+	static void testParcours() {
+		ARN<Integer> arn = new ARN<>();
+		for(int i = 1; i <= 20; i++) {
+			arn.add(i);
+		}
+		System.out.print("forEach :");
+		arn.forEach(e -> System.out.print(" " + e));
+		System.out.println();
+		System.out.print("forEachInRange(5, 10) :");
+		arn.forEachInRange(5, 10, e -> System.out.print(" " + e));
+		System.out.println();
+		System.out.print("descendingIterator :");
+		for(Iterator<Integer> it = arn.descendingIterator(); it.hasNext(); ) {
+			System.out.print(" " + it.next());
+		}
+		System.out.println();
+		try {
+			for(int e : arn) {
+				if(e == 3) {
+					arn.remove(10);
+				}
+			}
+		} catch(ConcurrentModificationException e) {
+			System.out.println("Modification pendant le parcours : " + e);
+		}
+	}
 }
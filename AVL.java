@@ -0,0 +1,148 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre AVL : les hauteurs des deux fils de chaque noeud diffèrent d'au plus
+ * un, ce qui borne la hauteur à 1,44 log n, moins qu'un {@link ARN}. Les
+ * recherches y sont un peu plus courtes, au prix de rotations plus
+ * fréquentes pendant les mises à jour. Chaque noeud stocke sa hauteur dans
+ * {@link ArbreEquilibre.Noeud#marque}.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class AVL<E> extends ArbreEquilibre<E> {
+	/** Vrai si la dernière insertion ou suppression a modifié l'arbre */
+	private boolean modifie;
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public AVL() {
+		super();
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public AVL(Comparator<? super E> cmp) {
+		super(cmp);
+	}
+
+	/**
+	 * Constructeur par recopie, en temps linéaire si c est déjà trié
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public AVL(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	boolean inserer(E e) {
+		modifie = false;
+		racine = inserer(racine, e);
+		return modifie;
+	}
+
+	private Noeud<E> inserer(Noeud<E> x, E e) {
+		if(x == null) {
+			modifie = true;
+			Noeud<E> z = new Noeud<>(e);
+			z.marque = 1;
+			return z;
+		}
+		int c = cmp.compare(e, x.cle);
+		if(c < 0) {
+			x.gauche = inserer(x.gauche, e);
+		} else if(c > 0) {
+			x.droit = inserer(x.droit, e);
+		} else {
+			return x;
+		}
+		return equilibrer(x);
+	}
+
+	@Override
+	boolean supprimer(E e) {
+		modifie = false;
+		racine = supprimer(racine, e);
+		return modifie;
+	}
+
+	private Noeud<E> supprimer(Noeud<E> x, E e) {
+		if(x == null) {
+			return null;
+		}
+		int c = cmp.compare(e, x.cle);
+		if(c < 0) {
+			x.gauche = supprimer(x.gauche, e);
+		} else if(c > 0) {
+			x.droit = supprimer(x.droit, e);
+		} else {
+			modifie = true;
+			if(x.gauche == null) {
+				return x.droit;
+			}
+			if(x.droit == null) {
+				return x.gauche;
+			}
+			// x est remplacé par son successeur, détaché du sous-arbre droit
+			Noeud<E> s = minimum(x.droit);
+			s.droit = retirerMinimum(x.droit);
+			s.gauche = x.gauche;
+			x = s;
+		}
+		return modifie ? equilibrer(x) : x;
+	}
+
+	private Noeud<E> retirerMinimum(Noeud<E> x) {
+		if(x.gauche == null) {
+			return x.droit;
+		}
+		x.gauche = retirerMinimum(x.gauche);
+		return equilibrer(x);
+	}
+
+	@Override
+	void majNoeud(Noeud<E> x) {
+		x.marque = Math.max(hauteur(x.gauche), hauteur(x.droit)) + 1;
+	}
+
+	private static int hauteur(Noeud<?> x) {
+		return x == null ? 0 : x.marque;
+	}
+
+	/**
+	 * Recalcule la hauteur de x et rétablit l'équilibre par une rotation
+	 * simple ou double si ses fils diffèrent de deux niveaux
+	 *
+	 * @return la nouvelle racine du sous-arbre
+	 */
+	private Noeud<E> equilibrer(Noeud<E> x) {
+		majNoeud(x);
+		int d = hauteur(x.gauche) - hauteur(x.droit);
+		if(d > 1) {
+			if(hauteur(x.gauche.gauche) < hauteur(x.gauche.droit)) {
+				x.gauche = tournerGauche(x.gauche);
+			}
+			return tournerDroite(x);
+		}
+		if(d < -1) {
+			if(hauteur(x.droit.droit) < hauteur(x.droit.gauche)) {
+				x.droit = tournerDroite(x.droit);
+			}
+			return tournerGauche(x);
+		}
+		return x;
+	}
+}
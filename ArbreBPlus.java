@@ -0,0 +1,720 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Collection ordonnée par un arbre B+ : chaque page contient jusqu'à
+ * {@link #CAPACITE} clés triées, cherchées par dichotomie, et seules les
+ * feuilles contiennent les éléments. Les pages internes ne gardent que des
+ * séparateurs et les feuilles sont chaînées dans l'ordre.
+ * </p>
+ *
+ * <p>
+ * Avec 64 clés par page, une recherche parmi dix millions d'éléments ne
+ * traverse que quatre ou cinq pages, contre une quarantaine de noeuds dans
+ * un {@link ARN}, et chaque page est un tableau contigu : bien moins de
+ * défauts de cache une fois l'arbre plus gros que le cache. Le parcours suit
+ * le chaînage des feuilles, case après case, sans remonter dans l'arbre.
+ * </p>
+ *
+ * <p>
+ * Chaque page autre que la racine reste au moins à moitié pleine : une page
+ * qui déborde est coupée en deux, une page trop vide emprunte une clé à une
+ * voisine ou fusionne avec elle.
+ * </p>
+ *
+ * <p>
+ * Pour {@link ArbreOrdonne}, les noeuds de l'arbre sont ses pages :
+ * {@link #hauteur()} compte les niveaux, {@link #stats()} les pages, et
+ * {@link #dump} écrit une page par ligne (ou par noeud DOT ou objet JSON).
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ArbreBPlus<E> extends AbstractSet<E> implements ArbreOrdonne<E> {
+	/** Nombre maximal de clés d'une page */
+	public static final int CAPACITE = 64;
+	/** Nombre minimal de clés d'une page autre que la racine */
+	private static final int MINIMUM = CAPACITE / 2;
+
+	/**
+	 * Page de l'arbre. Une case de plus que la capacité accueille la clé qui
+	 * fait déborder la page juste avant qu'elle soit coupée.
+	 */
+	private static class Page {
+		final Object[] cles = new Object[CAPACITE + 1];
+		int n;
+	}
+
+	private static final class Feuille extends Page {
+		Feuille suivante;
+		Feuille precedente;
+	}
+
+	/**
+	 * Page interne : le séparateur cles[i] est inférieur ou égal à toutes les
+	 * clés de fils[i + 1] et strictement supérieur à celles de fils[i]
+	 */
+	private static final class Interne extends Page {
+		final Page[] fils = new Page[CAPACITE + 2];
+	}
+
+	private Page racine;
+	private Feuille premiere;
+	private Feuille derniere;
+	private int hauteur;		// nombre de niveaux, 1 si la racine est une feuille
+	private int taille;
+	private int modifications;
+	private final Comparator<? super E> cmp;
+
+	/** Pages traversées par la dernière descente, et l'indice du fils pris */
+	private Interne[] chemin = new Interne[8];
+	private int[] indices = new int[8];
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public ArbreBPlus() {
+		cmp = Chargement.ORDRE_NATUREL;
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public ArbreBPlus(Comparator<? super E> cmp) {
+		this.cmp = cmp == null ? Chargement.ORDRE_NATUREL : cmp;
+	}
+
+	/**
+	 * Constructeur par recopie. Les éléments sont triés puis rangés dans des
+	 * feuilles pleines, en temps linéaire si c est déjà trié.
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public ArbreBPlus(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	public int size() {
+		return taille;
+	}
+
+	@Override
+	public void clear() {
+		racine = premiere = derniere = null;
+		hauteur = 0;
+		taille = 0;
+		modifications++;
+	}
+
+	/**
+	 * Nombre de niveaux de l'arbre, 0 s'il est vide
+	 */
+	@Override
+	public int hauteur() {
+		return hauteur;
+	}
+
+	@Override
+	public Comparator<? super E> comparator() {
+		return cmp == Chargement.ORDRE_NATUREL ? null : cmp;
+	}
+
+	@Override
+	public E first() {
+		if(taille == 0) {
+			throw new NoSuchElementException();
+		}
+		return cle(premiere, 0);
+	}
+
+	@Override
+	public E last() {
+		if(taille == 0) {
+			throw new NoSuchElementException();
+		}
+		return cle(derniere, derniere.n - 1);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if(o == null || racine == null) {
+			return false;
+		}
+		Page x = racine;
+		for(int h = hauteur; h > 1; h--) {
+			x = ((Interne) x).fils[indiceFils(x, o)];
+		}
+		return chercher(x, o) >= 0;
+	}
+
+	/**
+	 * Le plus petit élément supérieur ou égal à e, null s'il n'y en a pas
+	 */
+	public E ceiling(E e) {
+		if(racine == null) {
+			return null;
+		}
+		Page x = racine;
+		for(int h = hauteur; h > 1; h--) {
+			x = ((Interne) x).fils[indiceFils(x, e)];
+		}
+		Feuille f = (Feuille) x;
+		int i = chercher(f, e);
+		if(i < 0) {
+			i = -i - 1;
+		}
+		if(i == f.n) {
+			f = f.suivante;
+			i = 0;
+		}
+		return f == null ? null : cle(f, i);
+	}
+
+	/**
+	 * Le plus grand élément inférieur ou égal à e, null s'il n'y en a pas
+	 */
+	public E floor(E e) {
+		if(racine == null) {
+			return null;
+		}
+		Page x = racine;
+		for(int h = hauteur; h > 1; h--) {
+			x = ((Interne) x).fils[indiceFils(x, e)];
+		}
+		Feuille f = (Feuille) x;
+		int i = chercher(f, e);
+		if(i >= 0) {
+			return cle(f, i);
+		}
+		i = -i - 2;
+		if(i < 0) {
+			f = f.precedente;
+			if(f == null) {
+				return null;
+			}
+			i = f.n - 1;
+		}
+		return cle(f, i);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterateur();
+	}
+
+	/**
+	 * Parcourt les feuilles dans l'ordre, case après case, sans itérateur
+	 *
+	 * @throws ConcurrentModificationException
+	 *			si l'action modifie l'arbre
+	 */
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		Objects.requireNonNull(action);
+		int attendu = modifications;
+		for(Feuille f = premiere; f != null; f = f.suivante) {
+			for(int i = 0, n = f.n; i < n; i++) {
+				action.accept(cle(f, i));
+			}
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	// Ajout
+
+	@Override
+	public boolean add(E e) {
+		if(e == null) return false;
+		if(racine == null) {
+			Feuille f = new Feuille();
+			f.cles[0] = e;
+			f.n = 1;
+			racine = premiere = derniere = f;
+			hauteur = 1;
+			taille = 1;
+			modifications++;
+			return true;
+		}
+		int p = descendre(e);
+		Feuille f = (Feuille) (p == 0 ? racine : chemin[p - 1].fils[indices[p - 1]]);
+		int i = chercher(f, e);
+		if(i >= 0) {
+			oublierChemin(p);
+			return false;
+		}
+		decaler(f.cles, -i - 1, f.n, e);
+		f.n++;
+		taille++;
+		modifications++;
+		if(f.n > CAPACITE) {
+			couper(f, p);
+		}
+		oublierChemin(p);
+		return true;
+	}
+
+	/**
+	 * Coupe la page x, qui vient de déborder, et insère la nouvelle page et
+	 * son séparateur dans la page mère, en coupant celle-ci à son tour si
+	 * besoin. p est la profondeur de x dans le chemin.
+	 */
+	private void couper(Page x, int p) {
+		while(true) {
+			Page droite;
+			Object separateur;
+			int m = x.n / 2;
+			if(x instanceof Feuille) {
+				Feuille f = (Feuille) x;
+				Feuille g = new Feuille();
+				g.n = f.n - m;
+				System.arraycopy(f.cles, m, g.cles, 0, g.n);
+				Arrays.fill(f.cles, m, f.n, null);
+				f.n = m;
+				g.suivante = f.suivante;
+				g.precedente = f;
+				if(f.suivante != null) {
+					f.suivante.precedente = g;
+				} else {
+					derniere = g;
+				}
+				f.suivante = g;
+				droite = g;
+				separateur = g.cles[0];
+			} else {
+				// la clé du milieu monte dans la page mère
+				Interne y = (Interne) x;
+				Interne z = new Interne();
+				separateur = y.cles[m];
+				z.n = y.n - m - 1;
+				System.arraycopy(y.cles, m + 1, z.cles, 0, z.n);
+				System.arraycopy(y.fils, m + 1, z.fils, 0, z.n + 1);
+				Arrays.fill(y.cles, m, y.n, null);
+				Arrays.fill(y.fils, m + 1, y.n + 1, null);
+				y.n = m;
+				droite = z;
+			}
+			if(p == 0) {
+				Interne r = new Interne();
+				r.cles[0] = separateur;
+				r.fils[0] = x;
+				r.fils[1] = droite;
+				r.n = 1;
+				racine = r;
+				hauteur++;
+				return;
+			}
+			Interne mere = chemin[--p];
+			int j = indices[p];
+			decaler(mere.cles, j, mere.n, separateur);
+			decaler(mere.fils, j + 1, mere.n + 1, droite);
+			mere.n++;
+			if(mere.n <= CAPACITE) {
+				return;
+			}
+			x = mere;
+		}
+	}
+
+	/**
+	 * Ajoute les éléments de c. Dans un arbre vide, les éléments sont triés
+	 * puis rangés dans des feuilles pleines, en temps linéaire après le tri.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		if(racine != null) {
+			return super.addAll(c);
+		}
+		Object[] t = Chargement.preparer(c, cmp);
+		if(t.length == 0) {
+			return false;
+		}
+		charger(t);
+		return true;
+	}
+
+	// Suppression
+
+	@Override
+	public boolean remove(Object o) {
+		if(o == null || racine == null) return false;
+		int p = descendre(o);
+		Page x = p == 0 ? racine : chemin[p - 1].fils[indices[p - 1]];
+		int i = chercher(x, o);
+		if(i < 0) {
+			oublierChemin(p);
+			return false;
+		}
+		System.arraycopy(x.cles, i + 1, x.cles, i, x.n - i - 1);
+		x.cles[--x.n] = null;
+		taille--;
+		modifications++;
+		// Les pages trop vides se complètent en remontant
+		while(p > 0 && x.n < MINIMUM) {
+			Interne mere = chemin[--p];
+			reequilibrer(mere, indices[p]);
+			x = mere;
+		}
+		if(taille == 0) {
+			clear();
+		} else if(hauteur > 1 && racine.n == 0) {
+			racine = ((Interne) racine).fils[0];
+			hauteur--;
+		}
+		oublierChemin(chemin.length);
+		return true;
+	}
+
+	/**
+	 * Complète le fils j de mere, tombé sous le minimum, par une clé d'une
+	 * voisine qui peut en céder une, sinon en le fusionnant avec une voisine
+	 */
+	private void reequilibrer(Interne mere, int j) {
+		if(j > 0 && mere.fils[j - 1].n > MINIMUM) {
+			emprunterAGauche(mere, j);
+		} else if(j < mere.n && mere.fils[j + 1].n > MINIMUM) {
+			emprunterADroite(mere, j);
+		} else if(j > 0) {
+			fusionner(mere, j - 1);
+		} else {
+			fusionner(mere, j);
+		}
+	}
+
+	private void emprunterAGauche(Interne mere, int j) {
+		Page g = mere.fils[j - 1];
+		Page x = mere.fils[j];
+		if(x instanceof Feuille) {
+			decaler(x.cles, 0, x.n, g.cles[g.n - 1]);
+			mere.cles[j - 1] = x.cles[0];
+		} else {
+			Interne gi = (Interne) g;
+			Interne xi = (Interne) x;
+			decaler(x.cles, 0, x.n, mere.cles[j - 1]);
+			decaler(xi.fils, 0, x.n + 1, gi.fils[g.n]);
+			mere.cles[j - 1] = g.cles[g.n - 1];
+			gi.fils[g.n] = null;
+		}
+		x.n++;
+		g.cles[--g.n] = null;
+	}
+
+	private void emprunterADroite(Interne mere, int j) {
+		Page x = mere.fils[j];
+		Page d = mere.fils[j + 1];
+		if(x instanceof Feuille) {
+			x.cles[x.n] = d.cles[0];
+			System.arraycopy(d.cles, 1, d.cles, 0, d.n - 1);
+			mere.cles[j] = d.cles[0];
+		} else {
+			Interne xi = (Interne) x;
+			Interne di = (Interne) d;
+			x.cles[x.n] = mere.cles[j];
+			xi.fils[x.n + 1] = di.fils[0];
+			mere.cles[j] = d.cles[0];
+			System.arraycopy(d.cles, 1, d.cles, 0, d.n - 1);
+			System.arraycopy(di.fils, 1, di.fils, 0, d.n);
+			di.fils[d.n] = null;
+		}
+		x.n++;
+		d.cles[--d.n] = null;
+	}
+
+	/**
+	 * Verse le fils k + 1 de mere dans le fils k et retire leur séparateur.
+	 * Les deux pages ont au plus MINIMUM clés à elles deux plus le
+	 * séparateur : le résultat tient dans une page.
+	 */
+	private void fusionner(Interne mere, int k) {
+		Page g = mere.fils[k];
+		Page d = mere.fils[k + 1];
+		if(g instanceof Feuille) {
+			Feuille gf = (Feuille) g;
+			Feuille df = (Feuille) d;
+			System.arraycopy(d.cles, 0, g.cles, g.n, d.n);
+			g.n += d.n;
+			gf.suivante = df.suivante;
+			if(df.suivante != null) {
+				df.suivante.precedente = gf;
+			} else {
+				derniere = gf;
+			}
+		} else {
+			Interne gi = (Interne) g;
+			Interne di = (Interne) d;
+			g.cles[g.n] = mere.cles[k];
+			System.arraycopy(d.cles, 0, g.cles, g.n + 1, d.n);
+			System.arraycopy(di.fils, 0, gi.fils, g.n + 1, d.n + 1);
+			g.n += d.n + 1;
+		}
+		System.arraycopy(mere.cles, k + 1, mere.cles, k, mere.n - k - 1);
+		System.arraycopy(mere.fils, k + 2, mere.fils, k + 1, mere.n - k - 1);
+		mere.n--;
+		mere.cles[mere.n] = null;
+		mere.fils[mere.n + 1] = null;
+	}
+
+	// Quelques méthodes utiles
+
+	/**
+	 * Descend de la racine vers la feuille qui contient ou contiendrait o, en
+	 * notant les pages internes traversées dans chemin et indices
+	 *
+	 * @return le nombre de pages internes traversées
+	 */
+	private int descendre(Object o) {
+		if(chemin.length < hauteur) {
+			chemin = Arrays.copyOf(chemin, 2 * hauteur);
+			indices = Arrays.copyOf(indices, 2 * hauteur);
+		}
+		Page x = racine;
+		int p = 0;
+		for(int h = hauteur; h > 1; h--) {
+			Interne y = (Interne) x;
+			int i = indiceFils(y, o);
+			chemin[p] = y;
+			indices[p++] = i;
+			x = y.fils[i];
+		}
+		return p;
+	}
+
+	/** Efface les références du chemin, pour ne pas retenir de pages retirées */
+	private void oublierChemin(int p) {
+		Arrays.fill(chemin, 0, Math.min(p, chemin.length), null);
+	}
+
+	/**
+	 * Indice, dans la page x, de la clé o si elle y est, sinon
+	 * -(point d'insertion) - 1
+	 */
+	@SuppressWarnings("unchecked")
+	private int chercher(Page x, Object o) {
+		return Arrays.binarySearch(x.cles, 0, x.n, o, (Comparator<Object>) cmp);
+	}
+
+	/**
+	 * La clé i de la page x : les pages ne contiennent que des E
+	 */
+	@SuppressWarnings("unchecked")
+	private E cle(Page x, int i) {
+		return (E) x.cles[i];
+	}
+
+	/**
+	 * Indice du fils de la page interne x où chercher o
+	 */
+	private int indiceFils(Page x, Object o) {
+		int i = chercher(x, o);
+		return i >= 0 ? i + 1 : -i - 1;
+	}
+
+	/**
+	 * Insère v à l'indice i de t, dont les n premières cases sont occupées
+	 */
+	private static void decaler(Object[] t, int i, int n, Object v) {
+		System.arraycopy(t, i, t, i + 1, n - i);
+		t[i] = v;
+	}
+
+	// Chargement en bloc
+
+	/**
+	 * Range les clés triées et distinctes de t dans des feuilles aussi pleines
+	 * que possible, puis construit les niveaux internes de la même façon
+	 */
+	private void charger(Object[] t) {
+		int nb = groupes(t.length, CAPACITE);
+		Page[] niveau = new Page[nb];
+		Object[] minimums = new Object[nb];
+		Feuille precedente = null;
+		for(int g = 0, debut = 0; g < nb; g++) {
+			int n = tailleGroupe(t.length, nb, g);
+			Feuille f = new Feuille();
+			System.arraycopy(t, debut, f.cles, 0, n);
+			f.n = n;
+			f.precedente = precedente;
+			if(precedente != null) {
+				precedente.suivante = f;
+			} else {
+				premiere = f;
+			}
+			precedente = f;
+			niveau[g] = f;
+			minimums[g] = t[debut];
+			debut += n;
+		}
+		derniere = precedente;
+		hauteur = 1;
+		while(nb > 1) {
+			int nbMeres = groupes(nb, CAPACITE + 1);
+			Page[] meres = new Page[nbMeres];
+			Object[] minimumsMeres = new Object[nbMeres];
+			for(int g = 0, debut = 0; g < nbMeres; g++) {
+				int n = tailleGroupe(nb, nbMeres, g);
+				Interne y = new Interne();
+				System.arraycopy(niveau, debut, y.fils, 0, n);
+				System.arraycopy(minimums, debut + 1, y.cles, 0, n - 1);
+				y.n = n - 1;
+				meres[g] = y;
+				minimumsMeres[g] = minimums[debut];
+				debut += n;
+			}
+			niveau = meres;
+			minimums = minimumsMeres;
+			nb = nbMeres;
+			hauteur++;
+		}
+		racine = niveau[0];
+		taille = t.length;
+		modifications++;
+	}
+
+	/** Nombre de groupes d'au plus max éléments pour en ranger n */
+	private static int groupes(int n, int max) {
+		return (n + max - 1) / max;
+	}
+
+	/**
+	 * Taille du groupe g quand n éléments sont répartis également en nb
+	 * groupes : chaque groupe est au moins à moitié plein
+	 */
+	private static int tailleGroupe(int n, int nb, int g) {
+		return n / nb + (g < n % nb ? 1 : 0);
+	}
+
+	// ArbreOrdonne
+
+	/**
+	 * Statistiques sur les pages : toutes les feuilles sont à la profondeur
+	 * {@link #hauteur()}, et les pages sont comptées noires. Le parcours ne
+	 * visite que les pages, environ n / {@link #CAPACITE}.
+	 */
+	@Override
+	public TreeStats stats() {
+		long pages = 0;
+		if(racine != null) {
+			ArrayDeque<Interne> pile = new ArrayDeque<>();
+			if(racine instanceof Interne) {
+				pile.push((Interne) racine);
+			}
+			while(!pile.isEmpty()) {
+				Interne y = pile.pop();
+				pages++;
+				if(y.fils[0] instanceof Interne) {
+					for(int i = 0; i <= y.n; i++) {
+						pile.push((Interne) y.fils[i]);
+					}
+				}
+			}
+		}
+		long feuilles = 0;
+		for(Feuille f = premiere; f != null; f = f.suivante) {
+			feuilles++;
+		}
+		return TreeStats.equilibre(pages + feuilles, feuilles, hauteur);
+	}
+
+	/**
+	 * Écrit l'arbre dans out, une page par noeud, au format et dans les
+	 * limites donnés par les options. Les pages n'ont pas de couleur.
+	 */
+	@Override
+	public void dump(Appendable out, DumpOptions options) throws IOException {
+		Dessin.ecrirePages(racine, PAGES, out, options);
+	}
+
+	/** Accès aux pages pour {@link Dessin} */
+	private static final Dessin.Pages<Page> PAGES = new Dessin.Pages<Page>() {
+		public int nbCles(Page x) {
+			return x.n;
+		}
+
+		public Object cle(Page x, int i) {
+			return x.cles[i];
+		}
+
+		public int nbFils(Page x) {
+			return x instanceof Interne ? x.n + 1 : 0;
+		}
+
+		public Page fils(Page x, int i) {
+			return ((Interne) x).fils[i];
+		}
+	};
+
+	/**
+	 * Suit le chaînage des feuilles. Une modification de l'arbre en dehors
+	 * de {@link #remove()} fait échouer le parcours.
+	 */
+	private class Iterateur implements Iterator<E> {
+		Feuille feuille = premiere;
+		int indice;
+		E dernier;
+		boolean retirable;
+		int attendu = modifications;
+
+		public boolean hasNext() {
+			return feuille != null;
+		}
+
+		public E next() {
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+			if(feuille == null) {
+				throw new NoSuchElementException();
+			}
+			dernier = cle(feuille, indice);
+			if(++indice == feuille.n) {
+				feuille = feuille.suivante;
+				indice = 0;
+			}
+			retirable = true;
+			return dernier;
+		}
+
+		/**
+		 * La suppression peut déplacer les clés entre feuilles : la position
+		 * est retrouvée par une descente vers la clé qui suit celle retirée
+		 */
+		public void remove() {
+			if(!retirable) {
+				throw new IllegalStateException();
+			}
+			if(modifications != attendu) {
+				throw new ConcurrentModificationException();
+			}
+			retirable = false;
+			ArbreBPlus.this.remove(dernier);
+			attendu = modifications;
+			feuille = null;
+			if(racine == null) {
+				return;
+			}
+			Page x = racine;
+			for(int h = hauteur; h > 1; h--) {
+				x = ((Interne) x).fils[indiceFils(x, dernier)];
+			}
+			feuille = (Feuille) x;
+			indice = -chercher(x, dernier) - 1;
+			if(indice == feuille.n) {
+				feuille = feuille.suivante;
+				indice = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,420 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * <p>
+ * Base commune des moteurs d'équilibrage {@link AVL}, {@link LLRB},
+ * {@link Treap} et {@link Scapegoat}. Les noeuds n'ont ni père ni sentinelle :
+ * un fils absent est null, et chaque moteur range dans {@link Noeud#marque}
+ * l'information dont il a besoin (hauteur, couleur ou priorité).
+ * </p>
+ *
+ * <p>
+ * Seuls l'insertion et la suppression sont propres à chaque moteur ; la
+ * recherche, le parcours, les rotations, le chargement en bloc (trié, puis
+ * construit en temps linéaire), l'affichage et les statistiques sont écrits
+ * une seule fois ici.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public abstract class ArbreEquilibre<E> extends AbstractSet<E> implements ArbreOrdonne<E> {
+	static final class Noeud<E> {
+		E cle;
+		Noeud<E> gauche;
+		Noeud<E> droit;
+		int marque;				// propre au moteur
+
+		Noeud(E cle) {
+			this.cle = cle;
+		}
+	}
+
+	Noeud<E> racine;
+	int taille;
+	final Comparator<? super E> cmp;
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	ArbreEquilibre() {
+		cmp = Chargement.ORDRE_NATUREL;
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur, l'ordre naturel s'il est null
+	 */
+	ArbreEquilibre(Comparator<? super E> cmp) {
+		this.cmp = cmp == null ? Chargement.ORDRE_NATUREL : cmp;
+	}
+
+	// Propre à chaque moteur
+
+	/**
+	 * Insère e, non null, s'il n'est pas déjà présent
+	 *
+	 * @return true si e a été inséré
+	 */
+	abstract boolean inserer(E e);
+
+	/**
+	 * Supprime la clé égale à e, si elle est présente
+	 *
+	 * @return true si une clé a été supprimée
+	 */
+	abstract boolean supprimer(E e);
+
+	/**
+	 * Recalcule l'information du noeud x à partir de ses fils, après une
+	 * rotation ou une construction. Ne fait rien par défaut.
+	 */
+	void majNoeud(Noeud<E> x) {
+	}
+
+	/**
+	 * Indique si x est rouge, pour l'affichage et les statistiques
+	 */
+	boolean rouge(Noeud<E> x) {
+		return false;
+	}
+
+	/**
+	 * Construit un arbre à partir des n premières clés de t, triées et
+	 * distinctes. Par défaut, un arbre parfaitement équilibré : chaque
+	 * sous-arbre a pour racine le milieu de ses clés.
+	 */
+	Noeud<E> construire(Object[] t, int n) {
+		return milieu(t, 0, n);
+	}
+
+	// Collection
+
+	@Override
+	public boolean add(E e) {
+		if(e == null) return false;
+		if(!inserer(e)) {
+			return false;
+		}
+		taille++;
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object o) {
+		if(o == null || racine == null) return false;
+		if(!supprimer((E) o)) {
+			return false;
+		}
+		taille--;
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o != null && rechercher(o) != null;
+	}
+
+	@Override
+	public int size() {
+		return taille;
+	}
+
+	@Override
+	public void clear() {
+		racine = null;
+		taille = 0;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterateur();
+	}
+
+	/**
+	 * Ajoute les éléments de c. Dans un arbre vide, ou si le lot est gros
+	 * devant le contenu de l'arbre, les éléments sont triés (avec ceux de
+	 * l'arbre) et l'arbre est reconstruit en temps linéaire.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		int avant = taille;
+		if(racine == null) {
+			charger(Chargement.preparer(c, cmp));
+		} else if(Chargement.fusionRentable(taille, c.size())) {
+			charger(Chargement.fusionner(elements(), Chargement.preparer(c, cmp), cmp));
+		} else {
+			for(E e : c) {
+				add(e);
+			}
+		}
+		return taille != avant;
+	}
+
+	// ArbreOrdonne
+
+	@Override
+	public Comparator<? super E> comparator() {
+		return cmp == Chargement.ORDRE_NATUREL ? null : cmp;
+	}
+
+	@Override
+	public E first() {
+		if(racine == null) {
+			throw new NoSuchElementException();
+		}
+		return minimum(racine).cle;
+	}
+
+	@Override
+	public E last() {
+		if(racine == null) {
+			throw new NoSuchElementException();
+		}
+		Noeud<E> x = racine;
+		while(x.droit != null) {
+			x = x.droit;
+		}
+		return x.cle;
+	}
+
+	@Override
+	public int hauteur() {
+		return TreeStats.calculer(racine, acces(), false).height();
+	}
+
+	@Override
+	public TreeStats stats() {
+		return TreeStats.calculer(racine, acces(), taille >= ARN.SEUIL_STATS);
+	}
+
+	@Override
+	public void dump(Appendable out, DumpOptions options) throws IOException {
+		Dessin.ecrire(racine, acces(), out, options);
+	}
+
+	/**
+	 * Le dessin de l'arbre au format texte de {@link #dump}, les clés des
+	 * noeuds rouges en rouge
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		try {
+			dump(buf, DumpOptions.texte().couleurs(true));
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);		// impossible avec un StringBuilder
+		}
+		return buf.toString();
+	}
+
+	// Outils communs aux moteurs
+
+	/**
+	 * Renvoie le noeud qui contient la clé o, null s'il n'y en a pas
+	 */
+	Noeud<E> rechercher(Object o) {
+		@SuppressWarnings("unchecked")
+		E e = (E) o;
+		Noeud<E> x = racine;
+		while(x != null) {
+			int c = cmp.compare(e, x.cle);
+			if(c == 0) {
+				return x;
+			}
+			x = c < 0 ? x.gauche : x.droit;
+		}
+		return null;
+	}
+
+	static <E> Noeud<E> minimum(Noeud<E> x) {
+		while(x.gauche != null) {
+			x = x.gauche;
+		}
+		return x;
+	}
+
+	/**
+	 * Fait remonter le fils droit de x à sa place
+	 *
+	 * @return la nouvelle racine du sous-arbre, à raccrocher par l'appelant
+	 */
+	Noeud<E> tournerGauche(Noeud<E> x) {
+		Noeud<E> y = x.droit;
+		x.droit = y.gauche;
+		y.gauche = x;
+		majNoeud(x);
+		majNoeud(y);
+		return y;
+	}
+
+	/**
+	 * Fait remonter le fils gauche de x à sa place
+	 *
+	 * @return la nouvelle racine du sous-arbre, à raccrocher par l'appelant
+	 */
+	Noeud<E> tournerDroite(Noeud<E> x) {
+		Noeud<E> y = x.gauche;
+		x.gauche = y.droit;
+		y.droit = x;
+		majNoeud(x);
+		majNoeud(y);
+		return y;
+	}
+
+	/**
+	 * Construit l'arbre parfaitement équilibré des clés t[debut..fin[, de
+	 * hauteur log n : la récursion ne risque rien
+	 */
+	Noeud<E> milieu(Object[] t, int debut, int fin) {
+		if(debut >= fin) {
+			return null;
+		}
+		int m = (debut + fin) >>> 1;
+		Noeud<E> x = nouveauNoeud(t, m);
+		x.gauche = milieu(t, debut, m);
+		x.droit = milieu(t, m + 1, fin);
+		majNoeud(x);
+		return x;
+	}
+
+	/**
+	 * Crée un noeud pour la clé t[i] d'un tableau préparé par
+	 * {@link Chargement}, qui ne contient que des E
+	 */
+	@SuppressWarnings("unchecked")
+	Noeud<E> nouveauNoeud(Object[] t, int i) {
+		return new Noeud<>((E) t[i]);
+	}
+
+	/**
+	 * Range dans t, à partir de l'indice i, les clés du sous-arbre x dans
+	 * l'ordre
+	 *
+	 * @return l'indice qui suit la dernière clé rangée
+	 */
+	static <E> int aplatir(Noeud<E> x, Object[] t, int i) {
+		ArrayDeque<Noeud<E>> pile = new ArrayDeque<>();
+		while(x != null || !pile.isEmpty()) {
+			while(x != null) {
+				pile.push(x);
+				x = x.gauche;
+			}
+			x = pile.pop();
+			t[i++] = x.cle;
+			x = x.droit;
+		}
+		return i;
+	}
+
+	// Chargement en bloc
+
+	/**
+	 * Remplace le contenu de l'arbre par les clés triées et distinctes de t
+	 */
+	private void charger(Object[] t) {
+		racine = construire(t, t.length);
+		taille = t.length;
+	}
+
+	/**
+	 * Renvoie les éléments de l'arbre dans l'ordre
+	 */
+	private Object[] elements() {
+		Object[] t = new Object[taille];
+		aplatir(racine, t, 0);
+		return t;
+	}
+
+	/**
+	 * Accès aux noeuds pour les parcours communs ({@link Dessin},
+	 * {@link TreeStats})
+	 */
+	private Dessin.Acces<Noeud<E>> acces() {
+		return new Dessin.Acces<Noeud<E>>() {
+			public boolean vide(Noeud<E> x) {
+				return x == null;
+			}
+
+			public Noeud<E> gauche(Noeud<E> x) {
+				return x.gauche;
+			}
+
+			public Noeud<E> droit(Noeud<E> x) {
+				return x.droit;
+			}
+
+			public Object cle(Noeud<E> x) {
+				return x.cle;
+			}
+
+			public boolean rouge(Noeud<E> x) {
+				return ArbreEquilibre.this.rouge(x);
+			}
+		};
+	}
+
+	/**
+	 * Parcours infixe avec une pile : les noeuds n'ont pas de père. La pile
+	 * contient les ancêtres dont le sous-arbre gauche est en cours de
+	 * parcours.
+	 */
+	private class Iterateur implements Iterator<E> {
+		final ArrayDeque<Noeud<E>> pile = new ArrayDeque<>();
+		E dernier;
+		boolean retirable;
+
+		Iterateur() {
+			descendre(racine);
+		}
+
+		private void descendre(Noeud<E> x) {
+			while(x != null) {
+				pile.push(x);
+				x = x.gauche;
+			}
+		}
+
+		public boolean hasNext() {
+			return !pile.isEmpty();
+		}
+
+		public E next() {
+			if(pile.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			Noeud<E> x = pile.pop();
+			descendre(x.droit);
+			dernier = x.cle;
+			retirable = true;
+			return dernier;
+		}
+
+		/**
+		 * La suppression peut tourner ou déplacer des noeuds de la pile : elle
+		 * est reconstruite en redescendant vers la clé qui suit celle retirée
+		 */
+		public void remove() {
+			if(!retirable) {
+				throw new IllegalStateException();
+			}
+			retirable = false;
+			ArbreEquilibre.this.remove(dernier);
+			pile.clear();
+			Noeud<E> x = racine;
+			while(x != null) {
+				if(cmp.compare(x.cle, dernier) > 0) {
+					pile.push(x);
+					x = x.gauche;
+				} else {
+					x = x.droit;
+				}
+			}
+		}
+	}
+}
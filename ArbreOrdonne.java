@@ -0,0 +1,54 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * <p>
+ * Collection ordonnée par un arbre de recherche, quel que soit son
+ * équilibrage : {@link ARN}, {@link ABR}, les moteurs de
+ * {@link ArbreEquilibre} (AVL, rouge-noir penché à gauche, treap, bouc
+ * émissaire) et {@link ArbreBPlus}, dont les noeuds sont des pages. Le code
+ * qui n'utilise que cette interface peut changer de moteur par
+ * configuration, voir {@link Moteur}.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public interface ArbreOrdonne<E> extends Collection<E> {
+
+	/**
+	 * Le comparateur qui ordonne les éléments, null pour l'ordre naturel
+	 */
+	Comparator<? super E> comparator();
+
+	/**
+	 * @throws NoSuchElementException
+	 *			si l'arbre est vide
+	 */
+	E first();
+
+	/**
+	 * @throws NoSuchElementException
+	 *			si l'arbre est vide
+	 */
+	E last();
+
+	/**
+	 * Nombre de noeuds du plus long chemin de la racine à une feuille
+	 */
+	int hauteur();
+
+	/**
+	 * Statistiques de forme de l'arbre, calculées en un parcours
+	 */
+	TreeStats stats();
+
+	/**
+	 * Écrit l'arbre dans out, au format et dans les limites donnés par les
+	 * options
+	 *
+	 * @throws IOException
+	 *			si l'écriture dans out échoue
+	 */
+	void dump(Appendable out, DumpOptions options) throws IOException;
+}
@@ -0,0 +1,130 @@
+import java.util.*;
+
+/**
+ * Outils du chargement en bloc communs à {@link ARN}, {@link ArbreEquilibre}
+ * et {@link ArbreBPlus} : les éléments à charger sont triés selon l'ordre de
+ * l'arbre et débarrassés des doublons, puis l'arbre est construit en temps
+ * linéaire par chaque classe.
+ */
+final class Chargement {
+	/** Ordre naturel, partagé par tous les arbres créés sans comparateur */
+	@SuppressWarnings("unchecked")
+	static final Comparator<Object> ORDRE_NATUREL = (e1, e2) -> ((Comparable<Object>) e1).compareTo(e2);
+	/** Taille à partir de laquelle les éléments à charger sont triés en parallèle */
+	static final int SEUIL_TRI_PARALLELE = 1 << 13;
+
+	private Chargement() {
+	}
+
+	/**
+	 * Indique s'il vaut mieux fusionner un lot de m éléments avec les n
+	 * éléments d'un arbre et reconstruire (O(n + m)) que les insérer un à un
+	 * (O(m log n)).
+	 */
+	static boolean fusionRentable(int n, int m) {
+		int log = 32 - Integer.numberOfLeadingZeros(n);
+		return (long) m * log >= n;
+	}
+
+	/**
+	 * Indique si c est un ensemble trié selon l'ordre cmp : un SortedSet ou
+	 * un {@link ArbreOrdonne}, quel que soit son moteur
+	 */
+	static boolean memeOrdre(Collection<?> c, Comparator<?> cmp) {
+		Comparator<?> autre;
+		if(c instanceof SortedSet) {
+			autre = ((SortedSet<?>) c).comparator();
+		} else if(c instanceof ArbreOrdonne) {
+			autre = ((ArbreOrdonne<?>) c).comparator();
+		} else {
+			return false;
+		}
+		return autre == null ? cmp == ORDRE_NATUREL : autre.equals(cmp);
+	}
+
+	/**
+	 * Renvoie les éléments de c triés selon cmp, sans doublons ni null. Le
+	 * tri est évité si c est un ensemble trié selon le même ordre ou si ses
+	 * éléments sont déjà dans l'ordre (une liste triée par exemple).
+	 *
+	 * @param c
+	 *			la collection à charger
+	 * @param cmp
+	 *			l'ordre de l'arbre
+	 * @return un tableau trié d'éléments distincts
+	 */
+	static <E> Object[] preparer(Collection<? extends E> c, Comparator<? super E> cmp) {
+		Object[] t = c.toArray();
+		if(memeOrdre(c, cmp)) {
+			return t;
+		}
+		int n = 0;
+		for(Object o : t) {
+			if(o != null) {
+				t[n++] = o;
+			}
+		}
+		Comparator<Object> ordre = surObjets(cmp);
+		if(!estTrie(t, n, ordre)) {
+			if(n >= SEUIL_TRI_PARALLELE) {
+				Arrays.parallelSort(t, 0, n, ordre);
+			} else {
+				Arrays.sort(t, 0, n, ordre);
+			}
+		}
+		// Suppression des doublons, devenus adjacents
+		int m = 0;
+		for(int i = 0; i < n; i++) {
+			if(m == 0 || ordre.compare(t[m - 1], t[i]) != 0) {
+				t[m++] = t[i];
+			}
+		}
+		return m == t.length ? t : Arrays.copyOf(t, m);
+	}
+
+	/**
+	 * Fusionne deux tableaux triés selon cmp d'éléments distincts. Pour une
+	 * clé présente dans les deux, l'élément de a est conservé.
+	 */
+	static <E> Object[] fusionner(Object[] a, Object[] b, Comparator<? super E> cmp) {
+		Comparator<Object> ordre = surObjets(cmp);
+		Object[] r = new Object[a.length + b.length];
+		int i = 0, j = 0, k = 0;
+		while(i < a.length && j < b.length) {
+			int c = ordre.compare(a[i], b[j]);
+			if(c < 0) {
+				r[k++] = a[i++];
+			} else if(c > 0) {
+				r[k++] = b[j++];
+			} else {
+				r[k++] = a[i++];
+				j++;
+			}
+		}
+		while(i < a.length) {
+			r[k++] = a[i++];
+		}
+		while(j < b.length) {
+			r[k++] = b[j++];
+		}
+		return k == r.length ? r : Arrays.copyOf(r, k);
+	}
+
+	private static boolean estTrie(Object[] t, int n, Comparator<Object> ordre) {
+		for(int i = 1; i < n; i++) {
+			if(ordre.compare(t[i - 1], t[i]) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Les tableaux à trier sont des Object[] qui ne contiennent que des E :
+	 * cmp peut leur être appliqué
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> Comparator<Object> surObjets(Comparator<? super E> cmp) {
+		return (Comparator<Object>) cmp;
+	}
+}
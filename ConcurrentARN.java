@@ -0,0 +1,258 @@
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <p>
+ * Version de {@link ARN} utilisable par plusieurs threads. Les écritures
+ * (ajout, suppression et les corrections qui rééquilibrent l'arbre) prennent
+ * un verrou exclusif ; les lectures (contains, navigation, parcours) se font
+ * en parallèle, sans verrou.
+ * </p>
+ *
+ * <p>
+ * Une lecture commence de manière optimiste : elle descend dans l'arbre sans
+ * rien bloquer puis vérifie, avec le tampon du {@link StampedLock}, qu'aucune
+ * écriture n'a eu lieu entre-temps. Si une écriture est passée, ou si la
+ * descente a rencontré un arbre en cours de modification (lien nul, chemin
+ * trop long, exception du comparateur), la lecture est recommencée sous le
+ * verrou partagé. Tant que les écritures sont rares, les lectures ne
+ * modifient donc aucune donnée partagée et ne se gênent pas entre elles.
+ * </p>
+ *
+ * <p>
+ * Le parcours est faiblement cohérent : il ne lève jamais
+ * ConcurrentModificationException, renvoie chaque élément au plus une fois,
+ * dans l'ordre, et voit ou non les modifications faites pendant le parcours.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class ConcurrentARN<E> extends AbstractSet<E> {
+	/**
+	 * Nombre maximal de noeuds visités par une descente optimiste : la
+	 * hauteur d'un arbre rouge-noir de moins de 2^31 éléments est inférieure
+	 * à 62, un chemin plus long signifie que la lecture a croisé une écriture
+	 */
+	private static final int PAS_MAX = 64;
+
+	private final ARN<E> arbre;
+	private final StampedLock verrou = new StampedLock();
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public ConcurrentARN() {
+		arbre = new ARN<>();
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public ConcurrentARN(Comparator<? super E> cmp) {
+		arbre = new ARN<>(cmp);
+	}
+
+	/**
+	 * Constructeur par recopie. Crée un arbre qui contient les mêmes éléments
+	 * que c. L'ordre des éléments est l'ordre naturel.
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public ConcurrentARN(Collection<? extends E> c) {
+		arbre = new ARN<>(c);
+	}
+
+	// Lectures
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object o) {
+		return o != null && lire((E) o, 0, true) != null;
+	}
+
+	@Override
+	public int size() {
+		long tampon = verrou.tryOptimisticRead();
+		int n = arbre.size();
+		if(verrou.validate(tampon)) {
+			return n;
+		}
+		tampon = verrou.readLock();
+		try {
+			return arbre.size();
+		} finally {
+			verrou.unlockRead(tampon);
+		}
+	}
+
+	/**
+	 * @throws NoSuchElementException
+	 *			si l'arbre est vide
+	 */
+	public E first() {
+		return nonVide(lire(null, 1, true));
+	}
+
+	/**
+	 * @throws NoSuchElementException
+	 *			si l'arbre est vide
+	 */
+	public E last() {
+		return nonVide(lire(null, -1, true));
+	}
+
+	public E lower(E e) {
+		return lire(Objects.requireNonNull(e), -1, false);
+	}
+
+	public E floor(E e) {
+		return lire(Objects.requireNonNull(e), -1, true);
+	}
+
+	public E ceiling(E e) {
+		return lire(Objects.requireNonNull(e), 1, true);
+	}
+
+	public E higher(E e) {
+		return lire(Objects.requireNonNull(e), 1, false);
+	}
+
+	public Comparator<? super E> comparator() {
+		return arbre.comparator();
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new ConcurrentARNIterator();
+	}
+
+	/**
+	 * Descente optimiste, recommencée sous le verrou partagé si elle échoue
+	 *
+	 * @see ARN#lireBorne(Object, int, boolean, int)
+	 */
+	@SuppressWarnings("unchecked")
+	private E lire(E e, int sens, boolean inclusif) {
+		long tampon = verrou.tryOptimisticRead();
+		if(tampon != 0) {
+			try {
+				Object r = arbre.lireBorne(e, sens, inclusif, PAS_MAX);
+				if(r != ARN.INTERROMPU && verrou.validate(tampon)) {
+					return (E) r;
+				}
+			} catch(RuntimeException ex) {
+				// arbre vu au milieu d'une écriture, on recommence sous verrou
+			}
+		}
+		tampon = verrou.readLock();
+		try {
+			return (E) arbre.lireBorne(e, sens, inclusif, Integer.MAX_VALUE);
+		} finally {
+			verrou.unlockRead(tampon);
+		}
+	}
+
+	private static <E> E nonVide(E e) {
+		if(e == null) {
+			throw new NoSuchElementException();
+		}
+		return e;
+	}
+
+	// Écritures
+
+	@Override
+	public boolean add(E e) {
+		if(e == null) {
+			return false;
+		}
+		long tampon = verrou.writeLock();
+		try {
+			return arbre.add(e);
+		} finally {
+			verrou.unlockWrite(tampon);
+		}
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if(o == null) {
+			return false;
+		}
+		long tampon = verrou.writeLock();
+		try {
+			return arbre.remove(o);
+		} finally {
+			verrou.unlockWrite(tampon);
+		}
+	}
+
+	/**
+	 * Ajoute tous les éléments de c sous un seul verrou exclusif, ce qui
+	 * permet de profiter du chargement en bloc de {@link ARN#addAll}
+	 */
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		// copie hors verrou : c peut être lente à parcourir, ou être cet arbre
+		List<E> copie = new ArrayList<>(c);
+		long tampon = verrou.writeLock();
+		try {
+			return arbre.addAll(copie);
+		} finally {
+			verrou.unlockWrite(tampon);
+		}
+	}
+
+	@Override
+	public void clear() {
+		long tampon = verrou.writeLock();
+		try {
+			arbre.clear();
+		} finally {
+			verrou.unlockWrite(tampon);
+		}
+	}
+
+	/**
+	 * Parcours faiblement cohérent : chaque élément est obtenu par
+	 * {@link #higher(Object)} à partir du précédent, avec une lecture
+	 * optimiste par élément
+	 */
+	private class ConcurrentARNIterator implements Iterator<E> {
+		E suivant;
+		E dernier;
+
+		ConcurrentARNIterator() {
+			this.suivant = lire(null, 1, true);
+		}
+
+		public boolean hasNext() {
+			return suivant != null;
+		}
+
+		public E next() {
+			if(suivant == null) {
+				throw new NoSuchElementException();
+			}
+			dernier = suivant;
+			suivant = higher(dernier);
+			return dernier;
+		}
+
+		public void remove() {
+			if(dernier == null) {
+				throw new IllegalStateException();
+			}
+			ConcurrentARN.this.remove(dernier);
+			dernier = null;
+		}
+	}
+}
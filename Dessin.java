@@ -0,0 +1,432 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Écriture d'un arbre dans les formats de {@link DumpOptions}, commune aux
+ * arbres binaires de {@link ArbreOrdonne} et, page par page, à
+ * {@link ArbreBPlus}. Les parcours sont itératifs, avec une pile de la
+ * hauteur de l'arbre, et chaque ligne est écrite dès qu'elle est prête : la
+ * mémoire utilisée ne dépend pas du nombre de noeuds, et un arbre dégénéré
+ * ne fait pas déborder la pile d'appels.
+ * </p>
+ */
+final class Dessin {
+
+	/**
+	 * Accès aux noeuds d'un arbre, de type N
+	 */
+	interface Acces<N> {
+		/** Vrai pour la sentinelle (ou null) qui remplace un fils absent */
+		boolean vide(N x);
+
+		N gauche(N x);
+
+		N droit(N x);
+
+		Object cle(N x);
+
+		boolean rouge(N x);
+	}
+
+	/**
+	 * Accès aux pages d'un arbre dont chaque noeud a plusieurs clés et
+	 * plusieurs fils, de type P
+	 */
+	interface Pages<P> {
+		int nbCles(P x);
+
+		Object cle(P x, int i);
+
+		/** 0 pour une feuille */
+		int nbFils(P x);
+
+		P fils(P x, int i);
+	}
+
+	private Dessin() {
+	}
+
+	/**
+	 * Écrit l'arbre de racine r dans out
+	 */
+	static <N> void ecrire(N r, Acces<N> a, Appendable out, DumpOptions o) throws IOException {
+		switch(o.format) {
+			case TEXTE:
+				texte(r, a, out, o);
+				break;
+			case DOT:
+				dot(r, a, out, o);
+				break;
+			default:
+				json(r, a, out, o);
+				break;
+		}
+	}
+
+	// Texte
+
+	/** Visite d'un noeud par le parcours du format texte */
+	private interface Visite<N> {
+		void noeud(N x, CharSequence chemin) throws IOException;
+	}
+
+	/**
+	 * Parcours infixe inversé (fils droit, noeud, fils gauche), l'ordre des
+	 * lignes du dessin. chemin contient les directions ('D' ou 'G') prises
+	 * depuis la racine pour arriver au noeud visité.
+	 */
+	private static <N> void parcourir(N r, Acces<N> a, DumpOptions o, Visite<N> v) throws IOException {
+		ArrayDeque<N> pile = new ArrayDeque<>();
+		int[] profondeurs = new int[16];		// profondeurs des noeuds de la pile
+		StringBuilder chemin = new StringBuilder();
+		long visites = 0;
+		N x = r;
+		int p = 0;
+		while(true) {
+			while(!a.vide(x) && p < o.profondeurMax) {
+				if(pile.size() == profondeurs.length) {
+					profondeurs = Arrays.copyOf(profondeurs, 2 * profondeurs.length);
+				}
+				profondeurs[pile.size()] = p;
+				pile.push(x);
+				chemin.setLength(p);
+				chemin.append('D');
+				x = a.droit(x);
+				p++;
+			}
+			if(pile.isEmpty() || visites == o.noeudsMax) {
+				return;
+			}
+			x = pile.pop();
+			p = profondeurs[pile.size()];
+			chemin.setLength(p);
+			v.noeud(x, chemin);
+			visites++;
+			chemin.append('G');
+			x = a.gauche(x);
+			p++;
+		}
+	}
+
+	private static <N> void texte(N r, Acces<N> a, Appendable out, DumpOptions o) throws IOException {
+		int largeur = o.largeurCle;
+		if(largeur < 0) {
+			int[] max = {0};
+			parcourir(r, a, o, (x, chemin) -> max[0] = Math.max(max[0], String.valueOf(a.cle(x)).length()));
+			largeur = max[0];
+		}
+		int len = largeur;
+		parcourir(r, a, o, (x, chemin) -> {
+			int n = chemin.length();
+			for(int i = 0; i < n; i++) {
+				for(int j = 0; j < len + 6; j++) {
+					out.append(' ');
+				}
+				char c = ' ';
+				if(i == n - 1) {
+					c = '+';
+				} else if(chemin.charAt(i) != chemin.charAt(i + 1)) {
+					c = '|';
+				}
+				out.append(c);
+			}
+			String cle = String.valueOf(a.cle(x));
+			out.append("-- ");
+			if(o.couleurs && a.rouge(x)) {
+				out.append("\u001B[31m").append(cle).append("\u001B[0m");
+			} else {
+				out.append(cle);
+			}
+			if(!a.vide(a.gauche(x)) || !a.vide(a.droit(x))) {
+				out.append(" --");
+				for(int j = cle.length(); j < len; j++) {
+					out.append('-');
+				}
+				out.append('|');
+			}
+			out.append('\n');
+		});
+	}
+
+	// Graphviz
+
+	/** Noeud en attente dans la pile des formats DOT et JSON */
+	private static final class Cadre<N> {
+		final N noeud;
+		final long id;
+		final long pere;		// id du père, -1 pour la racine
+		final int profondeur;
+		int etat;				// JSON : 0 avant le noeud, 1 entre les fils, 2 après
+
+		Cadre(N noeud, long id, long pere, int profondeur) {
+			this.noeud = noeud;
+			this.id = id;
+			this.pere = pere;
+			this.profondeur = profondeur;
+		}
+	}
+
+	/**
+	 * Parcours préfixe ; chaque noeud est écrit avec l'arc qui le relie à son
+	 * père, si bien que les limites ne laissent aucun arc vers un noeud absent
+	 */
+	private static <N> void dot(N r, Acces<N> a, Appendable out, DumpOptions o) throws IOException {
+		out.append("digraph arbre {\n");
+		out.append("\tnode [shape=circle, style=filled, fontcolor=white];\n");
+		ArrayDeque<Cadre<N>> pile = new ArrayDeque<>();
+		if(!a.vide(r) && o.profondeurMax > 0) {
+			pile.push(new Cadre<>(r, 0, -1, 0));
+		}
+		long ids = 1;
+		long ecrits = 0;
+		while(!pile.isEmpty() && ecrits < o.noeudsMax) {
+			Cadre<N> c = pile.pop();
+			out.append("\tn").append(Long.toString(c.id)).append(" [label=\"");
+			echapper(String.valueOf(a.cle(c.noeud)), out);
+			out.append("\", fillcolor=").append(a.rouge(c.noeud) ? "red" : "black").append("];\n");
+			if(c.pere >= 0) {
+				out.append("\tn").append(Long.toString(c.pere)).append(" -> n").append(Long.toString(c.id)).append(";\n");
+			}
+			ecrits++;
+			if(c.profondeur + 1 < o.profondeurMax) {
+				// le fils gauche est dépilé, donc écrit, en premier
+				N d = a.droit(c.noeud);
+				if(!a.vide(d)) {
+					pile.push(new Cadre<>(d, ids++, c.id, c.profondeur + 1));
+				}
+				N g = a.gauche(c.noeud);
+				if(!a.vide(g)) {
+					pile.push(new Cadre<>(g, ids++, c.id, c.profondeur + 1));
+				}
+			}
+		}
+		out.append("}\n");
+	}
+
+	// JSON
+
+	/**
+	 * Objets imbriqués écrits au fil d'un parcours préfixe. Un fils absent
+	 * s'écrit null ; un fils coupé par une limite s'écrit {"tronque": true}.
+	 */
+	private static <N> void json(N r, Acces<N> a, Appendable out, DumpOptions o) throws IOException {
+		ArrayDeque<Cadre<N>> pile = new ArrayDeque<>();
+		pile.push(new Cadre<>(r, 0, -1, 0));
+		long ecrits = 0;
+		while(!pile.isEmpty()) {
+			Cadre<N> c = pile.peek();
+			switch(c.etat) {
+				case 0:
+					if(a.vide(c.noeud)) {
+						out.append("null");
+						pile.pop();
+						break;
+					}
+					if(ecrits == o.noeudsMax || c.profondeur >= o.profondeurMax) {
+						out.append("{\"tronque\":true}");
+						pile.pop();
+						break;
+					}
+					out.append("{\"cle\":\"");
+					echapper(String.valueOf(a.cle(c.noeud)), out);
+					out.append("\",\"couleur\":\"").append(a.rouge(c.noeud) ? 'R' : 'N').append("\",\"gauche\":");
+					ecrits++;
+					c.etat = 1;
+					pile.push(new Cadre<>(a.gauche(c.noeud), 0, -1, c.profondeur + 1));
+					break;
+				case 1:
+					out.append(",\"droit\":");
+					c.etat = 2;
+					pile.push(new Cadre<>(a.droit(c.noeud), 0, -1, c.profondeur + 1));
+					break;
+				default:
+					out.append('}');
+					pile.pop();
+					break;
+			}
+		}
+		out.append('\n');
+	}
+
+	// Arbres à pages
+
+	/** Page en attente dans la pile des parcours de pages */
+	private static final class CadrePage<P> {
+		final P page;
+		final long id;
+		final long pere;		// id de la page mère, -1 pour la racine
+		final int profondeur;
+		int suivant;			// JSON : le prochain fils à écrire
+
+		CadrePage(P page, long id, long pere, int profondeur) {
+			this.page = page;
+			this.id = id;
+			this.pere = pere;
+			this.profondeur = profondeur;
+		}
+	}
+
+	/**
+	 * Écrit l'arbre de pages de racine r, null s'il est vide, dans out. Une
+	 * page compte pour un noeud dans les limites des options ; les pages
+	 * n'ont pas de couleur et largeurCle est sans effet.
+	 */
+	static <P> void ecrirePages(P r, Pages<P> a, Appendable out, DumpOptions o) throws IOException {
+		switch(o.format) {
+			case TEXTE:
+				textePages(r, a, out, o);
+				break;
+			case DOT:
+				dotPages(r, a, out, o);
+				break;
+			default:
+				jsonPages(r, a, out, o);
+				break;
+		}
+	}
+
+	/**
+	 * Parcours préfixe : une ligne par page, décalée selon sa profondeur, les
+	 * filles sous leur mère dans l'ordre des clés
+	 */
+	private static <P> void textePages(P r, Pages<P> a, Appendable out, DumpOptions o) throws IOException {
+		ArrayDeque<CadrePage<P>> pile = new ArrayDeque<>();
+		if(r != null && o.profondeurMax > 0) {
+			pile.push(new CadrePage<>(r, 0, -1, 0));
+		}
+		long ecrits = 0;
+		while(!pile.isEmpty() && ecrits < o.noeudsMax) {
+			CadrePage<P> c = pile.pop();
+			for(int i = 0; i < c.profondeur; i++) {
+				out.append("    ");
+			}
+			out.append("-- ");
+			for(int i = 0, n = a.nbCles(c.page); i < n; i++) {
+				if(i > 0) {
+					out.append(' ');
+				}
+				out.append(String.valueOf(a.cle(c.page, i)));
+			}
+			out.append('\n');
+			ecrits++;
+			empilerFilles(c, a, pile, o, 0);
+		}
+	}
+
+	private static <P> void dotPages(P r, Pages<P> a, Appendable out, DumpOptions o) throws IOException {
+		out.append("digraph arbre {\n");
+		out.append("\tnode [shape=box];\n");
+		ArrayDeque<CadrePage<P>> pile = new ArrayDeque<>();
+		if(r != null && o.profondeurMax > 0) {
+			pile.push(new CadrePage<>(r, 0, -1, 0));
+		}
+		long ids = 1;
+		long ecrits = 0;
+		while(!pile.isEmpty() && ecrits < o.noeudsMax) {
+			CadrePage<P> c = pile.pop();
+			out.append("\tn").append(Long.toString(c.id)).append(" [label=\"");
+			for(int i = 0, n = a.nbCles(c.page); i < n; i++) {
+				if(i > 0) {
+					out.append(' ');
+				}
+				echapper(String.valueOf(a.cle(c.page, i)), out);
+			}
+			out.append("\"];\n");
+			if(c.pere >= 0) {
+				out.append("\tn").append(Long.toString(c.pere)).append(" -> n").append(Long.toString(c.id)).append(";\n");
+			}
+			ecrits++;
+			ids = empilerFilles(c, a, pile, o, ids);
+		}
+		out.append("}\n");
+	}
+
+	/**
+	 * Empile les filles de c, la première au sommet pour être écrite en
+	 * premier, si elles sont dans la limite de profondeur
+	 *
+	 * @return le premier id qui n'a pas été donné à une fille
+	 */
+	private static <P> long empilerFilles(CadrePage<P> c, Pages<P> a, ArrayDeque<CadrePage<P>> pile,
+			DumpOptions o, long ids) {
+		if(c.profondeur + 1 >= o.profondeurMax) {
+			return ids;
+		}
+		int n = a.nbFils(c.page);
+		for(int i = n - 1; i >= 0; i--) {
+			pile.push(new CadrePage<>(a.fils(c.page, i), ids + i, c.id, c.profondeur + 1));
+		}
+		return ids + n;
+	}
+
+	/**
+	 * Objets imbriqués {"cles", "fils"}, sans "fils" pour une feuille. Une
+	 * page coupée par une limite s'écrit {"tronque": true}.
+	 */
+	private static <P> void jsonPages(P r, Pages<P> a, Appendable out, DumpOptions o) throws IOException {
+		if(r == null) {
+			out.append("null\n");
+			return;
+		}
+		ArrayDeque<CadrePage<P>> pile = new ArrayDeque<>();
+		pile.push(new CadrePage<>(r, 0, -1, 0));
+		long ecrits = 0;
+		boolean ouverte = false;		// vrai si la page au sommet a été commencée
+		while(!pile.isEmpty()) {
+			CadrePage<P> c = pile.peek();
+			if(!ouverte) {
+				if(ecrits == o.noeudsMax || c.profondeur >= o.profondeurMax) {
+					out.append("{\"tronque\":true}");
+					pile.pop();
+					ouverte = true;
+					continue;
+				}
+				out.append("{\"cles\":[");
+				for(int i = 0, n = a.nbCles(c.page); i < n; i++) {
+					out.append(i > 0 ? ",\"" : "\"");
+					echapper(String.valueOf(a.cle(c.page, i)), out);
+					out.append('"');
+				}
+				out.append(']');
+				ecrits++;
+				if(a.nbFils(c.page) > 0) {
+					out.append(",\"fils\":[");
+				}
+			}
+			int n = a.nbFils(c.page);
+			if(c.suivant < n) {
+				if(c.suivant > 0) {
+					out.append(',');
+				}
+				pile.push(new CadrePage<>(a.fils(c.page, c.suivant++), 0, -1, c.profondeur + 1));
+				ouverte = false;
+			} else {
+				out.append(n > 0 ? "]}" : "}");
+				pile.pop();
+				ouverte = true;
+			}
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * Écrit s entre guillemets DOT ou JSON : guillemets, barres obliques
+	 * inverses et caractères de contrôle sont échappés
+	 */
+	private static void echapper(String s, Appendable out) throws IOException {
+		for(int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if(c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if(c == '\n') {
+				out.append("\\n");
+			} else if(c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			} else {
+				out.append(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * <p>
+ * Options de {@link ARN#dump(Appendable, DumpOptions)} et
+ * {@link ABR#dump(Appendable, DumpOptions)} : le format de sortie, les
+ * limites de profondeur et de nombre de noeuds, et les couleurs ANSI du
+ * format texte. Les méthodes de réglage renvoient l'objet lui-même pour
+ * pouvoir être enchaînées :
+ * </p>
+ *
+ * <pre>
+ * arbre.dump(fichier, DumpOptions.dot().profondeurMax(12));
+ * </pre>
+ *
+ * <p>
+ * Par défaut, aucune limite et pas de couleurs, ce qui convient à l'écriture
+ * dans un fichier ; toString() utilise le format texte avec les couleurs.
+ * </p>
+ */
+public final class DumpOptions {
+
+	/** Les formats de sortie */
+	public enum Format {
+		/** Le dessin de toString(), la racine à gauche et le fils droit au-dessus */
+		TEXTE,
+		/** Un graphe Graphviz (dot -Tsvg) */
+		DOT,
+		/** Des objets imbriqués {"cle", "couleur", "gauche", "droit"} */
+		JSON
+	}
+
+	Format format;
+	int profondeurMax = Integer.MAX_VALUE;
+	long noeudsMax = Long.MAX_VALUE;
+	boolean couleurs;
+	int largeurCle = -1;
+
+	private DumpOptions(Format format) {
+		this.format = format;
+	}
+
+	public static DumpOptions texte() {
+		return new DumpOptions(Format.TEXTE);
+	}
+
+	public static DumpOptions dot() {
+		return new DumpOptions(Format.DOT);
+	}
+
+	public static DumpOptions json() {
+		return new DumpOptions(Format.JSON);
+	}
+
+	/**
+	 * N'écrit que les noeuds de profondeur inférieure à p (la racine est de
+	 * profondeur 0)
+	 */
+	public DumpOptions profondeurMax(int p) {
+		if(p < 0) {
+			throw new IllegalArgumentException("profondeur négative : " + p);
+		}
+		this.profondeurMax = p;
+		return this;
+	}
+
+	/**
+	 * N'écrit que les n premiers noeuds rencontrés
+	 */
+	public DumpOptions noeudsMax(long n) {
+		if(n < 0) {
+			throw new IllegalArgumentException("nombre de noeuds négatif : " + n);
+		}
+		this.noeudsMax = n;
+		return this;
+	}
+
+	/**
+	 * Écrit les clés des noeuds rouges en rouge (codes ANSI), format texte
+	 * seulement
+	 */
+	public DumpOptions couleurs(boolean couleurs) {
+		this.couleurs = couleurs;
+		return this;
+	}
+
+	/**
+	 * Fixe la largeur des clés du format texte. Sans cette option, la plus
+	 * longue clé écrite est cherchée par un premier parcours de l'arbre.
+	 */
+	public DumpOptions largeurCle(int largeur) {
+		if(largeur < 0) {
+			throw new IllegalArgumentException("largeur négative : " + largeur);
+		}
+		this.largeurCle = largeur;
+		return this;
+	}
+}
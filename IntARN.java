@@ -0,0 +1,523 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre rouge-noir d'entiers (int) stockés sans boxing. Les noeuds sont
+ * rangés comme dans {@link ARNTableau} : des indices dans des tableaux
+ * parallèles (clés, fils gauche, fils droit, père) et un bit de couleur par
+ * noeud, l'indice 0 jouant le rôle de la sentinelle. Les clés sont des int
+ * comparés directement, ce qui évite un Integer et un objet noeud par
+ * élément, ainsi que les appels au comparateur.
+ * </p>
+ *
+ * <p>
+ * Les méthodes de Collection prenant des Integer restent disponibles ; les
+ * variantes primitives {@link #add(int)}, {@link #contains(int)},
+ * {@link #remove(int)} et l'itérateur {@link PrimitiveIterator.OfInt} évitent
+ * toute allocation, hors agrandissement des tableaux.
+ * </p>
+ */
+public class IntARN extends AbstractCollection<Integer> {
+	private static final int SENTINELLE = 0;
+	private static final int CAPACITE_INITIALE = 16;
+
+	private int[] cles;
+	private int[] gauche;
+	private int[] droit;
+	private int[] pere;
+	private long[] rouges;		// bit i à 1 si le noeud i est rouge
+
+	private int racine;
+	private int taille;
+	private int libre;			// tête de la liste des cases libérées, chaînées par gauche
+	private int prochain;		// première case jamais utilisée
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide
+	 */
+	public IntARN() {
+		allouer(CAPACITE_INITIALE);
+	}
+
+	/**
+	 * Crée un arbre contenant les entiers de t
+	 *
+	 * @param t
+	 *			les entiers à ajouter
+	 */
+	public IntARN(int... t) {
+		this();
+		for(int e : t) {
+			add(e);
+		}
+	}
+
+	private void allouer(int capacite) {
+		cles = new int[capacite];
+		gauche = new int[capacite];
+		droit = new int[capacite];
+		pere = new int[capacite];
+		rouges = new long[(capacite + 63) >>> 6];
+		racine = SENTINELLE;
+		taille = 0;
+		libre = SENTINELLE;
+		prochain = 1;
+	}
+
+	@Override
+	public PrimitiveIterator.OfInt iterator() {
+		return new IntARNIterator();
+	}
+
+	@Override
+	public int size() {
+		return taille;
+	}
+
+	@Override
+	public void clear() {
+		allouer(CAPACITE_INITIALE);
+	}
+
+	public int hauteur() {
+		return hauteur(racine);
+	}
+
+	private int hauteur(int r) {
+		if(r == SENTINELLE) {
+			return 0;
+		}
+		return Math.max(hauteur(gauche[r]), hauteur(droit[r])) + 1;
+	}
+
+	/**
+	 * Indique si l'entier e est présent dans l'arbre
+	 */
+	public boolean contains(int e) {
+		return rechercher(e) != SENTINELLE;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Integer && contains(((Integer) o).intValue());
+	}
+
+	/**
+	 * Supprime l'entier e s'il est présent
+	 *
+	 * @return true si e était présent
+	 */
+	public boolean remove(int e) {
+		int z = rechercher(e);
+		if(z == SENTINELLE) {
+			return false;
+		}
+		supprimer(z);
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return o instanceof Integer && remove(((Integer) o).intValue());
+	}
+
+	/**
+	 * Ajoute l'entier e s'il n'est pas déjà présent
+	 *
+	 * @return true si e a été ajouté
+	 */
+	public boolean add(int e) {
+		int y = SENTINELLE;
+		int x = racine;
+		int c = 0;
+		while(x != SENTINELLE) {
+			c = Integer.compare(e, cles[x]);
+			if(c == 0) {
+				return false;
+			}
+			y = x;
+			x = c < 0 ? gauche[x] : droit[x];
+		}
+		int z = nouveauNoeud(e);
+		pere[z] = y;
+		if(y == SENTINELLE) {
+			racine = z;
+		} else if(c < 0) {
+			gauche[y] = z;
+		} else {
+			droit[y] = z;
+		}
+		taille++;
+		ajouterCorrection(z);
+		return true;
+	}
+
+	@Override
+	public boolean add(Integer e) {
+		return e != null && add(e.intValue());
+	}
+
+	/**
+	 * Plus petit entier de l'arbre
+	 *
+	 * @throws NoSuchElementException
+	 *			si l'arbre est vide
+	 */
+	public int min() {
+		if(racine == SENTINELLE) {
+			throw new NoSuchElementException();
+		}
+		return cles[minimum(racine)];
+	}
+
+	/**
+	 * Plus grand entier de l'arbre
+	 *
+	 * @throws NoSuchElementException
+	 *			si l'arbre est vide
+	 */
+	public int max() {
+		if(racine == SENTINELLE) {
+			throw new NoSuchElementException();
+		}
+		int x = racine;
+		while(droit[x] != SENTINELLE) {
+			x = droit[x];
+		}
+		return cles[x];
+	}
+
+	/**
+	 * Copie les entiers de l'arbre, dans l'ordre, dans un tableau
+	 */
+	public int[] toIntArray() {
+		int[] t = new int[taille];
+		int i = 0;
+		for(int x = minimum(racine); x != SENTINELLE; x = suivant(x)) {
+			t[i++] = cles[x];
+		}
+		return t;
+	}
+
+	// Gestion des cases
+
+	/**
+	 * Réserve une case pour un nouveau noeud rouge sans fils, en priorité
+	 * dans la liste libre, sinon à la fin des tableaux qui sont agrandis si
+	 * besoin
+	 */
+	private int nouveauNoeud(int e) {
+		int z;
+		if(libre != SENTINELLE) {
+			z = libre;
+			libre = gauche[z];
+		} else {
+			if(prochain == cles.length) {
+				agrandir();
+			}
+			z = prochain++;
+		}
+		cles[z] = e;
+		gauche[z] = SENTINELLE;
+		droit[z] = SENTINELLE;
+		pere[z] = SENTINELLE;
+		colorer(z, true);
+		return z;
+	}
+
+	private void liberer(int z) {
+		gauche[z] = libre;
+		libre = z;
+	}
+
+	private void agrandir() {
+		int capacite = cles.length + (cles.length >> 1);
+		cles = Arrays.copyOf(cles, capacite);
+		gauche = Arrays.copyOf(gauche, capacite);
+		droit = Arrays.copyOf(droit, capacite);
+		pere = Arrays.copyOf(pere, capacite);
+		rouges = Arrays.copyOf(rouges, (capacite + 63) >>> 6);
+	}
+
+	private boolean rouge(int x) {
+		return (rouges[x >>> 6] & (1L << x)) != 0;
+	}
+
+	private void colorer(int x, boolean rouge) {
+		if(rouge) {
+			rouges[x >>> 6] |= 1L << x;
+		} else {
+			rouges[x >>> 6] &= ~(1L << x);
+		}
+	}
+
+	// Quelques méthodes utiles
+
+	private int rechercher(int e) {
+		int x = racine;
+		while(x != SENTINELLE) {
+			int c = Integer.compare(e, cles[x]);
+			if(c == 0) {
+				return x;
+			}
+			x = c < 0 ? gauche[x] : droit[x];
+		}
+		return x;
+	}
+
+	private int minimum(int x) {
+		while(gauche[x] != SENTINELLE) {
+			x = gauche[x];
+		}
+		return x;
+	}
+
+	private int suivant(int x) {
+		if(droit[x] != SENTINELLE) {
+			return minimum(droit[x]);
+		}
+		int y = pere[x];
+		while(y != SENTINELLE && x == droit[y]) {
+			x = y;
+			y = pere[y];
+		}
+		return y;
+	}
+
+	/**
+	 * Supprime le noeud z et libère sa case
+	 *
+	 * @return le noeud qui suit z dans l'ordre des clés
+	 */
+	private int supprimer(int z) {
+		int suivant = suivant(z);
+		int y = z;
+		boolean yRouge = rouge(y);
+		int x;
+
+		if(gauche[z] == SENTINELLE) {
+			x = droit[z];
+			transplanter(z, droit[z]);
+		} else if(droit[z] == SENTINELLE) {
+			x = gauche[z];
+			transplanter(z, gauche[z]);
+		} else {
+			y = suivant;
+			yRouge = rouge(y);
+			x = droit[y];
+			if(pere[y] == z) {
+				pere[x] = y;
+			} else {
+				transplanter(y, droit[y]);
+				droit[y] = droit[z];
+				pere[droit[y]] = y;
+			}
+			transplanter(z, y);
+			gauche[y] = gauche[z];
+			pere[gauche[y]] = y;
+			colorer(y, rouge(z));
+		}
+		taille--;
+		if(!yRouge) {
+			supprimerCorrection(x);
+		}
+		liberer(z);
+		return suivant;
+	}
+
+	private void transplanter(int u, int v) {
+		if(pere[u] == SENTINELLE) {
+			racine = v;
+		} else if(u == gauche[pere[u]]) {
+			gauche[pere[u]] = v;
+		} else {
+			droit[pere[u]] = v;
+		}
+		pere[v] = pere[u];
+	}
+
+	private void ajouterCorrection(int z) {
+		int y;
+		while(rouge(pere[z])) {
+			int p = pere[z];
+			int g = pere[p];
+			if(p == gauche[g]) {
+				y = droit[g]; // l'oncle de z
+				if(rouge(y)) {
+					// cas 1
+					colorer(p, false);
+					colorer(y, false);
+					colorer(g, true);
+					z = g;
+				} else {
+					if(z == droit[p]) {
+						// cas 2
+						z = p;
+						rotationGauche(z);
+					}
+					// cas 3
+					colorer(pere[z], false);
+					colorer(pere[pere[z]], true);
+					rotationDroite(pere[pere[z]]);
+				}
+			} else {
+				y = gauche[g]; // l'oncle de z
+				if(rouge(y)) {
+					// cas 1
+					colorer(p, false);
+					colorer(y, false);
+					colorer(g, true);
+					z = g;
+				} else {
+					if(z == gauche[p]) {
+						// cas 2
+						z = p;
+						rotationDroite(z);
+					}
+					// cas 3
+					colorer(pere[z], false);
+					colorer(pere[pere[z]], true);
+					rotationGauche(pere[pere[z]]);
+				}
+			}
+		}
+		colorer(racine, false);
+	}
+
+	private void supprimerCorrection(int x) {
+		int w;
+		while(x != racine && !rouge(x)) {
+			int p = pere[x];
+			if(x == gauche[p]) {
+				w = droit[p]; // le frère de x
+				if(rouge(w)) {
+					// cas 1
+					colorer(w, false);
+					colorer(p, true);
+					rotationGauche(p);
+					w = droit[p];
+				}
+				if(!rouge(gauche[w]) && !rouge(droit[w])) {
+					// cas 2
+					colorer(w, true);
+					x = p;
+				} else {
+					if(!rouge(droit[w])) {
+						// cas 3
+						colorer(gauche[w], false);
+						colorer(w, true);
+						rotationDroite(w);
+						w = droit[p];
+					}
+					// cas 4
+					colorer(w, rouge(p));
+					colorer(p, false);
+					colorer(droit[w], false);
+					rotationGauche(p);
+					x = racine;
+				}
+			} else {
+				w = gauche[p]; // le frère de x
+				if(rouge(w)) {
+					// cas 1
+					colorer(w, false);
+					colorer(p, true);
+					rotationDroite(p);
+					w = gauche[p];
+				}
+				if(!rouge(gauche[w]) && !rouge(droit[w])) {
+					// cas 2
+					colorer(w, true);
+					x = p;
+				} else {
+					if(!rouge(gauche[w])) {
+						// cas 3
+						colorer(droit[w], false);
+						colorer(w, true);
+						rotationGauche(w);
+						w = gauche[p];
+					}
+					// cas 4
+					colorer(w, rouge(p));
+					colorer(p, false);
+					colorer(gauche[w], false);
+					rotationDroite(p);
+					x = racine;
+				}
+			}
+		}
+		colorer(x, false);
+	}
+
+	private void rotationGauche(int x) {
+		int y = droit[x];
+		droit[x] = gauche[y];
+		if(gauche[y] != SENTINELLE) {
+			pere[gauche[y]] = x;
+		}
+		pere[y] = pere[x];
+		if(pere[x] == SENTINELLE) {
+			racine = y;
+		} else if(x == gauche[pere[x]]) {
+			gauche[pere[x]] = y;
+		} else {
+			droit[pere[x]] = y;
+		}
+		gauche[y] = x;
+		pere[x] = y;
+	}
+
+	private void rotationDroite(int x) {
+		int y = gauche[x];
+		gauche[x] = droit[y];
+		if(droit[y] != SENTINELLE) {
+			pere[droit[y]] = x;
+		}
+		pere[y] = pere[x];
+		if(pere[x] == SENTINELLE) {
+			racine = y;
+		} else if(x == droit[pere[x]]) {
+			droit[pere[x]] = y;
+		} else {
+			gauche[pere[x]] = y;
+		}
+		droit[y] = x;
+		pere[x] = y;
+	}
+
+	/**
+	 * Parcourt les entiers dans l'ordre croissant sans les boxer
+	 */
+	private class IntARNIterator implements PrimitiveIterator.OfInt {
+		int courant;
+		int suivant;
+
+		IntARNIterator() {
+			this.courant = SENTINELLE;
+			this.suivant = minimum(racine);
+		}
+
+		public boolean hasNext() {
+			return suivant != SENTINELLE;
+		}
+
+		public int nextInt() {
+			if(suivant == SENTINELLE) {
+				throw new NoSuchElementException();
+			}
+			courant = suivant;
+			suivant = suivant(suivant);
+			return cles[courant];
+		}
+
+		public void remove() {
+			if(courant == SENTINELLE) {
+				throw new IllegalStateException();
+			}
+			suivant = supprimer(courant);
+			courant = SENTINELLE;
+		}
+	}
+}
@@ -0,0 +1,202 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre d'intervalles : un {@link ARN} d'intervalles fermés [debut, fin],
+ * ordonnés par leur début (puis par leur fin), dont chaque noeud stocke la
+ * plus grande fin de son sous-arbre. Cette fin maximale est tenue à jour par
+ * les ajouts, les suppressions et les rotations comme la taille des
+ * sous-arbres (voir {@link ARN#majNoeud}).
+ * </p>
+ *
+ * <p>
+ * Elle permet de trouver les intervalles qui chevauchent [a, b] (ou qui
+ * contiennent un point t) sans tout parcourir : un sous-arbre dont la fin
+ * maximale est avant a ne contient aucune réponse, et le parcours s'arrête au
+ * premier début après b. Les réponses sont produites au fur et à mesure par
+ * un itérateur, dans l'ordre des débuts, en O(log n) par réponse au pire ;
+ * rien n'est copié dans une liste.
+ * </p>
+ */
+public class IntervalARN extends ARN<IntervalARN.Intervalle> {
+
+	/**
+	 * Intervalle fermé [debut, fin] d'entiers longs (des instants par
+	 * exemple). Deux intervalles sont égaux s'ils ont les mêmes bornes.
+	 */
+	public static class Intervalle implements Comparable<Intervalle> {
+		public final long debut;
+		public final long fin;
+
+		/**
+		 * @throws IllegalArgumentException
+		 *			si fin &lt; debut
+		 */
+		public Intervalle(long debut, long fin) {
+			if(fin < debut) {
+				throw new IllegalArgumentException("intervalle vide : [" + debut + ", " + fin + "]");
+			}
+			this.debut = debut;
+			this.fin = fin;
+		}
+
+		/**
+		 * Indique si cet intervalle a au moins un point commun avec [a, b]
+		 */
+		public boolean chevauche(long a, long b) {
+			return debut <= b && fin >= a;
+		}
+
+		@Override
+		public int compareTo(Intervalle o) {
+			int c = Long.compare(debut, o.debut);
+			return c != 0 ? c : Long.compare(fin, o.fin);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) return true;
+			if(!(o instanceof Intervalle)) return false;
+			Intervalle i = (Intervalle) o;
+			return debut == i.debut && fin == i.fin;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(debut) * 31 + Long.hashCode(fin);
+		}
+
+		@Override
+		public String toString() {
+			return "[" + debut + ", " + fin + "]";
+		}
+	}
+
+	private class NoeudIntervalle extends Noeud {
+		long finMax;			// plus grande fin du sous-arbre enraciné ici
+
+		NoeudIntervalle(Intervalle cle) {
+			super(cle);
+		}
+	}
+
+	/**
+	 * Crée un arbre d'intervalles vide
+	 */
+	public IntervalARN() {
+		super();
+	}
+
+	/**
+	 * Ajoute l'intervalle [debut, fin]
+	 *
+	 * @return true si l'intervalle n'était pas déjà présent
+	 * @throws IllegalArgumentException
+	 *			si fin &lt; debut
+	 */
+	public boolean add(long debut, long fin) {
+		return add(new Intervalle(debut, fin));
+	}
+
+	/**
+	 * Renvoie les intervalles qui contiennent t, dans l'ordre de leurs débuts
+	 */
+	public Iterator<Intervalle> stabbing(long t) {
+		return overlapping(t, t);
+	}
+
+	/**
+	 * Renvoie les intervalles qui ont au moins un point commun avec [a, b],
+	 * dans l'ordre de leurs débuts. Les réponses sont trouvées au fur et à
+	 * mesure du parcours ; l'arbre ne doit pas être modifié pendant celui-ci.
+	 *
+	 * @throws IllegalArgumentException
+	 *			si b &lt; a
+	 */
+	public Iterator<Intervalle> overlapping(long a, long b) {
+		if(b < a) {
+			throw new IllegalArgumentException("intervalle vide : [" + a + ", " + b + "]");
+		}
+		return new Chevauchements(a, b);
+	}
+
+	// Maintien des fins maximales
+
+	@Override
+	Noeud creerNoeud(Intervalle e) {
+		return new NoeudIntervalle(e);
+	}
+
+	@Override
+	void majNoeud(Noeud x) {
+		super.majNoeud(x);
+		((NoeudIntervalle) x).finMax = Math.max(x.cle.fin, Math.max(finMax(x.gauche), finMax(x.droit)));
+	}
+
+	private long finMax(Noeud x) {
+		return x == sentinelle ? Long.MIN_VALUE : ((NoeudIntervalle) x).finMax;
+	}
+
+	/**
+	 * Parcours infixe élagué : la pile contient les noeuds dont le
+	 * sous-arbre gauche est en cours de parcours. Un sous-arbre n'est empilé
+	 * que si sa fin maximale atteint a, et le parcours s'arrête au premier
+	 * noeud qui commence après b, tous les suivants commençant plus tard.
+	 */
+	private class Chevauchements implements Iterator<Intervalle> {
+		final long a;
+		final long b;
+		final ArrayDeque<Noeud> pile = new ArrayDeque<>();
+		Noeud suivant;
+
+		Chevauchements(long a, long b) {
+			this.a = a;
+			this.b = b;
+			empiler(racine);
+			avancer();
+		}
+
+		public boolean hasNext() {
+			return suivant != sentinelle;
+		}
+
+		public Intervalle next() {
+			if(suivant == sentinelle) {
+				throw new NoSuchElementException();
+			}
+			Intervalle r = suivant.cle;
+			avancer();
+			return r;
+		}
+
+		/**
+		 * Empile x et sa branche gauche, sans descendre dans les
+		 * sous-arbres qui finissent tous avant a
+		 */
+		private void empiler(Noeud x) {
+			while(x != sentinelle && finMax(x) >= a) {
+				pile.push(x);
+				x = x.gauche;
+			}
+		}
+
+		/**
+		 * Cherche la réponse suivante, la sentinelle s'il n'y en a plus
+		 */
+		private void avancer() {
+			while(!pile.isEmpty()) {
+				Noeud x = pile.pop();
+				if(x.cle.debut > b) {
+					break;
+				}
+				empiler(x.droit);
+				if(x.cle.fin >= a) {
+					suivant = x;
+					return;
+				}
+			}
+			pile.clear();
+			suivant = sentinelle;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Codage des clés sur un nombre fixe d'octets. Le codage doit préserver
+ * l'ordre : deux clés codées se comparent comme les tableaux d'octets
+ * correspondants, octet par octet et sans signe. Les arbres qui stockent des
+ * clés codées (hors du tas par exemple) peuvent ainsi les comparer sans les
+ * décoder.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés codées
+ */
+public interface KeyCodec<E> {
+
+	/**
+	 * Nombre d'octets occupés par une clé codée
+	 */
+	int largeur();
+
+	/**
+	 * Écrit la clé codée dans dst à partir de position (position absolue, la
+	 * position courante du tampon n'est pas modifiée)
+	 */
+	void encoder(E cle, ByteBuffer dst, int position);
+
+	/**
+	 * Lit la clé codée dans src à partir de position (position absolue)
+	 */
+	E decoder(ByteBuffer src, int position);
+
+	/**
+	 * Entiers sur 4 octets, gros-boutiste, bit de signe inversé pour que les
+	 * négatifs précèdent les positifs
+	 */
+	KeyCodec<Integer> INT = new KeyCodec<Integer>() {
+		public int largeur() {
+			return Integer.BYTES;
+		}
+
+		public void encoder(Integer cle, ByteBuffer dst, int position) {
+			dst.putInt(position, cle ^ Integer.MIN_VALUE);
+		}
+
+		public Integer decoder(ByteBuffer src, int position) {
+			return src.getInt(position) ^ Integer.MIN_VALUE;
+		}
+	};
+
+	/**
+	 * Entiers longs sur 8 octets, gros-boutiste, bit de signe inversé
+	 */
+	KeyCodec<Long> LONG = new KeyCodec<Long>() {
+		public int largeur() {
+			return Long.BYTES;
+		}
+
+		public void encoder(Long cle, ByteBuffer dst, int position) {
+			dst.putLong(position, cle ^ Long.MIN_VALUE);
+		}
+
+		public Long decoder(ByteBuffer src, int position) {
+			return src.getLong(position) ^ Long.MIN_VALUE;
+		}
+	};
+
+	/**
+	 * Compare deux clés codées de largeur octets, comme des tableaux d'octets
+	 * non signés. Les octets sont lus par huit tant que possible.
+	 *
+	 * @return un entier négatif, nul ou positif selon que la première clé est
+	 *		 inférieure, égale ou supérieure à la seconde
+	 */
+	static int comparer(ByteBuffer a, int pa, ByteBuffer b, int pb, int largeur) {
+		int i = 0;
+		for(; i + Long.BYTES <= largeur; i += Long.BYTES) {
+			long x = a.getLong(pa + i);
+			long y = b.getLong(pb + i);
+			if(x != y) {
+				return Long.compareUnsigned(x, y);
+			}
+		}
+		for(; i < largeur; i++) {
+			int c = Byte.toUnsignedInt(a.get(pa + i)) - Byte.toUnsignedInt(b.get(pb + i));
+			if(c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+}
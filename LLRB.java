@@ -0,0 +1,264 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre rouge-noir penché à gauche (Sedgewick) : un rouge-noir dont les liens
+ * rouges sont toujours des fils gauches, image exacte d'un arbre 2-3.
+ * L'insertion et la suppression se réduisent à trois corrections locales
+ * appliquées en remontant, au lieu des cas symétriques de {@link ARN}. La
+ * couleur de chaque noeud est dans {@link ArbreEquilibre.Noeud#marque}.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class LLRB<E> extends ArbreEquilibre<E> {
+	private static final int NOIR = 0;
+	private static final int ROUGE = 1;
+
+	/** Vrai si la dernière insertion a modifié l'arbre */
+	private boolean modifie;
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public LLRB() {
+		super();
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public LLRB(Comparator<? super E> cmp) {
+		super(cmp);
+	}
+
+	/**
+	 * Constructeur par recopie, en temps linéaire si c est déjà trié
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public LLRB(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	boolean rouge(Noeud<E> x) {
+		return x != null && x.marque == ROUGE;
+	}
+
+	@Override
+	boolean inserer(E e) {
+		modifie = false;
+		racine = inserer(racine, e);
+		racine.marque = NOIR;
+		return modifie;
+	}
+
+	private Noeud<E> inserer(Noeud<E> h, E e) {
+		if(h == null) {
+			modifie = true;
+			Noeud<E> z = new Noeud<>(e);
+			z.marque = ROUGE;
+			return z;
+		}
+		int c = cmp.compare(e, h.cle);
+		if(c < 0) {
+			h.gauche = inserer(h.gauche, e);
+		} else if(c > 0) {
+			h.droit = inserer(h.droit, e);
+		} else {
+			return h;
+		}
+		return corriger(h);
+	}
+
+	/**
+	 * La descente suppose la clé présente : elle est d'abord cherchée
+	 */
+	@Override
+	boolean supprimer(E e) {
+		if(rechercher(e) == null) {
+			return false;
+		}
+		if(!rouge(racine.gauche) && !rouge(racine.droit)) {
+			racine.marque = ROUGE;
+		}
+		racine = supprimer(racine, e);
+		if(racine != null) {
+			racine.marque = NOIR;
+		}
+		return true;
+	}
+
+	/**
+	 * Descend vers e en s'assurant que le noeud courant ou son fils gauche
+	 * est rouge, si bien que la suppression finale se fait dans un noeud 3 ou
+	 * 4 de l'arbre 2-3 équivalent
+	 */
+	private Noeud<E> supprimer(Noeud<E> h, E e) {
+		if(cmp.compare(e, h.cle) < 0) {
+			if(!rouge(h.gauche) && !rouge(h.gauche.gauche)) {
+				h = rougeAGauche(h);
+			}
+			h.gauche = supprimer(h.gauche, e);
+		} else {
+			if(rouge(h.gauche)) {
+				h = pencherDroite(h);
+			}
+			if(cmp.compare(e, h.cle) == 0 && h.droit == null) {
+				return null;
+			}
+			if(!rouge(h.droit) && !rouge(h.droit.gauche)) {
+				h = rougeADroite(h);
+			}
+			if(cmp.compare(e, h.cle) == 0) {
+				// h prend la clé de son successeur, retiré du sous-arbre droit
+				h.cle = minimum(h.droit).cle;
+				h.droit = supprimerMinimum(h.droit);
+			} else {
+				h.droit = supprimer(h.droit, e);
+			}
+		}
+		return corriger(h);
+	}
+
+	private Noeud<E> supprimerMinimum(Noeud<E> h) {
+		if(h.gauche == null) {
+			return null;
+		}
+		if(!rouge(h.gauche) && !rouge(h.gauche.gauche)) {
+			h = rougeAGauche(h);
+		}
+		h.gauche = supprimerMinimum(h.gauche);
+		return corriger(h);
+	}
+
+	/**
+	 * Construit un arbre 2-3 de hauteur minimale, chaque noeud 3 devenant un
+	 * noeud noir de fils gauche rouge : le découpage au milieu de la classe
+	 * mère laisserait des liens rouges à droite.
+	 */
+	@Override
+	Noeud<E> construire(Object[] t, int n) {
+		int h = 31 - Integer.numberOfLeadingZeros(n + 1);		// 2^h - 1 <= n
+		long[] capacites = new long[h + 1];						// 3^k - 1
+		long p = 1;
+		for(int k = 0; k <= h; k++) {
+			capacites[k] = p - 1;
+			p *= 3;
+		}
+		Noeud<E> r = construire23(t, 0, n, h, capacites);
+		if(r != null) {
+			r.marque = NOIR;
+		}
+		return r;
+	}
+
+	/**
+	 * Construit l'arbre 2-3 de hauteur h des clés t[debut..fin[ ; un arbre 2-3
+	 * de hauteur h contient de 2^h - 1 à 3^h - 1 clés
+	 */
+	private Noeud<E> construire23(Object[] t, int debut, int fin, int h, long[] capacites) {
+		if(h == 0) {
+			return null;
+		}
+		int m = fin - debut;
+		if(m <= 2 * capacites[h - 1] + 1) {
+			// noeud 2 : deux sous-arbres de tailles presque égales
+			int g = debut + (m - 1) / 2;
+			Noeud<E> x = nouveauNoeud(t, g);
+			x.gauche = construire23(t, debut, g, h - 1, capacites);
+			x.droit = construire23(t, g + 1, fin, h - 1, capacites);
+			return x;
+		}
+		// noeud 3 : trois sous-arbres de tailles presque égales
+		int q = (m - 2) / 3;
+		int r = (m - 2) % 3;
+		int a = debut + q + (r > 0 ? 1 : 0);
+		int b = a + 1 + q + (r > 1 ? 1 : 0);
+		Noeud<E> y = nouveauNoeud(t, a);
+		y.marque = ROUGE;
+		y.gauche = construire23(t, debut, a, h - 1, capacites);
+		y.droit = construire23(t, a + 1, b, h - 1, capacites);
+		Noeud<E> x = nouveauNoeud(t, b);
+		x.gauche = y;
+		x.droit = construire23(t, b + 1, fin, h - 1, capacites);
+		return x;
+	}
+
+	// Corrections locales
+
+	/**
+	 * Rétablit les invariants en h en remontant : lien rouge à droite penché
+	 * à gauche, deux rouges à la suite tournés, noeud 4 éclaté
+	 */
+	private Noeud<E> corriger(Noeud<E> h) {
+		if(rouge(h.droit) && !rouge(h.gauche)) {
+			h = pencherGauche(h);
+		}
+		if(rouge(h.gauche) && rouge(h.gauche.gauche)) {
+			h = pencherDroite(h);
+		}
+		if(rouge(h.gauche) && rouge(h.droit)) {
+			inverser(h);
+		}
+		return h;
+	}
+
+	private Noeud<E> pencherGauche(Noeud<E> h) {
+		Noeud<E> x = tournerGauche(h);
+		x.marque = h.marque;
+		h.marque = ROUGE;
+		return x;
+	}
+
+	private Noeud<E> pencherDroite(Noeud<E> h) {
+		Noeud<E> x = tournerDroite(h);
+		x.marque = h.marque;
+		h.marque = ROUGE;
+		return x;
+	}
+
+	/** Inverse les couleurs de h et de ses deux fils */
+	private void inverser(Noeud<E> h) {
+		h.marque ^= 1;
+		h.gauche.marque ^= 1;
+		h.droit.marque ^= 1;
+	}
+
+	/**
+	 * h est rouge et ses fils gauche et petit-fils gauche noirs : rend rouge
+	 * le fils gauche ou l'un de ses fils
+	 */
+	private Noeud<E> rougeAGauche(Noeud<E> h) {
+		inverser(h);
+		if(rouge(h.droit.gauche)) {
+			h.droit = pencherDroite(h.droit);
+			h = pencherGauche(h);
+			inverser(h);
+		}
+		return h;
+	}
+
+	/**
+	 * h est rouge et ses fils droit et petit-fils droit-gauche noirs : rend
+	 * rouge le fils droit ou l'un de ses fils
+	 */
+	private Noeud<E> rougeADroite(Noeud<E> h) {
+		inverser(h);
+		if(rouge(h.gauche.gauche)) {
+			h = pencherDroite(h);
+			inverser(h);
+		}
+		return h;
+	}
+}
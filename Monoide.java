@@ -0,0 +1,110 @@
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * Agrégat calculé par un {@link ARNAgrege} sur chacun de ses sous-arbres :
+ * chaque élément a une valeur, et les valeurs sont combinées dans l'ordre des
+ * éléments par une opération associative dont {@link #neutre()} est
+ * l'élément neutre.
+ * </p>
+ *
+ * <p>
+ * L'opération n'a pas besoin d'être commutative (la concaténation par
+ * exemple) mais doit être associative, car l'arbre regroupe les éléments
+ * selon sa forme du moment. Pour des agrégats de type long, sans boxing, voir
+ * {@link MonoideLong} et {@link ARNAgregeLong}.
+ * </p>
+ *
+ * @param <E>
+ *			le type des éléments
+ * @param <A>
+ *			le type de l'agrégat
+ */
+public interface Monoide<E, A> {
+
+	/**
+	 * L'agrégat d'un ensemble vide
+	 */
+	A neutre();
+
+	/**
+	 * L'agrégat de l'ensemble réduit à e
+	 */
+	A valeur(E e);
+
+	/**
+	 * L'agrégat de la réunion de deux ensembles consécutifs, a précédant b
+	 */
+	A combiner(A a, A b);
+
+	/**
+	 * Nombre d'éléments
+	 */
+	static <E> Monoide<E, Long> nombre() {
+		return somme(e -> 1);
+	}
+
+	/**
+	 * Somme de f sur les éléments
+	 */
+	static <E> Monoide<E, Long> somme(ToLongFunction<? super E> f) {
+		return new Monoide<E, Long>() {
+			public Long neutre() {
+				return 0L;
+			}
+
+			public Long valeur(E e) {
+				return f.applyAsLong(e);
+			}
+
+			public Long combiner(Long a, Long b) {
+				return a + b;
+			}
+		};
+	}
+
+	/**
+	 * Plus petite valeur de f sur les éléments, null pour un ensemble vide
+	 */
+	static <E, A extends Comparable<? super A>> Monoide<E, A> minimum(Function<? super E, ? extends A> f) {
+		return new Monoide<E, A>() {
+			public A neutre() {
+				return null;
+			}
+
+			public A valeur(E e) {
+				return f.apply(e);
+			}
+
+			public A combiner(A a, A b) {
+				if(a == null) {
+					return b;
+				}
+				return b == null || a.compareTo(b) <= 0 ? a : b;
+			}
+		};
+	}
+
+	/**
+	 * Plus grande valeur de f sur les éléments, null pour un ensemble vide
+	 */
+	static <E, A extends Comparable<? super A>> Monoide<E, A> maximum(Function<? super E, ? extends A> f) {
+		return new Monoide<E, A>() {
+			public A neutre() {
+				return null;
+			}
+
+			public A valeur(E e) {
+				return f.apply(e);
+			}
+
+			public A combiner(A a, A b) {
+				if(a == null) {
+					return b;
+				}
+				return b == null || a.compareTo(b) >= 0 ? a : b;
+			}
+		};
+	}
+}
@@ -0,0 +1,93 @@
+import java.util.function.ToLongFunction;
+
+/**
+ * Version de {@link Monoide} dont l'agrégat est un long, utilisée par
+ * {@link ARNAgregeLong} pour stocker l'agrégat de chaque sous-arbre sans
+ * boxing.
+ *
+ * @param <E>
+ *			le type des éléments
+ */
+public interface MonoideLong<E> {
+
+	/**
+	 * L'agrégat d'un ensemble vide
+	 */
+	long neutre();
+
+	/**
+	 * L'agrégat de l'ensemble réduit à e
+	 */
+	long valeur(E e);
+
+	/**
+	 * L'agrégat de la réunion de deux ensembles consécutifs, a précédant b
+	 */
+	long combiner(long a, long b);
+
+	/**
+	 * Nombre d'éléments
+	 */
+	static <E> MonoideLong<E> nombre() {
+		return somme(e -> 1);
+	}
+
+	/**
+	 * Somme de f sur les éléments
+	 */
+	static <E> MonoideLong<E> somme(ToLongFunction<? super E> f) {
+		return new MonoideLong<E>() {
+			public long neutre() {
+				return 0;
+			}
+
+			public long valeur(E e) {
+				return f.applyAsLong(e);
+			}
+
+			public long combiner(long a, long b) {
+				return a + b;
+			}
+		};
+	}
+
+	/**
+	 * Plus petite valeur de f sur les éléments, Long.MAX_VALUE pour un
+	 * ensemble vide
+	 */
+	static <E> MonoideLong<E> minimum(ToLongFunction<? super E> f) {
+		return new MonoideLong<E>() {
+			public long neutre() {
+				return Long.MAX_VALUE;
+			}
+
+			public long valeur(E e) {
+				return f.applyAsLong(e);
+			}
+
+			public long combiner(long a, long b) {
+				return Math.min(a, b);
+			}
+		};
+	}
+
+	/**
+	 * Plus grande valeur de f sur les éléments, Long.MIN_VALUE pour un
+	 * ensemble vide
+	 */
+	static <E> MonoideLong<E> maximum(ToLongFunction<? super E> f) {
+		return new MonoideLong<E>() {
+			public long neutre() {
+				return Long.MIN_VALUE;
+			}
+
+			public long valeur(E e) {
+				return f.applyAsLong(e);
+			}
+
+			public long combiner(long a, long b) {
+				return Math.max(a, b);
+			}
+		};
+	}
+}
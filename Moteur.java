@@ -0,0 +1,93 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Les moteurs d'arbre ordonné, interchangeables derrière
+ * {@link ArbreOrdonne}. Le choix peut venir de la configuration :
+ * </p>
+ *
+ * <pre>
+ * ArbreOrdonne&lt;Integer&gt; t = Moteur.configure().creer();	// -Darn.moteur=AVL
+ * </pre>
+ *
+ * <p>
+ * AVL et Scapegoat donnent les arbres les moins hauts, donc les recherches
+ * les plus courtes ; ARN fait le moins de rotations par mise à jour. Le
+ * benchmark MoteurBenchmark les compare sur des mélanges de lectures et
+ * d'écritures.
+ * </p>
+ */
+public enum Moteur {
+	/** Rouge-noir, {@link ARN} */
+	ARN,
+	/** Le rouge-noir de {@link ARN} derrière l'interface de {@link ABR} */
+	ABR,
+	/** {@link AVL} */
+	AVL,
+	/** Rouge-noir penché à gauche, {@link LLRB} */
+	LLRB,
+	/** {@link Treap} */
+	TREAP,
+	/** Bouc émissaire, {@link Scapegoat} */
+	SCAPEGOAT;
+
+	/** Propriété système lue par {@link #configure()} */
+	public static final String PROPRIETE = "arn.moteur";
+
+	/**
+	 * Le moteur nommé par la propriété système arn.moteur, ARN si elle est
+	 * absente
+	 *
+	 * @throws IllegalArgumentException
+	 *			si la propriété ne nomme aucun moteur
+	 */
+	public static Moteur configure() {
+		return valueOf(System.getProperty(PROPRIETE, "ARN").trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Crée un arbre vide de ce moteur. Les éléments sont ordoDés selon l'ordre
+	 * naturel
+	 */
+	public <E> ArbreOrdonne<E> creer() {
+		switch(this) {
+			case ARN:
+				return new ARN<>();
+			case ABR:
+				return new ABR<>();
+			case AVL:
+				return new AVL<>();
+			case LLRB:
+				return new LLRB<>();
+			case TREAP:
+				return new Treap<>();
+			default:
+				return new Scapegoat<>();
+		}
+	}
+
+	/**
+	 * Crée un arbre vide de ce moteur. Les éléments sont comparés selon
+	 * l'ordre imposé par le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public <E> ArbreOrdonne<E> creer(Comparator<? super E> cmp) {
+		Objects.requireNonNull(cmp);
+		switch(this) {
+			case ARN:
+				return new ARN<>(cmp);
+			case ABR:
+				return new ABR<>(cmp);
+			case AVL:
+				return new AVL<>(cmp);
+			case LLRB:
+				return new LLRB<>(cmp);
+			case TREAP:
+				return new Treap<>(cmp);
+			default:
+				return new Scapegoat<>(cmp);
+		}
+	}
+}
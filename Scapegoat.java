@@ -0,0 +1,220 @@
+import java.util.*;
+
+/**
+ * <p>
+ * Arbre bouc émissaire (Galperin et Rivest) : les noeuds ne stockent rien de
+ * plus que leur clé et leurs fils, et ne subissent aucune rotation. Quand une
+ * insertion crée une feuille trop profonde (au-delà de log<sub>3/2</sub> n),
+ * le premier ancêtre déséquilibré, dont un fils pèse plus des deux tiers,
+ * est reconstruit parfaitement équilibré ; quand les suppressions ont retiré
+ * le tiers des noeuds, c'est tout l'arbre. Les recherches, qui ne touchent à
+ * rien, sont en O(log n) ; les mises à jour aussi, en coût amorti.
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class Scapegoat<E> extends ArbreEquilibre<E> {
+	/** 1 / log(3/2), pour la profondeur maximale d'une feuille */
+	private static final double INVERSE_LOG_ALPHA = 1 / Math.log(1.5);
+
+	/** Plus grande taille atteinte depuis la dernière reconstruction totale */
+	private int tailleMax;
+	/** Ancêtres du noeud inséré, de la racine à son père */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Noeud<E>[] chemin = new Noeud[16];
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public Scapegoat() {
+		super();
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public Scapegoat(Comparator<? super E> cmp) {
+		super(cmp);
+	}
+
+	/**
+	 * Constructeur par recopie, en temps linéaire si c est déjà trié
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public Scapegoat(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		tailleMax = 0;
+	}
+
+	@Override
+	boolean inserer(E e) {
+		int n = taille + 1;
+		if(racine == null) {
+			racine = new Noeud<>(e);
+			tailleMax = Math.max(tailleMax, n);
+			return true;
+		}
+		int p = 0;
+		Noeud<E> x = racine;
+		Noeud<E> z;
+		while(true) {
+			int c = cmp.compare(e, x.cle);
+			if(c == 0) {
+				Arrays.fill(chemin, 0, p, null);
+				return false;
+			}
+			if(p == chemin.length) {
+				chemin = Arrays.copyOf(chemin, 2 * p);
+			}
+			chemin[p++] = x;
+			Noeud<E> y = c < 0 ? x.gauche : x.droit;
+			if(y == null) {
+				z = new Noeud<>(e);
+				if(c < 0) {
+					x.gauche = z;
+				} else {
+					x.droit = z;
+				}
+				break;
+			}
+			x = y;
+		}
+		tailleMax = Math.max(tailleMax, n);
+		// z est à la profondeur p (la racine à 0)
+		if(p > (int) (Math.log(n) * INVERSE_LOG_ALPHA)) {
+			reequilibrerAncetre(z, p);
+		}
+		Arrays.fill(chemin, 0, p, null);
+		return true;
+	}
+
+	/**
+	 * Remonte de z vers la racine en calculant la taille des sous-arbres
+	 * traversés, jusqu'au premier ancêtre dont le fils sur le chemin pèse
+	 * plus des deux tiers, et reconstruit son sous-arbre. Un tel ancêtre
+	 * existe puisque z est trop profond.
+	 */
+	private void reequilibrerAncetre(Noeud<E> z, int p) {
+		Noeud<E> fils = z;
+		int tailleFils = 1;
+		for(int i = p - 1; i >= 0; i--) {
+			Noeud<E> pere = chemin[i];
+			Noeud<E> frere = pere.gauche == fils ? pere.droit : pere.gauche;
+			int taillePere = tailleFils + 1 + compter(frere);
+			if(3L * tailleFils > 2L * taillePere) {
+				Noeud<E> r = reconstruire(pere, taillePere);
+				if(i == 0) {
+					racine = r;
+				} else if(chemin[i - 1].gauche == pere) {
+					chemin[i - 1].gauche = r;
+				} else {
+					chemin[i - 1].droit = r;
+				}
+				return;
+			}
+			fils = pere;
+			tailleFils = taillePere;
+		}
+	}
+
+	@Override
+	boolean supprimer(E e) {
+		Noeud<E> pere = null;
+		Noeud<E> z = racine;
+		while(z != null) {
+			int c = cmp.compare(e, z.cle);
+			if(c == 0) {
+				break;
+			}
+			pere = z;
+			z = c < 0 ? z.gauche : z.droit;
+		}
+		if(z == null) {
+			return false;
+		}
+		if(z.gauche != null && z.droit != null) {
+			// z prend la clé de son successeur, qui n'a pas de fils gauche
+			Noeud<E> pereS = z;
+			Noeud<E> s = z.droit;
+			while(s.gauche != null) {
+				pereS = s;
+				s = s.gauche;
+			}
+			z.cle = s.cle;
+			if(pereS == z) {
+				pereS.droit = s.droit;
+			} else {
+				pereS.gauche = s.droit;
+			}
+		} else {
+			Noeud<E> fils = z.gauche != null ? z.gauche : z.droit;
+			if(pere == null) {
+				racine = fils;
+			} else if(pere.gauche == z) {
+				pere.gauche = fils;
+			} else {
+				pere.droit = fils;
+			}
+		}
+		int n = taille - 1;
+		if(3L * n < 2L * tailleMax) {
+			racine = reconstruire(racine, n);
+			tailleMax = n;
+		}
+		return true;
+	}
+
+	@Override
+	Noeud<E> construire(Object[] t, int n) {
+		tailleMax = n;
+		return super.construire(t, n);
+	}
+
+	/**
+	 * Remplace le sous-arbre x, de n noeuds, par un arbre parfaitement
+	 * équilibré des mêmes clés
+	 */
+	private Noeud<E> reconstruire(Noeud<E> x, int n) {
+		Object[] t = new Object[n];
+		aplatir(x, t, 0);
+		return milieu(t, 0, n);
+	}
+
+	/**
+	 * Nombre de noeuds du sous-arbre x, compté sans récursion
+	 */
+	private static int compter(Noeud<?> x) {
+		if(x == null) {
+			return 0;
+		}
+		int n = 0;
+		ArrayDeque<Noeud<?>> pile = new ArrayDeque<>();
+		pile.push(x);
+		while(!pile.isEmpty()) {
+			Noeud<?> y = pile.pop();
+			n++;
+			if(y.gauche != null) {
+				pile.push(y.gauche);
+			}
+			if(y.droit != null) {
+				pile.push(y.droit);
+			}
+		}
+		return n;
+	}
+}
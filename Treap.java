@@ -0,0 +1,154 @@
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>
+ * Treap : un arbre binaire de recherche sur les clés qui est aussi un tas sur
+ * des priorités tirées au hasard, rangées dans
+ * {@link ArbreEquilibre.Noeud#marque}. Sa forme est celle d'un arbre construit
+ * en insérant les clés dans un ordre aléatoire, de hauteur O(log n) en
+ * moyenne quel que soit l'ordre réel des insertions. Les mises à jour sont
+ * simples et font peu de rotations (deux en moyenne par insertion).
+ * </p>
+ *
+ * @param <E>
+ *			le type des clés stockées dans l'arbre
+ */
+public class Treap<E> extends ArbreEquilibre<E> {
+	/** Vrai si la dernière insertion ou suppression a modifié l'arbre */
+	private boolean modifie;
+
+	// Consructeurs
+
+	/**
+	 * Crée un arbre vide. Les éléments sont ordoDés selon l'ordre naturel
+	 */
+	public Treap() {
+		super();
+	}
+
+	/**
+	 * Crée un arbre vide. Les éléments sont comparés selon l'ordre imposé par
+	 * le comparateur
+	 *
+	 * @param cmp
+	 *			le comparateur utilisé pour définir l'ordre des éléments
+	 */
+	public Treap(Comparator<? super E> cmp) {
+		super(cmp);
+	}
+
+	/**
+	 * Constructeur par recopie, en temps linéaire si c est déjà trié
+	 *
+	 * @param c
+	 *			la collection à copier
+	 */
+	public Treap(Collection<? extends E> c) {
+		this();
+		addAll(c);
+	}
+
+	@Override
+	boolean inserer(E e) {
+		modifie = false;
+		racine = inserer(racine, e);
+		return modifie;
+	}
+
+	/**
+	 * Insère e comme une feuille puis le fait remonter par rotations tant que
+	 * sa priorité dépasse celle de son père
+	 */
+	private Noeud<E> inserer(Noeud<E> x, E e) {
+		if(x == null) {
+			modifie = true;
+			Noeud<E> z = new Noeud<>(e);
+			z.marque = ThreadLocalRandom.current().nextInt();
+			return z;
+		}
+		int c = cmp.compare(e, x.cle);
+		if(c < 0) {
+			x.gauche = inserer(x.gauche, e);
+			if(x.gauche.marque > x.marque) {
+				x = tournerDroite(x);
+			}
+		} else if(c > 0) {
+			x.droit = inserer(x.droit, e);
+			if(x.droit.marque > x.marque) {
+				x = tournerGauche(x);
+			}
+		}
+		return x;
+	}
+
+	@Override
+	boolean supprimer(E e) {
+		modifie = false;
+		racine = supprimer(racine, e);
+		return modifie;
+	}
+
+	private Noeud<E> supprimer(Noeud<E> x, E e) {
+		if(x == null) {
+			return null;
+		}
+		int c = cmp.compare(e, x.cle);
+		if(c < 0) {
+			x.gauche = supprimer(x.gauche, e);
+		} else if(c > 0) {
+			x.droit = supprimer(x.droit, e);
+		} else {
+			modifie = true;
+			return joindre(x.gauche, x.droit);
+		}
+		return x;
+	}
+
+	/**
+	 * Réunit deux treaps dont toutes les clés de a précèdent celles de b :
+	 * la racine est celle de plus grande priorité
+	 */
+	private Noeud<E> joindre(Noeud<E> a, Noeud<E> b) {
+		if(a == null) {
+			return b;
+		}
+		if(b == null) {
+			return a;
+		}
+		if(a.marque > b.marque) {
+			a.droit = joindre(a.droit, b);
+			return a;
+		}
+		b.gauche = joindre(a, b.gauche);
+		return b;
+	}
+
+	/**
+	 * Construit en temps linéaire le treap des clés triées, avec des
+	 * priorités tirées au hasard comme par des insertions : chaque clé entre
+	 * par la droite, en prenant pour fils gauche les noeuds de la branche
+	 * droite de priorité plus faible. Découper au milieu, comme la classe
+	 * mère, obligerait à donner aux noeuds des priorités liées à leur place,
+	 * et les suppressions suivantes dégraderaient l'arbre.
+	 */
+	@Override
+	Noeud<E> construire(Object[] t, int n) {
+		ThreadLocalRandom hasard = ThreadLocalRandom.current();
+		ArrayDeque<Noeud<E>> brancheDroite = new ArrayDeque<>();
+		for(int i = 0; i < n; i++) {
+			Noeud<E> z = nouveauNoeud(t, i);
+			z.marque = hasard.nextInt();
+			Noeud<E> dernier = null;
+			while(!brancheDroite.isEmpty() && brancheDroite.peek().marque < z.marque) {
+				dernier = brancheDroite.pop();
+			}
+			z.gauche = dernier;
+			if(!brancheDroite.isEmpty()) {
+				brancheDroite.peek().droit = z;
+			}
+			brancheDroite.push(z);
+		}
+		return brancheDroite.peekLast();
+	}
+}
@@ -0,0 +1,255 @@
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * Statistiques sur la forme d'un arbre binaire, renvoyées par
+ * {@link ArbreOrdonne#stats()}. Elles sont toutes calculées
+ * en un seul parcours de l'arbre, en O(n) : les premiers niveaux sont
+ * répartis entre les threads du ForkJoinPool commun, et chaque sous-arbre est
+ * parcouru sans récursion, avec une pile de la hauteur du sous-arbre, ce qui
+ * convient aussi aux arbres dégénérés.
+ * </p>
+ *
+ * <p>
+ * Les hauteurs et profondeurs comptent des noeuds : un arbre réduit à sa
+ * racine est de hauteur 1 et sa feuille est à la profondeur 1.
+ * </p>
+ */
+public final class TreeStats {
+	private final long taille;
+	private final int hauteur;
+	private final int diametre;
+	private final int hauteurNoire;
+	private final long rouges;
+	private final long feuilles;
+	private final long sommeProfondeurs;
+
+	private TreeStats(Resume r) {
+		this.taille = r.taille;
+		this.hauteur = r.hauteur;
+		this.diametre = r.diametre;
+		this.hauteurNoire = r.hauteurNoire;
+		this.rouges = r.rouges;
+		this.feuilles = r.feuilles;
+		this.sommeProfondeurs = r.sommeProfondeurs;
+	}
+
+	/** Nombre de noeuds */
+	public long size() {
+		return taille;
+	}
+
+	/** Nombre de noeuds du plus long chemin de la racine à une feuille */
+	public int height() {
+		return hauteur;
+	}
+
+	/** Nombre de noeuds du plus long chemin entre deux noeuds de l'arbre */
+	public int diameter() {
+		return diametre;
+	}
+
+	/**
+	 * Nombre de noeuds noirs sur chaque chemin de la racine à une feuille,
+	 * -1 si ce nombre n'est pas le même pour tous les chemins
+	 */
+	public int blackHeight() {
+		return hauteurNoire;
+	}
+
+	public long redNodes() {
+		return rouges;
+	}
+
+	public long blackNodes() {
+		return taille - rouges;
+	}
+
+	/** Nombre de noeuds sans fils */
+	public long leaves() {
+		return feuilles;
+	}
+
+	/** Profondeur moyenne des noeuds sans fils, 0 pour un arbre vide */
+	public double averageLeafDepth() {
+		return feuilles == 0 ? 0 : (double) sommeProfondeurs / feuilles;
+	}
+
+	@Override
+	public String toString() {
+		return "TreeStats[taille=" + taille + ", hauteur=" + hauteur + ", diametre=" + diametre
+			+ ", hauteurNoire=" + hauteurNoire + ", rouges=" + rouges + ", noirs=" + blackNodes()
+			+ ", feuilles=" + feuilles + ", profondeurMoyenneFeuilles="
+			+ String.format(Locale.ROOT, "%.2f", averageLeafDepth()) + "]";
+	}
+
+	// Calcul
+
+	/**
+	 * Statistiques d'un arbre dont toutes les feuilles sont à la même
+	 * profondeur et dont la racine, si elle n'est pas une feuille, a au moins
+	 * deux fils, comme un arbre B. Les noeuds sont comptés tous noirs.
+	 *
+	 * @param noeuds
+	 *			le nombre de noeuds
+	 * @param feuilles
+	 *			le nombre de noeuds sans fils
+	 * @param hauteur
+	 *			la profondeur commune des feuilles, 0 pour l'arbre vide
+	 */
+	static TreeStats equilibre(long noeuds, long feuilles, int hauteur) {
+		Resume r = new Resume();
+		r.taille = noeuds;
+		r.hauteur = hauteur;
+		r.diametre = hauteur <= 1 ? hauteur : 2 * hauteur - 1;
+		r.hauteurNoire = hauteur;
+		r.feuilles = feuilles;
+		r.sommeProfondeurs = feuilles * hauteur;
+		return new TreeStats(r);
+	}
+
+	/**
+	 * Calcule les statistiques de l'arbre de racine r
+	 *
+	 * @param parallele
+	 *			vrai pour répartir les premiers niveaux entre plusieurs
+	 *			threads, ce qui ne vaut la peine que pour un gros arbre
+	 */
+	static <N> TreeStats calculer(N r, Dessin.Acces<N> a, boolean parallele) {
+		int threads = ForkJoinPool.getCommonPoolParallelism();
+		if(!parallele || threads < 2) {
+			return new TreeStats(sequentiel(r, a));
+		}
+		// Environ quatre tâches par thread pour équilibrer la charge
+		int niveaux = 34 - Integer.numberOfLeadingZeros(threads - 1);
+		return new TreeStats(ForkJoinPool.commonPool().invoke(new Tache<>(r, a, 0, niveaux)));
+	}
+
+	/**
+	 * Statistiques d'un sous-arbre, combinées de bas en haut
+	 */
+	private static final class Resume {
+		long taille;
+		int hauteur;
+		int diametre;
+		int hauteurNoire;
+		long rouges;
+		long feuilles;
+		long sommeProfondeurs;		// des feuilles, relatives à la racine du sous-arbre
+
+		/** Revient aux valeurs de l'arbre vide */
+		void vider() {
+			taille = hauteur = diametre = hauteurNoire = 0;
+			rouges = feuilles = sommeProfondeurs = 0;
+		}
+
+		/**
+		 * Calcule le résumé du sous-arbre dont la racine, rouge ou noire, a
+		 * pour fils les sous-arbres résumés par g et d
+		 */
+		void combiner(Resume g, Resume d, boolean rouge) {
+			taille = g.taille + d.taille + 1;
+			hauteur = Math.max(g.hauteur, d.hauteur) + 1;
+			diametre = Math.max(g.hauteur + d.hauteur + 1, Math.max(g.diametre, d.diametre));
+			hauteurNoire = g.hauteurNoire < 0 || g.hauteurNoire != d.hauteurNoire
+				? -1 : g.hauteurNoire + (rouge ? 0 : 1);
+			rouges = g.rouges + d.rouges + (rouge ? 1 : 0);
+			if(g.taille == 0 && d.taille == 0) {
+				feuilles = 1;
+				sommeProfondeurs = 1;
+			} else {
+				feuilles = g.feuilles + d.feuilles;
+				sommeProfondeurs = g.sommeProfondeurs + g.feuilles + d.sommeProfondeurs + d.feuilles;
+			}
+		}
+	}
+
+	/** Un niveau de la pile du parcours séquentiel, réutilisé d'un noeud à l'autre */
+	private static final class Cadre<N> {
+		N noeud;
+		int etat;				// 0 : fils gauche à faire, 1 : fils droit à faire, 2 : fini
+		final Resume g = new Resume();
+		final Resume d = new Resume();
+
+		void init(N x) {
+			noeud = x;
+			etat = 0;
+			g.vider();
+			d.vider();
+		}
+	}
+
+	/**
+	 * Parcours postfixe itératif : chaque sous-arbre terminé est résumé dans
+	 * le cadre de son père. N'alloue qu'un cadre par niveau.
+	 */
+	private static <N> Resume sequentiel(N r, Dessin.Acces<N> a) {
+		Resume resultat = new Resume();
+		if(a.vide(r)) {
+			return resultat;
+		}
+		ArrayList<Cadre<N>> pile = new ArrayList<>();
+		int haut = 0;
+		pile.add(new Cadre<>());
+		pile.get(haut++).init(r);
+		while(haut > 0) {
+			Cadre<N> c = pile.get(haut - 1);
+			if(c.etat < 2) {
+				N fils = c.etat == 0 ? a.gauche(c.noeud) : a.droit(c.noeud);
+				c.etat++;
+				if(!a.vide(fils)) {
+					if(haut == pile.size()) {
+						pile.add(new Cadre<>());
+					}
+					pile.get(haut++).init(fils);
+				}
+				continue;
+			}
+			Resume cible = resultat;
+			if(haut > 1) {
+				Cadre<N> pere = pile.get(haut - 2);
+				cible = pere.etat == 1 ? pere.g : pere.d;
+			}
+			cible.combiner(c.g, c.d, a.rouge(c.noeud));
+			c.noeud = null;
+			haut--;
+		}
+		return resultat;
+	}
+
+	/**
+	 * Résume les deux sous-arbres d'un noeud en parallèle jusqu'à la
+	 * profondeur niveaux, puis séquentiellement
+	 */
+	@SuppressWarnings("serial")
+	private static final class Tache<N> extends RecursiveTask<Resume> {
+		final N x;
+		final Dessin.Acces<N> a;
+		final int niveau;
+		final int niveaux;
+
+		Tache(N x, Dessin.Acces<N> a, int niveau, int niveaux) {
+			this.x = x;
+			this.a = a;
+			this.niveau = niveau;
+			this.niveaux = niveaux;
+		}
+
+		@Override
+		protected Resume compute() {
+			if(niveau == niveaux || a.vide(x)) {
+				return sequentiel(x, a);
+			}
+			Tache<N> gauche = new Tache<>(a.gauche(x), a, niveau + 1, niveaux);
+			gauche.fork();
+			Resume d = new Tache<>(a.droit(x), a, niveau + 1, niveaux).compute();
+			Resume g = gauche.join();
+			Resume r = new Resume();
+			r.combiner(g, d, a.rouge(x));
+			return r;
+		}
+	}
+}
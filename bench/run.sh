@@ -0,0 +1,15 @@
+#!/bin/sh
+# Construit le jar des benchmarks et lance JMH avec le profileur d'allocations.
+# Les résultats (débit et octets alloués par opération, gc.alloc.rate.norm)
+# sont écrits en JSON dans results/, un fichier par exécution, pour comparer
+# les versions entre elles.
+#
+# Les arguments sont transmis à JMH, par exemple :
+#   ./run.sh CollectionBenchmark.contains -p taille=1000,100000 -p typeCle=ENTIER
+set -e
+cd "$(dirname "$0")"
+mvn -B -q package -DskipTests
+version=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+sortie="results/$(date +%Y%m%d-%H%M%S)-$version.json"
+java -jar target/benchmarks.jar -prof gc -rf json -rff "$sortie" "$@"
+echo "Résultats écrits dans $sortie"
@@ -0,0 +1,83 @@
+package arn.bench;
+
+import java.util.Random;
+
+/**
+ * Génération des jeux de clés des benchmarks. Les clés sont distinctes et la
+ * génération est déterministe (graine fixe) pour que deux exécutions mesurent
+ * exactement la même séquence d'opérations.
+ */
+public final class Cles {
+	public static final long GRAINE = 0x5DEECE66DL;
+
+	/** Ordre dans lequel les clés sont présentées aux collections */
+	public enum Distribution {
+		ALEATOIRE, TRIEE, INVERSEE
+	}
+
+	/** Type des clés */
+	public enum Type {
+		ENTIER, CHAINE
+	}
+
+	private Cles() {
+	}
+
+	/**
+	 * Génère n clés distinctes
+	 *
+	 * @param n
+	 *			le nombre de clés
+	 * @param distribution
+	 *			l'ordre de présentation des clés
+	 * @param type
+	 *			le type des clés
+	 * @return les clés, dans l'ordre de présentation
+	 */
+	public static Object[] generer(int n, Distribution distribution, Type type) {
+		// Clés distinctes dans l'ordre croissant ; les chaînes sont complétées
+		// par des zéros pour être ordonnées comme les entiers
+		Object[] cles = new Object[n];
+		for(int i = 0; i < n; i++) {
+			cles[i] = enCle(i, type);
+		}
+		switch(distribution) {
+			case ALEATOIRE:
+				melanger(cles, new Random(GRAINE));
+				break;
+			case INVERSEE:
+				for(int i = 0, j = n - 1; i < j; i++, j--) {
+					Object t = cles[i];
+					cles[i] = cles[j];
+					cles[j] = t;
+				}
+				break;
+			default:
+				break;
+		}
+		return cles;
+	}
+
+	/**
+	 * Renvoie une copie mélangée des clés, utilisée comme suite de sondes pour
+	 * les recherches afin de ne pas favoriser les caches par un parcours ordonné
+	 */
+	public static Object[] sondes(Object[] cles) {
+		Object[] s = cles.clone();
+		melanger(s, new Random(GRAINE + 1));
+		return s;
+	}
+
+	static Object enCle(int v, Type type) {
+		return type == Type.ENTIER ? (Object) Integer.valueOf(v) : String.format("cle-%010d", v);
+	}
+
+	private static void melanger(Object[] t, Random r) {
+		for(int i = t.length - 1; i > 0; i--) {
+			int j = r.nextInt(i + 1);
+			Object x = t[i];
+			t[i] = t[j];
+			t[j] = x;
+		}
+	}
+}
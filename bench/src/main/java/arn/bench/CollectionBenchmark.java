@@ -0,0 +1,144 @@
+package arn.bench;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compare ARN, ARNTableau, ArbreBPlus, ABR et java.util.TreeSet sur les
+ * opérations de base de Collection.
+ *
+ * <p>
+ * Les opérations unitaires (contains, remove, size) sont mesurées en
+ * nanosecondes par opération sur une collection pré-remplie. Les opérations
+ * globales (construction par add, addAll, parcours) sont mesurées par
+ * invocation, c'est-à-dire pour les {@code taille} éléments à la fois.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CollectionBenchmark {
+
+	/** Les clés à insérer, générées une fois par combinaison de paramètres */
+	@State(Scope.Benchmark)
+	public static class Donnees {
+		@Param({"ARN", "ARN_TABLEAU", "ARBRE_B_PLUS", "ABR", "TREESET"})
+		public Implementation impl;
+
+		@Param({"1000", "10000", "100000", "1000000", "10000000"})
+		public int taille;
+
+		@Param({"ALEATOIRE", "TRIEE", "INVERSEE"})
+		public Cles.Distribution distribution;
+
+		@Param({"ENTIER", "CHAINE"})
+		public Cles.Type typeCle;
+
+		Object[] cles;
+		List<Object> liste;
+
+		@Setup(Level.Trial)
+		public void generer() {
+			cles = Cles.generer(taille, distribution, typeCle);
+			liste = Arrays.asList(cles);
+		}
+	}
+
+	/** Une collection remplie avec toutes les clés et une suite de sondes */
+	@State(Scope.Benchmark)
+	public static class Remplie {
+		Collection<Object> collection;
+		Object[] sondes;
+		int i;
+
+		@Setup(Level.Trial)
+		public void remplir(Donnees d) {
+			collection = d.impl.creer();
+			for(Object cle : d.cles) {
+				collection.add(cle);
+			}
+			sondes = Cles.sondes(d.cles);
+		}
+
+		Object sonde() {
+			Object s = sondes[i];
+			if(++i == sondes.length) {
+				i = 0;
+			}
+			return s;
+		}
+	}
+
+	@Benchmark
+	public Collection<Object> add(Donnees d) {
+		Collection<Object> c = d.impl.creer();
+		for(Object cle : d.cles) {
+			c.add(cle);
+		}
+		return c;
+	}
+
+	@Benchmark
+	public Collection<Object> addAll(Donnees d) {
+		Collection<Object> c = d.impl.creer();
+		c.addAll(d.liste);
+		return c;
+	}
+
+	@Benchmark
+	public boolean contains(Remplie r) {
+		return r.collection.contains(r.sonde());
+	}
+
+	/**
+	 * Supprime une clé présente puis la réinsère, pour garder la taille
+	 * constante d'une invocation à l'autre : le temps mesuré est celui d'un
+	 * remove et d'un add.
+	 */
+	@Benchmark
+	public boolean removeAdd(Remplie r) {
+		Object s = r.sonde();
+		boolean retire = r.collection.remove(s);
+		r.collection.add(s);
+		return retire;
+	}
+
+	@Benchmark
+	public void iteration(Remplie r, Blackhole bh) {
+		for(Object o : r.collection) {
+			bh.consume(o);
+		}
+	}
+
+	/**
+	 * Agrégation par un flux parallèle, qui dépend de la qualité du découpage
+	 * du Spliterator de la collection
+	 */
+	@Benchmark
+	public long parallelStream(Remplie r) {
+		return r.collection.parallelStream().mapToLong(Object::hashCode).sum();
+	}
+
+	@Benchmark
+	public int size(Remplie r) {
+		return r.collection.size();
+	}
+}
@@ -0,0 +1,110 @@
+package arn.bench;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Débit d'un mélange de lectures (contains) et d'écritures (add ou remove)
+ * faites en parallèle sur une même collection : ConcurrentARN, un ARN
+ * protégé par Collections.synchronizedCollection et
+ * java.util.concurrent.ConcurrentSkipListSet.
+ *
+ * <p>
+ * Les clés sont tirées dans [0, 2 * taille[ et la collection en contient la
+ * moitié au départ ; une écriture ajoute ou retire une clé avec la même
+ * probabilité, la taille reste donc stable. Le nombre de threads ne pouvant
+ * pas être un paramètre JMH, chaque valeur (1, 4, 16 et 64) a sa sous-classe.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public abstract class ConcurrentBenchmark {
+
+	public enum Variante {
+		CONCURRENT_ARN,
+		ARN_SYNCHRONISE,
+		SKIPLIST;
+
+		Collection<Object> creer() {
+			switch(this) {
+				case CONCURRENT_ARN:
+					return Implementation.CONCURRENT_ARN.creer();
+				case ARN_SYNCHRONISE:
+					return Collections.synchronizedCollection(Implementation.ARN.creer());
+				default:
+					return new ConcurrentSkipListSet<>();
+			}
+		}
+	}
+
+	/** La collection partagée par tous les threads */
+	@State(Scope.Benchmark)
+	public static class Partagee {
+		@Param({"CONCURRENT_ARN", "ARN_SYNCHRONISE", "SKIPLIST"})
+		public Variante variante;
+
+		@Param({"10000", "1000000"})
+		public int taille;
+
+		/** Pourcentage de lectures, le reste étant des écritures */
+		@Param({"90", "50"})
+		public int lectures;
+
+		Collection<Object> collection;
+
+		@Setup(Level.Trial)
+		public void remplir() {
+			collection = variante.creer();
+			ThreadLocalRandom r = ThreadLocalRandom.current();
+			while(collection.size() < taille) {
+				collection.add(r.nextInt(2 * taille));
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean melange(Partagee p) {
+		ThreadLocalRandom r = ThreadLocalRandom.current();
+		Integer cle = r.nextInt(2 * p.taille);
+		if(r.nextInt(100) < p.lectures) {
+			return p.collection.contains(cle);
+		}
+		return r.nextBoolean() ? p.collection.add(cle) : p.collection.remove(cle);
+	}
+
+	@Threads(1)
+	public static class T01 extends ConcurrentBenchmark {
+	}
+
+	@Threads(4)
+	public static class T04 extends ConcurrentBenchmark {
+	}
+
+	@Threads(16)
+	public static class T16 extends ConcurrentBenchmark {
+	}
+
+	@Threads(64)
+	public static class T64 extends ConcurrentBenchmark {
+	}
+}
@@ -0,0 +1,46 @@
+package arn.bench;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Les collections ordonnées comparées par les benchmarks.
+ *
+ * <p>
+ * Les arbres du dépôt sont dans le paquetage par défaut, qu'on ne peut pas
+ * importer depuis un paquetage nommé (et JMH refuse les benchmarks du
+ * paquetage par défaut) : on les instancie donc par réflexion et on les
+ * manipule à travers l'interface Collection qu'ils implantent.
+ * </p>
+ */
+public enum Implementation {
+	ARN("ARN"),
+	ARN_TABLEAU("ARNTableau"),
+	ARBRE_B_PLUS("ArbreBPlus"),
+	ABR("ABR"),
+	CONCURRENT_ARN("ConcurrentARN"),
+	TREESET(null);
+
+	private final String classe;
+
+	Implementation(String classe) {
+		this.classe = classe;
+	}
+
+	/**
+	 * Crée une collection vide, ordonnée selon l'ordre naturel
+	 *
+	 * @return la nouvelle collection
+	 */
+	@SuppressWarnings("unchecked")
+	public Collection<Object> creer() {
+		if(classe == null) {
+			return new TreeSet<>();
+		}
+		try {
+			return (Collection<Object>) Class.forName(classe).getDeclaredConstructor().newInstance();
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Impossible d'instancier " + classe, e);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package arn.bench;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare ARNMap, java.util.TreeMap et un ARN de paires (clé, valeur)
+ * ordonnées par la clé, la façon dont on stockait des associations avant
+ * ARNMap : un objet Paire par entrée, et une paire sonde à construire pour
+ * chaque recherche.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MapBenchmark {
+
+	/** Les opérations mesurées, communes aux trois variantes */
+	interface Table {
+		Object put(Object cle, Object valeur);
+
+		Object get(Object cle);
+
+		Object remove(Object cle);
+	}
+
+	public enum Variante {
+		ARN_MAP,
+		TREEMAP,
+		ARN_PAIRES;
+
+		@SuppressWarnings("unchecked")
+		Table creer() {
+			switch(this) {
+				case ARN_MAP:
+					return table((Map<Object, Object>) instancier("ARNMap", new Class<?>[0]));
+				case TREEMAP:
+					return table(new TreeMap<>());
+				default:
+					Comparator<Paire> parCle = (a, b) -> ((Comparable<Object>) a.cle).compareTo(b.cle);
+					return paires((NavigableSet<Paire>) instancier("ARN", new Class<?>[] {Comparator.class}, parCle));
+			}
+		}
+	}
+
+	/** Entrée stockée dans l'ARN de paires */
+	static final class Paire {
+		final Object cle;
+		Object valeur;
+
+		Paire(Object cle, Object valeur) {
+			this.cle = cle;
+			this.valeur = valeur;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Donnees {
+		@Param({"ARN_MAP", "TREEMAP", "ARN_PAIRES"})
+		public Variante variante;
+
+		@Param({"1000", "100000", "1000000"})
+		public int taille;
+
+		@Param({"ENTIER", "CHAINE"})
+		public Cles.Type typeCle;
+
+		Object[] cles;
+
+		@Setup(Level.Trial)
+		public void generer() {
+			cles = Cles.generer(taille, Cles.Distribution.ALEATOIRE, typeCle);
+		}
+	}
+
+	/** Une table remplie avec toutes les clés et une suite de sondes */
+	@State(Scope.Benchmark)
+	public static class Remplie {
+		Table table;
+		Object[] sondes;
+		int i;
+
+		@Setup(Level.Trial)
+		public void remplir(Donnees d) {
+			table = d.variante.creer();
+			for(Object cle : d.cles) {
+				table.put(cle, cle);
+			}
+			sondes = Cles.sondes(d.cles);
+		}
+
+		Object sonde() {
+			Object s = sondes[i];
+			if(++i == sondes.length) {
+				i = 0;
+			}
+			return s;
+		}
+	}
+
+	@Benchmark
+	public Table put(Donnees d) {
+		Table t = d.variante.creer();
+		for(Object cle : d.cles) {
+			t.put(cle, cle);
+		}
+		return t;
+	}
+
+	@Benchmark
+	public Object get(Remplie r) {
+		return r.table.get(r.sonde());
+	}
+
+	/**
+	 * Remplace la valeur d'une clé présente : une seule descente pour
+	 * ARNMap et TreeMap
+	 */
+	@Benchmark
+	public Object putExistante(Remplie r) {
+		Object s = r.sonde();
+		return r.table.put(s, s);
+	}
+
+	/**
+	 * Retire une clé présente puis la remet, pour garder la taille constante
+	 */
+	@Benchmark
+	public Object removePut(Remplie r) {
+		Object s = r.sonde();
+		Object v = r.table.remove(s);
+		r.table.put(s, v);
+		return v;
+	}
+
+	private static Object instancier(String classe, Class<?>[] types, Object... arguments) {
+		try {
+			return Class.forName(classe).getDeclaredConstructor(types).newInstance(arguments);
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Impossible d'instancier " + classe, e);
+		}
+	}
+
+	private static Table table(Map<Object, Object> m) {
+		return new Table() {
+			public Object put(Object cle, Object valeur) {
+				return m.put(cle, valeur);
+			}
+
+			public Object get(Object cle) {
+				return m.get(cle);
+			}
+
+			public Object remove(Object cle) {
+				return m.remove(cle);
+			}
+		};
+	}
+
+	private static Table paires(NavigableSet<Paire> s) {
+		return new Table() {
+			public Object put(Object cle, Object valeur) {
+				Paire p = s.ceiling(new Paire(cle, null));
+				if(p != null && p.cle.equals(cle)) {
+					Object ancienne = p.valeur;
+					p.valeur = valeur;
+					return ancienne;
+				}
+				s.add(new Paire(cle, valeur));
+				return null;
+			}
+
+			public Object get(Object cle) {
+				Paire p = s.ceiling(new Paire(cle, null));
+				return p != null && p.cle.equals(cle) ? p.valeur : null;
+			}
+
+			public Object remove(Object cle) {
+				Paire p = s.ceiling(new Paire(cle, null));
+				if(p == null || !p.cle.equals(cle)) {
+					return null;
+				}
+				s.remove(p);
+				return p.valeur;
+			}
+		};
+	}
+}
@@ -0,0 +1,140 @@
+package arn.bench;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare les moteurs de l'énumération Moteur (ARN, ABR, AVL, LLRB,
+ * Treap, Scapegoat) sur la construction, élément par élément et en bloc, et
+ * sur un mélange d'opérations surtout en lecture ou surtout en écriture.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MoteurBenchmark {
+
+	/**
+	 * Proportion des opérations qui modifient l'arbre : une écriture retire
+	 * une clé présente puis la remet, une lecture la cherche
+	 */
+	public enum Melange {
+		/** une écriture pour 19 lectures */
+		LECTURE(20),
+		/** une écriture pour une lecture */
+		ECRITURE(2);
+
+		final int periode;
+
+		Melange(int periode) {
+			this.periode = periode;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Donnees {
+		@Param({"ARN", "ABR", "AVL", "LLRB", "TREAP", "SCAPEGOAT"})
+		public String moteur;
+
+		@Param({"1000", "100000", "1000000"})
+		public int taille;
+
+		@Param({"ALEATOIRE", "TRIEE"})
+		public Cles.Distribution distribution;
+
+		Object[] cles;
+		List<Object> liste;
+
+		@Setup(Level.Trial)
+		public void generer() {
+			cles = Cles.generer(taille, distribution, Cles.Type.ENTIER);
+			liste = Arrays.asList(cles);
+		}
+
+		Collection<Object> creer() {
+			return MoteurBenchmark.creer(moteur);
+		}
+	}
+
+	/** Un arbre rempli avec toutes les clés et une suite de sondes */
+	@State(Scope.Benchmark)
+	public static class Rempli {
+		@Param({"LECTURE", "ECRITURE"})
+		public Melange melange;
+
+		Collection<Object> arbre;
+		Object[] sondes;
+		int i;
+
+		@Setup(Level.Trial)
+		public void remplir(Donnees d) {
+			arbre = d.creer();
+			for(Object cle : d.cles) {
+				arbre.add(cle);
+			}
+			sondes = Cles.sondes(d.cles);
+		}
+	}
+
+	@Benchmark
+	public Collection<Object> add(Donnees d) {
+		Collection<Object> c = d.creer();
+		for(Object cle : d.cles) {
+			c.add(cle);
+		}
+		return c;
+	}
+
+	/** Chargement en bloc : tri puis construction en temps linéaire */
+	@Benchmark
+	public Collection<Object> addAll(Donnees d) {
+		Collection<Object> c = d.creer();
+		c.addAll(d.liste);
+		return c;
+	}
+
+	@Benchmark
+	public boolean melange(Rempli r) {
+		Object s = r.sondes[r.i];
+		boolean ecriture = r.i % r.melange.periode == 0;
+		if(++r.i == r.sondes.length) {
+			r.i = 0;
+		}
+		if(ecriture) {
+			r.arbre.remove(s);
+			return r.arbre.add(s);
+		}
+		return r.arbre.contains(s);
+	}
+
+	/**
+	 * Crée un arbre vide du moteur nommé, par Moteur.valueOf(nom).creer() :
+	 * Moteur est dans le paquetage par défaut
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	static Collection<Object> creer(String nom) {
+		try {
+			Class moteurs = Class.forName("Moteur");
+			Object moteur = Enum.valueOf(moteurs, nom);
+			return (Collection<Object>) moteurs.getMethod("creer").invoke(moteur);
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Impossible de créer le moteur " + nom, e);
+		}
+	}
+}